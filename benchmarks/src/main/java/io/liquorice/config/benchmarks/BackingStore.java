@@ -0,0 +1,231 @@
+package io.liquorice.config.benchmarks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.formatter.json.gson.GsonConfigFormatter;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+import io.liquorice.config.storage.file.AtomicFileWriter;
+import io.liquorice.config.storage.file.json.gson.LazyGsonFileConfigSpace;
+import io.liquorice.config.storage.file.json.gson.ReadableGsonFileConfigSpace;
+import io.liquorice.config.storage.file.json.gson.WritableGsonFileConfigSpace;
+import io.liquorice.config.storage.file.json.jackson.LazyJacksonFileConfigSpace;
+import io.liquorice.config.storage.file.json.jackson.ReadableJacksonFileConfigSpace;
+import io.liquorice.config.storage.file.json.jackson.StreamingJacksonFileConfigSpace;
+import io.liquorice.config.storage.file.json.jackson.WritableJacksonFileConfigSpace;
+import io.liquorice.config.storage.file.properties.ReadablePropertiesFileConfigSpace;
+import io.liquorice.config.storage.file.properties.WritablePropertiesFileConfigSpace;
+import io.liquorice.config.storage.inmemory.ConcurrentMapConfigSpace;
+import io.liquorice.config.storage.inmemory.ReadableMapConfigSpace;
+import io.liquorice.config.storage.inmemory.WritableMapConfigSpace;
+import io.liquorice.config.storage.offheap.ReadableOffHeapConfigSpace;
+import io.liquorice.config.storage.offheap.WritableOffHeapConfigSpace;
+
+/**
+ * Every storage backend paired with the {@link ConfigFormatter}s that can decode what it stores
+ *
+ * <p>
+ * The JSON file spaces store parsed trees, which only the matching JSON formatter can decode, whereas the in-memory
+ * spaces store whatever the formatter writes and the properties space stores JSON text. The off-heap spaces can only
+ * store what the formatter writes as text.
+ *
+ * <p>
+ * Some stores have no writable variant, and fail to open as writable. {@link StoreWriteBenchmark} only lists the
+ * stores that do. The lazy stores read their file for as long as they are used and cannot close it, so their channel
+ * stays open until the benchmark fork exits.
+ */
+public enum BackingStore {
+
+    MAP_PASSTHROUGH {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) {
+            return openMap(new PassThroughConfigFormatter(), size, writable);
+        }
+    },
+
+    MAP_JACKSON {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) {
+            return openMap(new JacksonConfigFormatter.Builder().build(), size, writable);
+        }
+    },
+
+    MAP_GSON {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) {
+            return openMap(new GsonConfigFormatter.Builder().build(), size, writable);
+        }
+    },
+
+    CONCURRENT_MAP_PASSTHROUGH {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) {
+            final ConfigFormatter configFormatter = new PassThroughConfigFormatter();
+            return new ConcurrentMapConfigSpace(configFormatter, BenchmarkData.properties(configFormatter, size));
+        }
+    },
+
+    OFFHEAP_JACKSON {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) {
+            final ConfigFormatter configFormatter = new JacksonConfigFormatter.Builder().build();
+            return writable
+                    ? new WritableOffHeapConfigSpace(configFormatter, BenchmarkData.properties(configFormatter, size))
+                    : new ReadableOffHeapConfigSpace(configFormatter, BenchmarkData.properties(configFormatter, size));
+        }
+    },
+
+    JACKSON_FILE {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            final Path file = directory.resolve("config.json");
+            BenchmarkData.writeJson(file, size);
+
+            try (final FileChannel fileChannel = openChannel(file)) {
+                if (writable) {
+                    return new WritableJacksonFileConfigSpace.Builder() //
+                            .withFileChannel(fileChannel) //
+                            .withAtomicWrites(file, AtomicFileWriter.SyncPolicy.NONE) //
+                            .build();
+                }
+                return new ReadableJacksonFileConfigSpace.Builder() //
+                        .withFileChannel(fileChannel) //
+                        .build();
+            }
+        }
+    },
+
+    JACKSON_STREAMING {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            requireReadOnly(writable);
+            final Path file = directory.resolve("config.json");
+            BenchmarkData.writeJson(file, size);
+
+            try (final FileChannel fileChannel = openChannel(file)) {
+                return new StreamingJacksonFileConfigSpace.Builder() //
+                        .withFileChannel(fileChannel) //
+                        .build();
+            }
+        }
+    },
+
+    JACKSON_LAZY {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            requireReadOnly(writable);
+            final Path file = directory.resolve("config.json");
+            BenchmarkData.writeJson(file, size);
+
+            return new LazyJacksonFileConfigSpace.Builder() //
+                    .withFileChannel(FileChannel.open(file, StandardOpenOption.READ)) //
+                    .build();
+        }
+    },
+
+    GSON_FILE {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            final Path file = directory.resolve("config.json");
+            BenchmarkData.writeJson(file, size);
+
+            try (final FileChannel fileChannel = openChannel(file)) {
+                if (writable) {
+                    return new WritableGsonFileConfigSpace.Builder() //
+                            .withFileChannel(fileChannel) //
+                            .withAtomicWrites(file, AtomicFileWriter.SyncPolicy.NONE) //
+                            .build();
+                }
+                return new ReadableGsonFileConfigSpace.Builder() //
+                        .withFileChannel(fileChannel) //
+                        .build();
+            }
+        }
+    },
+
+    GSON_LAZY {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            requireReadOnly(writable);
+            final Path file = directory.resolve("config.json");
+            BenchmarkData.writeJson(file, size);
+
+            return new LazyGsonFileConfigSpace.Builder() //
+                    .withFileChannel(FileChannel.open(file, StandardOpenOption.READ)) //
+                    .build();
+        }
+    },
+
+    PROPERTIES_JACKSON {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            return openProperties(directory, new JacksonConfigFormatter.Builder().build(), size, writable);
+        }
+    },
+
+    PROPERTIES_GSON {
+        @Override
+        ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException {
+            return openProperties(directory, new GsonConfigFormatter.Builder().build(), size, writable);
+        }
+    };
+
+    /**
+     * Create a config space holding {@link BenchmarkData} padded out to $size keys
+     *
+     * <p>
+     * Writable file spaces replace their file atomically without forcing it to disk, so that a write measures
+     * serialization rather than the storage device.
+     *
+     * @param directory
+     *            an empty directory for any files
+     * @param size
+     *            the total number of keys
+     * @param writable
+     *            whether to create the {@link io.liquorice.config.api.storage.WritableConfigSpace} variant
+     * @return the config space
+     * @throws IOException
+     *             if a file could not be written or read
+     */
+    abstract ConfigSpace open(final Path directory, final int size, final boolean writable) throws IOException;
+
+    private static void requireReadOnly(final boolean writable) {
+        if (writable) {
+            throw new UnsupportedOperationException("This store has no writable variant");
+        }
+    }
+
+    private static ConfigSpace openMap(final ConfigFormatter configFormatter, final int size, final boolean writable) {
+        return writable ? new WritableMapConfigSpace(configFormatter, BenchmarkData.properties(configFormatter, size))
+                : new ReadableMapConfigSpace(configFormatter, BenchmarkData.properties(configFormatter, size));
+    }
+
+    private static ConfigSpace openProperties(final Path directory, final ConfigFormatter configFormatter,
+            final int size, final boolean writable) throws IOException {
+        final Path file = directory.resolve("config.properties");
+        BenchmarkData.writeProperties(file, size);
+
+        try (final FileChannel fileChannel = openChannel(file)) {
+            if (writable) {
+                return new WritablePropertiesFileConfigSpace.Builder() //
+                        .withConfigFormatter(configFormatter) //
+                        .withFileChannel(fileChannel) //
+                        .withAtomicWrites(file, AtomicFileWriter.SyncPolicy.NONE) //
+                        .build();
+            }
+            return new ReadablePropertiesFileConfigSpace.Builder() //
+                    .withConfigFormatter(configFormatter) //
+                    .withFileChannel(fileChannel) //
+                    .build();
+        }
+    }
+
+    private static FileChannel openChannel(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
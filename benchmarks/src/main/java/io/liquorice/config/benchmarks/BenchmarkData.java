@@ -0,0 +1,129 @@
+package io.liquorice.config.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+
+/**
+ * The properties every benchmark reads and writes, padded out to the requested number of keys
+ */
+final class BenchmarkData {
+
+    static final String INT_KEY = "key.int";
+    static final int INT_VALUE = 7;
+    static final String STRING_KEY = "key.string";
+    static final String STRING_VALUE = "test string";
+    static final String COMPLEX_KEY = "key.complex";
+    static final String COMPLEX_JSON = "{\"host\":\"localhost\",\"port\":8080,\"tags\":[\"primary\",\"internal\"]}";
+    static final String MISSING_KEY = "key.does.not.exist";
+
+    // The keys above, which count towards the requested size
+    private static final int NAMED_KEYS = 3;
+
+    private BenchmarkData() {
+
+    }
+
+    /**
+     * @return the value stored under {@link #COMPLEX_KEY}
+     */
+    static Endpoint endpoint() {
+        final Endpoint endpoint = new Endpoint();
+        endpoint.host = "localhost";
+        endpoint.port = 8080;
+        endpoint.tags = List.of("primary", "internal");
+        return endpoint;
+    }
+
+    /**
+     * Build the properties of an in-memory config space, with non-primitive values written by $configFormatter
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} the config space reads with
+     * @param size
+     *            the total number of keys
+     * @return the properties
+     */
+    static Map<String, Object> properties(final ConfigFormatter configFormatter, final int size) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(INT_KEY, INT_VALUE);
+        properties.put(STRING_KEY, configFormatter.write(STRING_VALUE));
+        properties.put(COMPLEX_KEY, configFormatter.write(endpoint()));
+        for (int i = 0; i < size - NAMED_KEYS; i++) {
+            properties.put(fillerKey(i), fillerValue(i));
+        }
+        return properties;
+    }
+
+    /**
+     * Write the properties as a flat JSON object to $file
+     *
+     * @param file
+     *            the file
+     * @param size
+     *            the total number of keys
+     * @throws IOException
+     *             if the file could not be written
+     */
+    static void writeJson(final Path file, final int size) throws IOException {
+        try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"" + INT_KEY + "\":" + INT_VALUE);
+            writer.write(",\"" + STRING_KEY + "\":\"" + STRING_VALUE + "\"");
+            writer.write(",\"" + COMPLEX_KEY + "\":" + COMPLEX_JSON);
+            for (int i = 0; i < size - NAMED_KEYS; i++) {
+                writer.write(",\"" + fillerKey(i) + "\":\"" + fillerValue(i) + "\"");
+            }
+            writer.write("}");
+        }
+    }
+
+    /**
+     * Write the properties to $file in the {@link Properties} format, with non-primitive values as JSON
+     *
+     * @param file
+     *            the file
+     * @param size
+     *            the total number of keys
+     * @throws IOException
+     *             if the file could not be written
+     */
+    static void writeProperties(final Path file, final int size) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(INT_KEY, Integer.toString(INT_VALUE));
+        properties.setProperty(STRING_KEY, "\"" + STRING_VALUE + "\"");
+        properties.setProperty(COMPLEX_KEY, COMPLEX_JSON);
+        for (int i = 0; i < size - NAMED_KEYS; i++) {
+            properties.setProperty(fillerKey(i), fillerValue(i));
+        }
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+
+    private static String fillerKey(final int i) {
+        return "key.filler." + i;
+    }
+
+    private static String fillerValue(final int i) {
+        return "value " + i;
+    }
+
+    /**
+     * The complex value decoded by the benchmarks
+     */
+    public static final class Endpoint {
+        public String host;
+        public int port;
+        public List<String> tags;
+    }
+}
@@ -0,0 +1,51 @@
+package io.liquorice.config.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cleans up after the benchmarks that create config spaces on disk
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+
+    }
+
+    /**
+     * Close $object if it holds any resources
+     *
+     * @param object
+     *            a config space
+     * @throws Exception
+     *             if it could not be closed
+     */
+    static void close(final Object object) throws Exception {
+        if (object instanceof AutoCloseable) {
+            ((AutoCloseable) object).close();
+        }
+    }
+
+    /**
+     * Delete $directory and everything in it
+     *
+     * @param directory
+     *            the directory
+     * @throws IOException
+     *             if anything could not be deleted
+     */
+    static void delete(final Path directory) throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (final Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.liquorice.config.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+import io.liquorice.config.storage.inmemory.ReadableMapConfigSpace;
+
+/**
+ * Measures the default-valued getters of a {@link ConfigSpace} for present, missing and mistyped keys
+ *
+ * <p>
+ * The miss and wrong-type cases used to be dominated by {@code Throwable.fillInStackTrace}. Run with
+ * {@code java -jar benchmarks/target/benchmarks.jar DefaultValueLookupBenchmark -prof stack} to see where the time
+ * goes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultValueLookupBenchmark {
+
+    private static final String INT_KEY = "key.int";
+    private static final String STRING_KEY = "key.string";
+    private static final String MISSING_KEY = "key.does.not.exist";
+
+    private ConfigSpace configSpace;
+
+    @Setup
+    public void setup() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(INT_KEY, 7);
+        properties.put(STRING_KEY, "test string");
+        configSpace = new ReadableMapConfigSpace(new PassThroughConfigFormatter(), properties);
+    }
+
+    @Benchmark
+    public int getIntHit() {
+        return configSpace.getInt(INT_KEY, 18);
+    }
+
+    @Benchmark
+    public int getIntMiss() {
+        return configSpace.getInt(MISSING_KEY, 18);
+    }
+
+    @Benchmark
+    public int getIntWrongType() {
+        return configSpace.getInt(STRING_KEY, 18);
+    }
+
+    @Benchmark
+    public String getStringMiss() {
+        return configSpace.getString(MISSING_KEY, "default test value");
+    }
+}
@@ -0,0 +1,81 @@
+package io.liquorice.config.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+
+/**
+ * Measures the decoding and encoding of a small POJO by the {@link JacksonConfigFormatter}, against the
+ * {@link ObjectMapper} calls it used to make for every value
+ *
+ * <p>
+ * The formatter reads and writes through an {@link com.fasterxml.jackson.databind.ObjectReader} or
+ * {@link com.fasterxml.jackson.databind.ObjectWriter} cached per type, so the {@code formatter*} cases should be
+ * measurably faster than the matching {@code objectMapper*} cases.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonDecodeBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JacksonConfigFormatter configFormatter;
+    private JsonNode complexNode;
+    private BenchmarkData.Endpoint endpoint;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper();
+        configFormatter = new JacksonConfigFormatter.Builder().withObjectMapper(objectMapper).build();
+        complexNode = objectMapper.readTree(BenchmarkData.COMPLEX_JSON);
+        endpoint = BenchmarkData.endpoint();
+    }
+
+    @Benchmark
+    public BenchmarkData.Endpoint objectMapperReadString() throws IOException {
+        return objectMapper.readValue(BenchmarkData.COMPLEX_JSON, BenchmarkData.Endpoint.class);
+    }
+
+    @Benchmark
+    public BenchmarkData.Endpoint formatterReadString() {
+        return configFormatter.read(BenchmarkData.COMPLEX_JSON, BenchmarkData.Endpoint.class).get();
+    }
+
+    @Benchmark
+    public BenchmarkData.Endpoint objectMapperReadNode() throws IOException {
+        return objectMapper.treeToValue(complexNode, BenchmarkData.Endpoint.class);
+    }
+
+    @Benchmark
+    public BenchmarkData.Endpoint formatterReadNode() {
+        return configFormatter.read(complexNode, BenchmarkData.Endpoint.class).get();
+    }
+
+    @Benchmark
+    public String objectMapperWrite() throws IOException {
+        return objectMapper.writeValueAsString(endpoint);
+    }
+
+    @Benchmark
+    public Object formatterWrite() {
+        return configFormatter.write(endpoint);
+    }
+}
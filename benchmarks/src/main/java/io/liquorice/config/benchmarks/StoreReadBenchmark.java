@@ -0,0 +1,94 @@
+package io.liquorice.config.benchmarks;
+
+import static io.liquorice.config.benchmarks.BenchmarkData.COMPLEX_KEY;
+import static io.liquorice.config.benchmarks.BenchmarkData.INT_KEY;
+import static io.liquorice.config.benchmarks.BenchmarkData.MISSING_KEY;
+import static io.liquorice.config.benchmarks.BenchmarkData.STRING_KEY;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.liquorice.config.api.storage.ConfigSpace;
+
+/**
+ * Measures reads from every {@link BackingStore} at a range of sizes: hits, misses and type mismatches of the
+ * default-valued getters, and decoding a complex object with {@link ConfigSpace#getObjectRequired(String, Class)}
+ *
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar StoreReadBenchmark -prof gc} to report the bytes
+ * allocated per read alongside the time. Reads should not slow down as the size grows, so
+ * {@code -p size=10000} is usually enough for a quick comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StoreReadBenchmark {
+
+    @Param
+    private BackingStore store;
+
+    @Param({ "10", "10000", "1000000" })
+    private int size;
+
+    private Path directory;
+    private ConfigSpace configSpace;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("liquorice-config-benchmark");
+        configSpace = store.open(directory, size, false);
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        BenchmarkFiles.close(configSpace);
+        BenchmarkFiles.delete(directory);
+    }
+
+    @Benchmark
+    public int getIntHit() {
+        return configSpace.getInt(INT_KEY, 18);
+    }
+
+    @Benchmark
+    public int getIntMiss() {
+        return configSpace.getInt(MISSING_KEY, 18);
+    }
+
+    @Benchmark
+    public int getIntWrongType() {
+        return configSpace.getInt(STRING_KEY, 18);
+    }
+
+    @Benchmark
+    public String getStringHit() {
+        return configSpace.getString(STRING_KEY, "default test value");
+    }
+
+    @Benchmark
+    public String getStringMiss() {
+        return configSpace.getString(MISSING_KEY, "default test value");
+    }
+
+    @Benchmark
+    public BenchmarkData.Endpoint getObjectRequiredComplex() {
+        return configSpace.getObjectRequired(COMPLEX_KEY, BenchmarkData.Endpoint.class);
+    }
+}
@@ -0,0 +1,85 @@
+package io.liquorice.config.benchmarks;
+
+import static io.liquorice.config.benchmarks.BenchmarkData.COMPLEX_KEY;
+import static io.liquorice.config.benchmarks.BenchmarkData.INT_KEY;
+import static io.liquorice.config.benchmarks.BenchmarkData.STRING_KEY;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.liquorice.config.api.storage.WritableConfigSpace;
+
+/**
+ * Measures the latency of a write to every writable {@link BackingStore} at a range of sizes, including persisting it
+ * for the file-backed stores
+ *
+ * <p>
+ * A write to an in-memory store copies its map and a write to a file store rewrites its file, so both grow with the
+ * size. Run with {@code java -jar benchmarks/target/benchmarks.jar StoreWriteBenchmark -prof gc} to report the bytes
+ * allocated per write alongside the latency percentiles.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StoreWriteBenchmark {
+
+    // Every store with a writable variant
+    @Param({ "MAP_PASSTHROUGH", "MAP_JACKSON", "MAP_GSON", "CONCURRENT_MAP_PASSTHROUGH", "OFFHEAP_JACKSON",
+            "JACKSON_FILE", "GSON_FILE", "PROPERTIES_JACKSON", "PROPERTIES_GSON" })
+    private BackingStore store;
+
+    @Param({ "10", "10000", "1000000" })
+    private int size;
+
+    private Path directory;
+    private WritableConfigSpace configSpace;
+    private BenchmarkData.Endpoint endpoint;
+    private int counter;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("liquorice-config-benchmark");
+        configSpace = (WritableConfigSpace) store.open(directory, size, true);
+        endpoint = BenchmarkData.endpoint();
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        BenchmarkFiles.close(configSpace);
+        BenchmarkFiles.delete(directory);
+    }
+
+    @Benchmark
+    public void setInt() {
+        // A new value every time, so that no store can skip the write
+        configSpace.setInt(INT_KEY, counter++);
+    }
+
+    @Benchmark
+    public void setString() {
+        configSpace.setString(STRING_KEY, Integer.toString(counter++));
+    }
+
+    @Benchmark
+    public void setObjectComplex() {
+        endpoint.port = counter++;
+        configSpace.setObject(COMPLEX_KEY, endpoint);
+    }
+}
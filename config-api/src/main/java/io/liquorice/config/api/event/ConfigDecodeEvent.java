@@ -0,0 +1,57 @@
+package io.liquorice.config.api.event;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigSpace;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for decoding a stored value with a {@link ConfigFormatter}
+ *
+ * <p>
+ * This attributes the time spent in the JSON libraries to the config key being read.
+ *
+ * @see ConfigReadEvent
+ */
+@Name("io.liquorice.config.Decode")
+@Label("Config Decode")
+@Category("Liquorice Config")
+@Description("Decoding a stored value with a config formatter")
+@Threshold("10 us")
+public final class ConfigDecodeEvent extends Event {
+
+    @Label("Key")
+    private String key;
+
+    @Label("Backend")
+    @Description("The class of the config space read from")
+    private String backend;
+
+    @Label("Type")
+    @Description("The class decoded to")
+    private Class<?> type;
+
+    /**
+     * End decoding $key from $configSpace, and commit this event if it is enabled and over the threshold
+     *
+     * @param configSpace
+     *            the {@link ConfigSpace} read from
+     * @param key
+     *            the key
+     * @param type
+     *            the class decoded to
+     */
+    public void complete(final ConfigSpace configSpace, final String key, final Class<?> type) {
+        end();
+        if (shouldCommit()) {
+            this.key = key;
+            this.backend = configSpace.getClass().getName();
+            this.type = type;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.liquorice.config.api.event;
+
+import java.nio.file.Path;
+
+import io.liquorice.config.api.storage.ConfigSpace;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for writing the contents of a {@link ConfigSpace} to storage
+ *
+ * @see ConfigReadEvent
+ */
+@Name("io.liquorice.config.Persist")
+@Label("Config Persist")
+@Category("Liquorice Config")
+@Description("Writing the contents of a config space to storage")
+public final class ConfigPersistEvent extends Event {
+
+    @Label("Backend")
+    @Description("The class of the config space written")
+    private String backend;
+
+    @Label("Path")
+    @Description("The file written, if known")
+    private String path;
+
+    @Label("Bytes Written")
+    @DataAmount
+    private long bytesWritten;
+
+    /**
+     * Set the number of bytes written so far
+     *
+     * @param bytesWritten
+     *            the number of bytes
+     */
+    public void setBytesWritten(final long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * End writing $configSpace, and commit this event if it is enabled
+     *
+     * @param configSpace
+     *            the {@link ConfigSpace} written
+     * @param path
+     *            the file written, or null if unknown
+     */
+    public void complete(final ConfigSpace configSpace, final Path path) {
+        end();
+        if (shouldCommit()) {
+            this.backend = configSpace.getClass().getName();
+            this.path = path == null ? null : path.toString();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.liquorice.config.api.event;
+
+import io.liquorice.config.api.storage.ConfigSpace;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for a read from a {@link ConfigSpace} that took longer than the threshold
+ *
+ * <p>
+ * Like every event in this package, it costs nothing unless a recording enables it: the JIT removes the allocation and
+ * the calls to {@link #begin()} and {@link #shouldCommit()} of a disabled event. The threshold can be changed in the
+ * recording settings, under the event name.
+ */
+@Name("io.liquorice.config.Read")
+@Label("Config Read")
+@Category("Liquorice Config")
+@Description("A read from a config space that took longer than the threshold")
+@Threshold("1 ms")
+public final class ConfigReadEvent extends Event {
+
+    @Label("Key")
+    private String key;
+
+    @Label("Backend")
+    @Description("The class of the config space read from")
+    private String backend;
+
+    /**
+     * End the read of $key from $configSpace, and commit this event if it is enabled and over the threshold
+     *
+     * @param configSpace
+     *            the {@link ConfigSpace} read from
+     * @param key
+     *            the key
+     */
+    public void complete(final ConfigSpace configSpace, final String key) {
+        end();
+        if (shouldCommit()) {
+            this.key = key;
+            this.backend = configSpace.getClass().getName();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.liquorice.config.api.event;
+
+import java.nio.file.Path;
+
+import io.liquorice.config.api.storage.ConfigSpace;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for reloading the contents of a {@link ConfigSpace} after its file changed
+ *
+ * @see ConfigReadEvent
+ */
+@Name("io.liquorice.config.Reload")
+@Label("Config Reload")
+@Category("Liquorice Config")
+@Description("Reloading the contents of a config space after its file changed")
+public final class ConfigReloadEvent extends Event {
+
+    @Label("Backend")
+    @Description("The class of the config space reloaded")
+    private String backend;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Bytes Read")
+    @DataAmount
+    private long bytesRead;
+
+    @Label("Changed Keys")
+    private int changedKeys;
+
+    /**
+     * Set the number of bytes read
+     *
+     * @param bytesRead
+     *            the number of bytes
+     */
+    public void setBytesRead(final long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * End reloading $configSpace, and commit this event if it is enabled
+     *
+     * @param configSpace
+     *            the {@link ConfigSpace} reloaded
+     * @param path
+     *            the file reloaded
+     * @param changedKeys
+     *            the number of keys whose value changed
+     */
+    public void complete(final ConfigSpace configSpace, final Path path, final int changedKeys) {
+        end();
+        if (shouldCommit()) {
+            this.backend = configSpace.getClass().getName();
+            this.path = path.toString();
+            this.changedKeys = changedKeys;
+            commit();
+        }
+    }
+}
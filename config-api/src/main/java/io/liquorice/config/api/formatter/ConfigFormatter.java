@@ -23,6 +23,32 @@ public interface ConfigFormatter {
      */
     <T> Optional<T> read(final Object value, Class<T> valueType);
 
+    /**
+     * Interprets a value as an entity of type {@link T}, falling back to $defaultValue instead of signalling failure
+     *
+     * <p>
+     * This is the lookup used by the default-valued getters of a {@link ConfigSpace}. Implementations should override
+     * it when they can detect a failed conversion without creating an exception or an {@link Optional}.
+     *
+     * @param value
+     *            the value to format
+     * @param valueType
+     *            the type to format the value as
+     * @param defaultValue
+     *            the value to return if the conversion was not successful
+     * @param <T>
+     *            type param
+     * @return the original value, interpreted as type {@link T} if the conversion was successful, or $defaultValue
+     *         otherwise
+     */
+    default <T> T readOrDefault(final Object value, final Class<T> valueType, final T defaultValue) {
+        try {
+            return read(value, valueType).orElse(defaultValue);
+        } catch (final RuntimeException e) {
+            return defaultValue;
+        }
+    }
+
     /**
      * Reformat a value
      *
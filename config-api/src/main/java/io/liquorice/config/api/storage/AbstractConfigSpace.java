@@ -1,7 +1,16 @@
 package io.liquorice.config.api.storage;
 
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.liquorice.config.api.event.ConfigDecodeEvent;
+import io.liquorice.config.api.event.ConfigReadEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
 import io.liquorice.config.exception.ConfigurationException;
 
@@ -13,6 +22,13 @@ import io.liquorice.config.exception.ConfigurationException;
 public abstract class AbstractConfigSpace implements ConfigSpace {
 
     private final ConfigFormatter configFormatter;
+    private final int decodedObjectCacheSize;
+    private final DecodedObjectCache decodedObjectCache;
+    private final KeyVersions versions;
+    private final List<ModificationHook> modificationHooks;
+    private final KeyIndex keyIndex;
+
+    private volatile ChangeDispatcher changeDispatcher;
 
     /**
      * CTOR
@@ -21,8 +37,51 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
      *            the {@link ConfigFormatter} to use for retrieivng properties
      */
     public AbstractConfigSpace(final ConfigFormatter configFormatter) {
+        this(configFormatter, 0);
+    }
+
+    /**
+     * CTOR
+     *
+     * <p>
+     * NOTE: With a non-zero $decodedObjectCacheSize, the objects returned by {@link #getObject(String, Object, Class)}
+     * and {@link #getObjectRequired(String, Class)} are shared between callers and should be treated as immutable.
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for retrieivng properties
+     * @param decodedObjectCacheSize
+     *            the maximum number of keys to cache decoded objects for, or 0 to decode on every read
+     */
+    public AbstractConfigSpace(final ConfigFormatter configFormatter, final int decodedObjectCacheSize) {
         requireNonNull(configFormatter, "Config formatter cannot be null");
+        if (decodedObjectCacheSize < 0) {
+            throw new IllegalArgumentException("Decoded object cache size cannot be negative");
+        }
         this.configFormatter = configFormatter;
+        this.decodedObjectCacheSize = decodedObjectCacheSize;
+        this.decodedObjectCache = decodedObjectCacheSize == 0 ? null : new DecodedObjectCache(decodedObjectCacheSize);
+        this.versions = new KeyVersions();
+        this.modificationHooks = new CopyOnWriteArrayList<>();
+        this.keyIndex = new KeyIndex(this::keys, this::hasValue);
+    }
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            an {@link AbstractConfigSpace} whose configuration to copy. Cached state is not shared.
+     */
+    protected AbstractConfigSpace(final AbstractConfigSpace configSpace) {
+        this(configSpace.configFormatter, configSpace.decodedObjectCacheSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(final ConfigKey<T> key) {
+        requireNonNull(key, "Key cannot be null");
+        return key.read(this, versions.get(key.getName()));
     }
 
     /**
@@ -31,11 +90,12 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
     @Override
     public boolean getBoolean(final String key, final boolean defaultValue) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getBooleanRequired(key) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final Object value = lookup(key);
+        final boolean result = value == null ? defaultValue : asBoolean(value, defaultValue);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -49,11 +109,12 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
     @Override
     public double getDouble(final String key, final double defaultValue) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getDoubleRequired(key) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final Object value = lookup(key);
+        final double result = value == null ? defaultValue : asDouble(value, defaultValue);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -67,11 +128,12 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
     @Override
     public int getInt(final String key, final int defaultValue) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getIntRequired(key) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final Object value = lookup(key);
+        final int result = value == null ? defaultValue : asInt(value, defaultValue);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -85,11 +147,12 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
     @Override
     public long getLong(final String key, final long defaultValue) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getLongRequired(key) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final Object value = lookup(key);
+        final long result = value == null ? defaultValue : asLong(value, defaultValue);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -103,11 +166,11 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
     @Override
     public <T> T getObject(final String key, final T defaultValue, final Class<T> clazz) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getObjectRequired(key, clazz) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final T result = readObject(key, defaultValue, clazz);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -115,17 +178,47 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
      */
     public abstract <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException;
 
+    private <T> T readObject(final String key, final T defaultValue, final Class<T> clazz) {
+        final Object value = lookup(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (decodedObjectCache == null) {
+            return decodeObject(key, value, clazz, defaultValue);
+        }
+
+        final Object cached = decodedObjectCache.get(key, value, clazz);
+        if (cached == DecodedObjectCache.DECODE_FAILED) {
+            return defaultValue;
+        } else if (cached != null) {
+            return clazz.cast(cached);
+        }
+
+        final T decoded = decodeObject(key, value, clazz, null);
+        decodedObjectCache.put(key, value, clazz, decoded == null ? DecodedObjectCache.DECODE_FAILED : decoded);
+        return decoded == null ? defaultValue : decoded;
+    }
+
+    private <T> T decodeObject(final String key, final Object value, final Class<T> clazz, final T defaultValue) {
+        final ConfigDecodeEvent event = new ConfigDecodeEvent();
+        event.begin();
+        final T decoded = asObject(value, clazz, defaultValue);
+        event.complete(this, key, clazz);
+        return decoded;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public String getString(final String key, final String defaultValue) {
         requireNonNull(key, "Key cannot be null");
-        try {
-            return hasValue(key) ? getStringRequired(key) : defaultValue;
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final Object value = lookup(key);
+        final String result = value == null ? defaultValue : asString(value, defaultValue);
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -138,10 +231,279 @@ public abstract class AbstractConfigSpace implements ConfigSpace {
      */
     public abstract boolean hasValue(final String key);
 
+    /**
+     * {@inheritDoc}
+     */
+    public abstract Set<String> keys();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys(final String prefix) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        return keyIndex.withPrefix(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        requireNonEmpty(key, "Key cannot be null or empty");
+        requireNonNull(listener, "Listener cannot be null");
+        return getChangeDispatcher().subscribe(key, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        requireNonNull(listener, "Listener cannot be null");
+        return getChangeDispatcher().subscribeToPrefix(prefix, listener);
+    }
+
+    /**
+     * Look up the raw, stored value associated with $key
+     *
+     * <p>
+     * This is the single lookup performed by every default-valued getter. It must not throw for a missing or malformed
+     * key.
+     *
+     * @param key
+     *            the key
+     * @return the stored value, or null if $key could not be found
+     */
+    protected abstract Object lookup(final String key);
+
+    /**
+     * Interpret a stored value as a boolean
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as a boolean
+     * @return the interpreted value or $defaultValue
+     */
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        final Boolean result = asObject(value, Boolean.class, null);
+        return result == null ? defaultValue : result;
+    }
+
+    /**
+     * Interpret a stored value as a double
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as a double
+     * @return the interpreted value or $defaultValue
+     */
+    protected double asDouble(final Object value, final double defaultValue) {
+        final Double result = asObject(value, Double.class, null);
+        return result == null ? defaultValue : result;
+    }
+
+    /**
+     * Interpret a stored value as an int
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as an int
+     * @return the interpreted value or $defaultValue
+     */
+    protected int asInt(final Object value, final int defaultValue) {
+        final Integer result = asObject(value, Integer.class, null);
+        return result == null ? defaultValue : result;
+    }
+
+    /**
+     * Interpret a stored value as a long
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as a long
+     * @return the interpreted value or $defaultValue
+     */
+    protected long asLong(final Object value, final long defaultValue) {
+        final Long result = asObject(value, Long.class, null);
+        return result == null ? defaultValue : result;
+    }
+
+    /**
+     * Interpret a stored value as an entity of type {@link T}
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param clazz
+     *            the class to attempt to interpret the value as
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as a {@link T}
+     * @param <T>
+     *            the type param
+     * @return the interpreted value or $defaultValue
+     */
+    protected <T> T asObject(final Object value, final Class<T> clazz, final T defaultValue) {
+        return configFormatter.readOrDefault(value, clazz, defaultValue);
+    }
+
+    /**
+     * Interpret a stored value as a string
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param defaultValue
+     *            the value to return if $value could not be interpreted as a string
+     * @return the interpreted value or $defaultValue
+     */
+    protected String asString(final Object value, final String defaultValue) {
+        return asObject(value, String.class, defaultValue);
+    }
+
+    /**
+     * Decode the stored $value of $key as an entity of type {@link T}, re-using a previously decoded object if caching
+     * is enabled and $value has not changed since
+     *
+     * <p>
+     * This is intended for the implementations of {@link #getObjectRequired(String, Class)}.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @param clazz
+     *            the class to attempt to decode the value as
+     * @param <T>
+     *            the type param
+     * @return the decoded value
+     * @throws RuntimeException
+     *             if the value could not be decoded
+     */
+    protected <T> T decode(final String key, final Object value, final Class<T> clazz) {
+        if (decodedObjectCache == null) {
+            return read(key, value, clazz);
+        }
+
+        final Object cached = decodedObjectCache.get(key, value, clazz);
+        if (cached != null && cached != DecodedObjectCache.DECODE_FAILED) {
+            return clazz.cast(cached);
+        }
+
+        // Failures are decoded again, so that the caller sees the original cause
+        final T decoded = read(key, value, clazz);
+        decodedObjectCache.put(key, value, clazz, decoded);
+        return decoded;
+    }
+
+    private <T> T read(final String key, final Object value, final Class<T> clazz) {
+        final ConfigDecodeEvent event = new ConfigDecodeEvent();
+        event.begin();
+        try {
+            return configFormatter.read(value, clazz).get();
+        } finally {
+            // Also attributes the time spent failing to decode
+            event.complete(this, key, clazz);
+        }
+    }
+
     /**
      * @return the configured {@link ConfigFormatter}
      */
     protected ConfigFormatter getConfigFormatter() {
         return configFormatter;
     }
+
+    /**
+     * Signal that the contents of this {@link ConfigSpace} have changed
+     *
+     * <p>
+     * Any {@link ConfigKey} bound to this {@link ConfigSpace} will be re-resolved on its next read, and all cached
+     * decoded objects are dropped. Extending classes must call this, {@link #markModified(String)} or
+     * {@link #markModified(Collection)} after every modification of their backing store.
+     *
+     * <p>
+     * NOTE: As the changed keys are unknown, no {@link ConfigListener} is notified. Prefer the variants that name the
+     * changed keys.
+     */
+    protected void markModified() {
+        if (decodedObjectCache != null) {
+            decodedObjectCache.invalidateAll();
+        }
+        versions.incrementAll();
+        keyIndex.update(null);
+
+        for (final ModificationHook hook : modificationHooks) {
+            hook.onModified(null);
+        }
+    }
+
+    /**
+     * Signal that the value associated with $key has changed
+     *
+     * <p>
+     * Like {@link #markModified()}, but only drops the cached decoded objects of $key, and notifies the
+     * {@link ConfigListener}s subscribed to $key. Must be called once the change is visible to {@link #snapshot()}.
+     *
+     * @param key
+     *            the key that was modified
+     */
+    protected void markModified(final String key) {
+        markModified(Collections.singleton(key));
+    }
+
+    /**
+     * Signal that the values associated with $keys have changed
+     *
+     * @param keys
+     *            the keys that were modified
+     * @see #markModified(String)
+     */
+    protected void markModified(final Collection<String> keys) {
+        if (decodedObjectCache != null) {
+            for (final String key : keys) {
+                decodedObjectCache.invalidate(key);
+            }
+        }
+        versions.increment(keys);
+        keyIndex.update(keys);
+
+        for (final ModificationHook hook : modificationHooks) {
+            hook.onModified(keys);
+        }
+
+        final ChangeDispatcher dispatcher = changeDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(keys);
+        }
+    }
+
+    /**
+     * Run $hook synchronously after every modification
+     *
+     * @param hook
+     *            the {@link ModificationHook}
+     * @return a {@link ConfigSubscription} that can be closed to remove $hook
+     */
+    ConfigSubscription addModificationHook(final ModificationHook hook) {
+        modificationHooks.add(hook);
+        return () -> modificationHooks.remove(hook);
+    }
+
+    private ChangeDispatcher getChangeDispatcher() {
+        ChangeDispatcher dispatcher = changeDispatcher;
+        if (dispatcher == null) {
+            synchronized (this) {
+                dispatcher = changeDispatcher;
+                if (dispatcher == null) {
+                    dispatcher = new ChangeDispatcher(this::snapshot);
+                    changeDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
 }
@@ -0,0 +1,236 @@
+package io.liquorice.config.api.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes changed keys to the {@link ConfigListener}s subscribed to them
+ *
+ * <p>
+ * Listeners subscribed to a single key are found with one hash lookup per changed key, so unrelated listeners cost
+ * nothing. Every subscription queues the keys it has yet to be notified of, and drains them on a bounded, shared pool
+ * of daemon threads, one at a time, so a slow listener never delays the writer, and only delays other listeners once
+ * it holds every thread of the pool.
+ *
+ * <p>
+ * A key that changes again before its listener was notified is only queued once, so the pending notifications of a
+ * subscription are bounded by the number of keys it is subscribed to. The writer never takes a snapshot: the listener
+ * thread takes one for every round of pending keys that it delivers, after dequeuing them, so that it includes at
+ * least every change that was notified.
+ */
+final class ChangeDispatcher {
+
+    private static final int LISTENER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    // Holds at most one task per subscription, as each subscription is only ever scheduled once at a time
+    private static final Executor DEFAULT_EXECUTOR = newListenerExecutor();
+
+    private final Executor executor;
+    private final Supplier<ConfigSnapshot> snapshotSupplier;
+    private final ConcurrentHashMap<String, List<Subscription>> keySubscriptions;
+    private final List<Subscription> prefixSubscriptions;
+
+    /**
+     * CTOR
+     *
+     * @param snapshotSupplier
+     *            supplies the current contents of the {@link ConfigSpace}, called on a listener thread
+     */
+    ChangeDispatcher(final Supplier<ConfigSnapshot> snapshotSupplier) {
+        this.executor = DEFAULT_EXECUTOR;
+        this.snapshotSupplier = snapshotSupplier;
+        this.keySubscriptions = new ConcurrentHashMap<>();
+        this.prefixSubscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Subscribe $listener to changes of $key
+     *
+     * @param key
+     *            the key
+     * @param listener
+     *            the listener
+     * @return the new subscription
+     */
+    ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        final Subscription subscription = new Subscription(key, false, listener);
+        keySubscriptions.computeIfAbsent(key, ignored -> new CopyOnWriteArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Subscribe $listener to changes of every key starting with $prefix
+     *
+     * @param prefix
+     *            the prefix
+     * @param listener
+     *            the listener
+     * @return the new subscription
+     */
+    ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        final Subscription subscription = new Subscription(prefix, true, listener);
+        prefixSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Notify the listeners subscribed to any of $keys
+     *
+     * <p>
+     * Must be called once the changes are visible to the snapshot supplier.
+     *
+     * @param keys
+     *            the changed keys
+     */
+    void dispatch(final Collection<String> keys) {
+        for (final String key : keys) {
+            final List<Subscription> subscriptions = keySubscriptions.get(key);
+            if (subscriptions != null) {
+                for (final Subscription subscription : subscriptions) {
+                    subscription.enqueue(key);
+                }
+            }
+
+            for (final Subscription subscription : prefixSubscriptions) {
+                if (key.startsWith(subscription.target)) {
+                    subscription.enqueue(key);
+                }
+            }
+        }
+    }
+
+    private static Executor newListenerExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(LISTENER_THREADS, LISTENER_THREADS, 60L,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new ListenerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private final class Subscription implements ConfigSubscription {
+        private final String target;
+        private final boolean prefix;
+        private final ConfigListener listener;
+        // Guarded by itself. Ordered by the latest change of each key.
+        private final Set<String> pending;
+        private final AtomicBoolean scheduled;
+
+        private volatile boolean closed;
+
+        private Subscription(final String target, final boolean prefix, final ConfigListener listener) {
+            this.target = target;
+            this.prefix = prefix;
+            this.listener = listener;
+            this.pending = new LinkedHashSet<>();
+            this.scheduled = new AtomicBoolean();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            synchronized (pending) {
+                pending.clear();
+            }
+            if (prefix) {
+                prefixSubscriptions.remove(this);
+            } else {
+                keySubscriptions.computeIfPresent(target, (ignored, subscriptions) -> {
+                    subscriptions.remove(this);
+                    return subscriptions.isEmpty() ? null : subscriptions;
+                });
+            }
+        }
+
+        private void enqueue(final String key) {
+            if (closed) {
+                return;
+            }
+            synchronized (pending) {
+                pending.remove(key);
+                pending.add(key);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            final List<String> keys;
+            synchronized (pending) {
+                keys = new ArrayList<>(pending);
+                pending.clear();
+            }
+
+            try {
+                if (!keys.isEmpty() && !closed) {
+                    deliver(keys);
+                }
+            } finally {
+                // Re-check after releasing, in case a key was queued while the last round was delivered. Other
+                // subscriptions get a turn on the pool between rounds.
+                scheduled.set(false);
+                if (!closed && hasPending()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void deliver(final List<String> keys) {
+            final ConfigSnapshot snapshot;
+            try {
+                snapshot = snapshotSupplier.get();
+            } catch (final RuntimeException e) {
+                handle(e);
+                return;
+            }
+
+            for (final String key : keys) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    listener.onChange(key, snapshot);
+                } catch (final RuntimeException e) {
+                    handle(e);
+                }
+            }
+        }
+
+        private boolean hasPending() {
+            synchronized (pending) {
+                return !pending.isEmpty();
+            }
+        }
+
+        private void handle(final RuntimeException e) {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private static final class ListenerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "liquorice-config-listener-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
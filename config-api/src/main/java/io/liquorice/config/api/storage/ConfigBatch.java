@@ -0,0 +1,82 @@
+package io.liquorice.config.api.storage;
+
+import java.util.function.Consumer;
+
+/**
+ * A set of changes to a {@link WritableConfigSpace}, applied all at once by
+ * {@link WritableConfigSpace#batch(Consumer)}
+ *
+ * <p>
+ * Changes are staged, and are not visible until the whole batch is applied. A {@link ConfigBatch} cannot be used once
+ * it has been applied.
+ */
+public interface ConfigBatch {
+
+    /**
+     * Remove the value associated with $key
+     *
+     * @param key
+     *            the key
+     */
+    void remove(final String key);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setBoolean(final String key, final boolean value);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setDouble(final String key, final double value);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setInt(final String key, final int value);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setLong(final String key, final long value);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setObject(final String key, final Object value);
+
+    /**
+     * Associate the $value with the $key
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void setString(final String key, final String value);
+}
@@ -0,0 +1,205 @@
+package io.liquorice.config.api.storage;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A typed, pre-resolved handle to a single property in a {@link ConfigSpace}
+ *
+ * <p>
+ * A {@link ConfigKey} is meant to be created once (typically as a constant) and reused for every read. The key, type
+ * and default value are validated at creation time, and the resolved value is bound to the handle the first time it is
+ * read from a {@link ConfigSpace}. Subsequent reads from the same {@link ConfigSpace} are served straight from that
+ * binding until the key is modified. Writes to other keys leave it valid, unless they happen to share one of the
+ * version stripes of the space with the key.
+ *
+ * <p>
+ * A handle holds a binding for the most recently read {@link ConfigSpace} only. Reading the same handle from several
+ * spaces in alternation is correct, but re-resolves the value on every switch.
+ *
+ * @param <T>
+ *            the type of the value
+ */
+public final class ConfigKey<T> {
+
+    private final String name;
+    private final Class<T> type;
+    private final T defaultValue;
+    private final Resolver<T> resolver;
+
+    private volatile Binding<T> binding;
+
+    private ConfigKey(final String name, final Class<T> type, final T defaultValue, final Resolver<T> resolver) {
+        this.name = requireNonEmpty(name, "Key cannot be null or empty");
+        this.type = requireNonNull(type, "Type cannot be null");
+        this.defaultValue = defaultValue;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Create a handle to a boolean property
+     *
+     * @param name
+     *            the key
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @return a new {@link ConfigKey}
+     */
+    public static ConfigKey<Boolean> ofBoolean(final String name, final boolean defaultValue) {
+        return new ConfigKey<>(name, Boolean.class, defaultValue,
+                (space, key, fallback) -> space.getBoolean(key, fallback));
+    }
+
+    /**
+     * Create a handle to a double property
+     *
+     * @param name
+     *            the key
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @return a new {@link ConfigKey}
+     */
+    public static ConfigKey<Double> ofDouble(final String name, final double defaultValue) {
+        return new ConfigKey<>(name, Double.class, defaultValue,
+                (space, key, fallback) -> space.getDouble(key, fallback));
+    }
+
+    /**
+     * Create a handle to an int property
+     *
+     * @param name
+     *            the key
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @return a new {@link ConfigKey}
+     */
+    public static ConfigKey<Integer> ofInt(final String name, final int defaultValue) {
+        return new ConfigKey<>(name, Integer.class, defaultValue,
+                (space, key, fallback) -> space.getInt(key, fallback));
+    }
+
+    /**
+     * Create a handle to a long property
+     *
+     * @param name
+     *            the key
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @return a new {@link ConfigKey}
+     */
+    public static ConfigKey<Long> ofLong(final String name, final long defaultValue) {
+        return new ConfigKey<>(name, Long.class, defaultValue,
+                (space, key, fallback) -> space.getLong(key, fallback));
+    }
+
+    /**
+     * Create a handle to a string property
+     *
+     * @param name
+     *            the key
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @return a new {@link ConfigKey}
+     */
+    public static ConfigKey<String> ofString(final String name, final String defaultValue) {
+        return new ConfigKey<>(name, String.class, defaultValue, ConfigSpace::getString);
+    }
+
+    /**
+     * Create a handle to a complex property
+     *
+     * <p>
+     * NOTE: The decoded object is shared between every caller reading this handle. It should be treated as immutable.
+     *
+     * @param name
+     *            the key
+     * @param type
+     *            the class to attempt to cast the object to
+     * @param defaultValue
+     *            a default value if $name could not be found
+     * @param <T>
+     *            the type param
+     * @return a new {@link ConfigKey}
+     */
+    public static <T> ConfigKey<T> ofObject(final String name, final Class<T> type, final T defaultValue) {
+        return new ConfigKey<>(name, type, defaultValue,
+                (space, key, fallback) -> space.getObject(key, fallback, type));
+    }
+
+    /**
+     * @return the key
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type of the value
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the default value
+     */
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Read the value of this handle from $space, re-using the bound value if its key has not changed since
+     *
+     * @param space
+     *            the {@link ConfigSpace} to read from
+     * @param version
+     *            the current modification version of the key in $space. Must be read before the value is resolved.
+     * @return the value associated with this handle or the default value if it could not be found
+     */
+    T read(final ConfigSpace space, final long version) {
+        final Binding<T> current = binding;
+        if (current != null && current.space == space && current.version == version) {
+            return current.value;
+        }
+
+        final T value = resolver.resolve(space, name, defaultValue);
+        binding = new Binding<>(space, version, value);
+        return value;
+    }
+
+    /**
+     * Read the value of this handle from $space without binding it
+     *
+     * @param space
+     *            the {@link ConfigSpace} to read from
+     * @return the value associated with this handle or the default value if it could not be found
+     */
+    T resolve(final ConfigSpace space) {
+        return resolver.resolve(space, name, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("ConfigKey[%s, %s]", name, type.getSimpleName());
+    }
+
+    @FunctionalInterface
+    private interface Resolver<T> {
+        T resolve(final ConfigSpace space, final String key, final T defaultValue);
+    }
+
+    private static final class Binding<T> {
+        private final ConfigSpace space;
+        private final long version;
+        private final T value;
+
+        private Binding(final ConfigSpace space, final long version, final T value) {
+            this.space = space;
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
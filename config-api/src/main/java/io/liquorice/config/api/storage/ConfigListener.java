@@ -0,0 +1,23 @@
+package io.liquorice.config.api.storage;
+
+/**
+ * A callback notified of changes to the contents of a {@link ConfigSpace}
+ */
+@FunctionalInterface
+public interface ConfigListener {
+
+    /**
+     * Called after the value associated with $key has been added, updated or removed
+     *
+     * <p>
+     * Listeners are called on a background thread. Changes are delivered to each listener one at a time, in the order
+     * in which they were made. A key that changes again before its listener was notified is only notified once, so
+     * the last notification of a key always sees its latest value.
+     *
+     * @param key
+     *            the key that changed
+     * @param snapshot
+     *            the contents of the {@link ConfigSpace} taken after the change, which may include later changes
+     */
+    void onChange(final String key, final ConfigSnapshot snapshot);
+}
@@ -0,0 +1,22 @@
+package io.liquorice.config.api.storage;
+
+/**
+ * An immutable, point-in-time view of a {@link ConfigSpace}
+ *
+ * <p>
+ * A {@link ConfigSnapshot} shares its contents with the {@link ConfigSpace} it was taken from rather than copying them,
+ * so taking one is cheap. Reads from a {@link ConfigSnapshot} never block and never observe a partially applied update.
+ * As its contents never change, a {@link ConfigListener} subscribed to a {@link ConfigSnapshot} is never notified.
+ */
+public interface ConfigSnapshot extends ConfigSpace {
+
+    /**
+     * A {@link ConfigSnapshot} is already immutable
+     *
+     * @return this
+     */
+    @Override
+    default ConfigSnapshot snapshot() {
+        return this;
+    }
+}
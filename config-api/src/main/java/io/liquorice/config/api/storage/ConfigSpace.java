@@ -1,5 +1,7 @@
 package io.liquorice.config.api.storage;
 
+import java.util.Set;
+
 import io.liquorice.config.exception.ConfigurationException;
 
 /**
@@ -7,6 +9,21 @@ import io.liquorice.config.exception.ConfigurationException;
  */
 public interface ConfigSpace {
 
+    /**
+     * Get the value associated with a pre-resolved $key handle
+     *
+     * <p>
+     * Implementations may bind the resolved value to $key, so that repeated reads of an unmodified space do not need to
+     * look the value up again.
+     *
+     * @param key
+     *            the key handle
+     * @param <T>
+     *            the type param
+     * @return the value associated with $key or its default value if it could not be found
+     */
+    <T> T get(final ConfigKey<T> key);
+
     /**
      * Get the boolean value associated with $key
      *
@@ -155,4 +172,76 @@ public interface ConfigSpace {
      * @return true if $key exists, false otherwise
      */
     boolean hasValue(final String key);
+
+    /**
+     * Get every key that exists in this configuration space
+     *
+     * @return an unmodifiable set of the keys
+     */
+    Set<String> keys();
+
+    /**
+     * Get every key starting with $prefix
+     *
+     * <p>
+     * Iterating the keys costs time proportional to the number of matches, not to the total number of keys.
+     *
+     * @param prefix
+     *            the key prefix, e.g. "db.pool."
+     * @return an unmodifiable set of the matching keys, in sorted order
+     */
+    Set<String> keys(final String prefix);
+
+    /**
+     * Get a view of the keys starting with $prefix, addressed without $prefix
+     *
+     * <p>
+     * e.g. {@code view("db.pool.").getInt("size", 8)} reads "db.pool.size". Nothing is copied: the view always reads
+     * the current contents of this configuration space.
+     *
+     * @param prefix
+     *            the key prefix, e.g. "db.pool."
+     * @return a read-only view of the keys starting with $prefix
+     */
+    default ConfigSpace view(final String prefix) {
+        return new ConfigSpaceView(this, prefix);
+    }
+
+    /**
+     * Subscribe $listener to changes of the value associated with $key
+     *
+     * <p>
+     * $listener is notified, on a background thread, whenever $key is added, updated or removed by a write or a
+     * reload. It is not notified of changes to any other key.
+     *
+     * @param key
+     *            the key
+     * @param listener
+     *            the {@link ConfigListener} to notify
+     * @return a {@link ConfigSubscription} that can be closed to stop notifying $listener
+     */
+    ConfigSubscription subscribe(final String key, final ConfigListener listener);
+
+    /**
+     * Subscribe $listener to changes of the values associated with every key starting with $prefix
+     *
+     * @param prefix
+     *            the key prefix, e.g. "db."
+     * @param listener
+     *            the {@link ConfigListener} to notify
+     * @return a {@link ConfigSubscription} that can be closed to stop notifying $listener
+     * @see #subscribe(String, ConfigListener)
+     */
+    ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener);
+
+    /**
+     * Capture the current contents of this configuration space
+     *
+     * <p>
+     * The returned {@link ConfigSnapshot} is unaffected by later writes or reloads, so that several keys can be read
+     * from it consistently.
+     *
+     * @return an immutable view of the current contents
+     */
+    ConfigSnapshot snapshot();
 }
@@ -0,0 +1,274 @@
+package io.liquorice.config.api.storage;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import io.liquorice.config.exception.ConfigurationException;
+
+/**
+ * A read-only view of the keys of a {@link ConfigSpace} starting with a prefix, addressed without that prefix
+ *
+ * <p>
+ * Every read is forwarded to the underlying {@link ConfigSpace} with the prefix prepended, so a view holds no state of
+ * its own and always reflects the current contents.
+ *
+ * <p>
+ * NOTE: {@link ConfigKey}s are not bound to views, and are resolved on every read.
+ */
+class ConfigSpaceView implements ConfigSpace {
+
+    private final ConfigSpace configSpace;
+    private final String prefix;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            the underlying {@link ConfigSpace}
+     * @param prefix
+     *            the key prefix
+     */
+    ConfigSpaceView(final ConfigSpace configSpace, final String prefix) {
+        this.configSpace = requireNonNull(configSpace, "Config space cannot be null");
+        this.prefix = requireNonNull(prefix, "Prefix cannot be null");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(final ConfigKey<T> key) {
+        requireNonNull(key, "Key cannot be null");
+        return key.resolve(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        return configSpace.getBoolean(qualify(key), defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        return configSpace.getBooleanRequired(qualify(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final String key, final double defaultValue) {
+        return configSpace.getDouble(qualify(key), defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        return configSpace.getDoubleRequired(qualify(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final String key, final int defaultValue) {
+        return configSpace.getInt(qualify(key), defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        return configSpace.getIntRequired(qualify(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(final String key, final long defaultValue) {
+        return configSpace.getLong(qualify(key), defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        return configSpace.getLongRequired(qualify(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObject(final String key, final T defaultValue, final Class<T> clazz) {
+        return configSpace.getObject(qualify(key), defaultValue, clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        return configSpace.getObjectRequired(qualify(key), clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getString(final String key, final String defaultValue) {
+        return configSpace.getString(qualify(key), defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return configSpace.getStringRequired(qualify(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return configSpace.hasValue(qualify(requireNonEmpty(key)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return keys("");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys(final String prefix) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        return new UnqualifiedKeys(configSpace.keys(this.prefix + prefix));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSpace view(final String prefix) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        return new ConfigSpaceView(configSpace, this.prefix + prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        requireNonEmpty(key, "Key cannot be null or empty");
+        requireNonNull(listener, "Listener cannot be null");
+        return configSpace.subscribe(qualify(key), unqualifying(listener));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        requireNonNull(listener, "Listener cannot be null");
+        return configSpace.subscribeToPrefix(this.prefix + prefix, unqualifying(listener));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(configSpace.snapshot(), prefix);
+    }
+
+    private String qualify(final String key) {
+        requireNonNull(key, "Key cannot be null");
+        return prefix + key;
+    }
+
+    private String unqualify(final String key) {
+        return key.substring(prefix.length());
+    }
+
+    private ConfigListener unqualifying(final ConfigListener listener) {
+        return (key, snapshot) -> listener.onChange(unqualify(key), new Snapshot(snapshot, prefix));
+    }
+
+    /**
+     * The keys of the underlying {@link ConfigSpace}, with the prefix of the view removed
+     */
+    private final class UnqualifiedKeys extends AbstractSet<String> {
+        private final Set<String> qualifiedKeys;
+
+        private UnqualifiedKeys(final Set<String> qualifiedKeys) {
+            this.qualifiedKeys = qualifiedKeys;
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return key instanceof String && qualifiedKeys.contains(prefix + key);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> iterator = qualifiedKeys.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return unqualify(iterator.next());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return qualifiedKeys.size();
+        }
+    }
+
+    /**
+     * A {@link ConfigSnapshot} viewing a snapshot of the underlying {@link ConfigSpace}
+     */
+    private static final class Snapshot extends ConfigSpaceView implements ConfigSnapshot {
+
+        private Snapshot(final ConfigSnapshot snapshot, final String prefix) {
+            super(snapshot, prefix);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.liquorice.config.api.storage;
+
+/**
+ * A handle to a {@link ConfigListener} subscribed to a {@link ConfigSpace}
+ */
+public interface ConfigSubscription extends AutoCloseable {
+
+    /**
+     * Stop notifying the subscribed {@link ConfigListener}
+     *
+     * <p>
+     * A notification that is already being delivered when this is called may still complete.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,157 @@
+package io.liquorice.config.api.storage;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of decoded values, keyed by property key and target class
+ *
+ * <p>
+ * Every entry remembers the stored value it was decoded from, and is only served while the {@link ConfigSpace} still
+ * returns that exact instance for the key. A stale entry can therefore never be observed, even before it has been
+ * invalidated.
+ *
+ * <p>
+ * Once the number of cached keys exceeds the capacity, keys are evicted with the CLOCK (second chance) policy: a key
+ * that was read since the clock hand last passed it is spared once, otherwise it is removed.
+ */
+final class DecodedObjectCache {
+
+    /**
+     * Marker cached in place of a value that could not be decoded
+     */
+    static final Object DECODE_FAILED = new Object();
+
+    private static final int MAX_TYPES_PER_KEY = 4;
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    private Iterator<Entry> hand;
+
+    /**
+     * CTOR
+     *
+     * @param capacity
+     *            the maximum number of keys to hold decoded values for
+     */
+    DecodedObjectCache(final int capacity) {
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the value decoded from $source as a $type
+     *
+     * @param key
+     *            the key
+     * @param source
+     *            the stored value currently associated with $key
+     * @param type
+     *            the class the value was decoded as
+     * @return the decoded value, {@link #DECODE_FAILED} or null if nothing was cached
+     */
+    Object get(final String key, final Object source, final Class<?> type) {
+        for (Entry entry = entries.get(key); entry != null; entry = entry.next) {
+            if (entry.type == type) {
+                if (entry.source != source) {
+                    return null;
+                }
+                entry.referenced = true;
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cache the value decoded from $source as a $type
+     *
+     * @param key
+     *            the key
+     * @param source
+     *            the stored value currently associated with $key
+     * @param type
+     *            the class the value was decoded as
+     * @param value
+     *            the decoded value or {@link #DECODE_FAILED}
+     */
+    void put(final String key, final Object source, final Class<?> type, final Object value) {
+        entries.compute(key, (ignored, head) -> new Entry(source, type, value, retain(head, source, type)));
+        if (entries.size() > capacity) {
+            evict();
+        }
+    }
+
+    /**
+     * Drop every value decoded for $key
+     *
+     * @param key
+     *            the key
+     */
+    void invalidate(final String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drop every cached value
+     */
+    void invalidateAll() {
+        entries.clear();
+    }
+
+    private static Entry retain(final Entry head, final Object source, final Class<?> type) {
+        // Keep the values decoded from the same source as other classes, up to a small limit
+        Entry retained = null;
+        int count = 1;
+        for (Entry entry = head; entry != null && count < MAX_TYPES_PER_KEY; entry = entry.next) {
+            if (entry.source == source && entry.type != type) {
+                retained = new Entry(entry.source, entry.type, entry.value, retained);
+                count++;
+            }
+        }
+        return retained;
+    }
+
+    private synchronized void evict() {
+        while (entries.size() > capacity) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.values().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+
+            final Entry head = hand.next();
+            if (clearReferenced(head)) {
+                continue;
+            }
+            hand.remove();
+        }
+    }
+
+    private static boolean clearReferenced(final Entry head) {
+        boolean referenced = false;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            referenced |= entry.referenced;
+            entry.referenced = false;
+        }
+        return referenced;
+    }
+
+    private static final class Entry {
+        private final Object source;
+        private final Class<?> type;
+        private final Object value;
+        private final Entry next;
+
+        private volatile boolean referenced;
+
+        private Entry(final Object source, final Class<?> type, final Object value, final Entry next) {
+            this.source = source;
+            this.type = type;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
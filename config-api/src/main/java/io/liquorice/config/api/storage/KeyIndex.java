@@ -0,0 +1,118 @@
+package io.liquorice.config.api.storage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A sorted index of the keys of a {@link ConfigSpace}, for finding every key starting with a prefix
+ *
+ * <p>
+ * The index is built on first use and is then kept up to date one changed key at a time. Finding the keys under a
+ * prefix costs a logarithmic search, and iterating them costs time proportional to the number of matches rather than
+ * to the total number of keys.
+ */
+final class KeyIndex {
+
+    private final Supplier<Set<String>> keys;
+    private final Predicate<String> hasKey;
+
+    private volatile NavigableSet<String> index;
+    // Set before the index is first built, so that writers skip the lock until then without missing a change
+    private volatile boolean used;
+
+    /**
+     * CTOR
+     *
+     * @param keys
+     *            supplies every key when the index is built
+     * @param hasKey
+     *            determines whether a changed key still exists
+     */
+    KeyIndex(final Supplier<Set<String>> keys, final Predicate<String> hasKey) {
+        this.keys = keys;
+        this.hasKey = hasKey;
+    }
+
+    /**
+     * Get every key starting with $prefix
+     *
+     * @param prefix
+     *            the key prefix
+     * @return a live, unmodifiable and sorted view of the matching keys
+     */
+    NavigableSet<String> withPrefix(final String prefix) {
+        NavigableSet<String> current = index;
+        if (current == null) {
+            current = build();
+        }
+
+        final String end = upperBound(prefix);
+        return Collections.unmodifiableNavigableSet(
+                end == null ? current.tailSet(prefix, true) : current.subSet(prefix, true, end, false));
+    }
+
+    /**
+     * Bring the index up to date after $changedKeys were modified
+     *
+     * <p>
+     * Must be called once the change is visible to the key suppliers.
+     *
+     * @param changedKeys
+     *            the changed keys, or null if any key may have changed
+     */
+    void update(final Collection<String> changedKeys) {
+        if (!used) {
+            return;
+        }
+
+        synchronized (this) {
+            updateLocked(changedKeys);
+        }
+    }
+
+    private void updateLocked(final Collection<String> changedKeys) {
+        final NavigableSet<String> current = index;
+        if (current == null) {
+            return;
+        }
+
+        if (changedKeys == null) {
+            // Rebuilt on next use
+            index = null;
+            return;
+        }
+
+        for (final String key : changedKeys) {
+            if (hasKey.test(key)) {
+                current.add(key);
+            } else {
+                current.remove(key);
+            }
+        }
+    }
+
+    private synchronized NavigableSet<String> build() {
+        if (index == null) {
+            // Before reading the keys, so that a change they miss is applied once the index is published
+            used = true;
+            index = new ConcurrentSkipListSet<>(keys.get());
+        }
+        return index;
+    }
+
+    private static String upperBound(final String prefix) {
+        // The smallest string sorting after every string starting with $prefix, or null if there is none
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            final char c = prefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package io.liquorice.config.api.storage;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The modification versions of the keys of a {@link ConfigSpace}, which {@link ConfigKey} bindings are checked against
+ *
+ * <p>
+ * Keys are hashed to a fixed number of stripes, each with its own version, so a write only invalidates the bindings of
+ * the keys sharing a stripe with a changed key rather than every binding of the space. The stripes are only allocated
+ * once a version is first read, so that spaces never read through a {@link ConfigKey}, such as most snapshots, pay
+ * nothing for them.
+ */
+final class KeyVersions {
+
+    private static final int STRIPES = 256;
+
+    // Bumped when any key may have changed
+    private final AtomicLong all;
+
+    private volatile AtomicLongArray stripes;
+
+    /**
+     * CTOR
+     */
+    KeyVersions() {
+        this.all = new AtomicLong();
+    }
+
+    /**
+     * Get the current version of $key
+     *
+     * <p>
+     * Versions only ever grow, so a version read before a value was resolved differs from every version read after a
+     * later change of $key.
+     *
+     * @param key
+     *            the key
+     * @return the version of $key
+     */
+    long get(final String key) {
+        AtomicLongArray current = stripes;
+        if (current == null) {
+            current = allocate();
+        }
+        return all.get() + current.get(stripeOf(key));
+    }
+
+    /**
+     * Signal that $keys have changed
+     *
+     * <p>
+     * Must be called once the changes are visible to readers.
+     *
+     * @param keys
+     *            the changed keys
+     */
+    void increment(final Collection<String> keys) {
+        final AtomicLongArray current = stripes;
+        if (current == null) {
+            // Not read yet, so no binding can hold an older version
+            return;
+        }
+        for (final String key : keys) {
+            current.incrementAndGet(stripeOf(key));
+        }
+    }
+
+    /**
+     * Signal that any key may have changed
+     */
+    void incrementAll() {
+        all.incrementAndGet();
+    }
+
+    private synchronized AtomicLongArray allocate() {
+        if (stripes == null) {
+            stripes = new AtomicLongArray(STRIPES);
+        }
+        return stripes;
+    }
+
+    private static int stripeOf(final String key) {
+        final int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,426 @@
+package io.liquorice.config.api.storage;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.liquorice.config.exception.ConfigurationException;
+
+/**
+ * A {@link ConfigSpace} stacking several layers, where a key in a later layer overrides the same key in every earlier
+ * one, e.g. defaults, then a shared file, then a per-environment file, then runtime overrides
+ *
+ * <p>
+ * The owning layer of every key is precomputed into a single flattened map, so a read costs one lookup in that map
+ * plus the read from the owning layer, however many layers there are. When a layer changes, only its changed keys are
+ * resolved again. Layers extending {@link AbstractConfigSpace}, and nested {@link LayeredConfigSpace}s, are followed
+ * synchronously; changes to any other {@link ConfigSpace} are picked up by a {@link ConfigListener}, shortly after they
+ * are made.
+ *
+ * <p>
+ * A {@link ConfigListener} subscribed to a {@link LayeredConfigSpace} is only notified of changes to the effective
+ * value of a key, not of changes to a key that a later layer overrides.
+ *
+ * <p>
+ * A {@link #snapshot()} layers snapshots of the layers, whose keys never change, so it resolves the owning layer of
+ * each key on first use rather than up front. Taking one costs the snapshots of the layers, not a copy of every key.
+ *
+ * <p>
+ * NOTE: The layers keep a reference to this {@link LayeredConfigSpace} until it is closed.
+ */
+public class LayeredConfigSpace implements ConfigSpace, AutoCloseable {
+
+    private final List<ConfigSpace> layers;
+    private final ConcurrentHashMap<String, ConfigSpace> owners;
+    private final KeyVersions versions;
+    private final List<ModificationHook> modificationHooks;
+    private final List<ConfigSubscription> layerSubscriptions;
+    private final KeyIndex keyIndex;
+
+    // Whether every key is in the owners map, rather than only the keys of a snapshot resolved so far
+    private volatile boolean ownersComplete;
+    private volatile ChangeDispatcher changeDispatcher;
+
+    /**
+     * CTOR
+     *
+     * @param layers
+     *            the layers, from lowest to highest precedence
+     */
+    public LayeredConfigSpace(final ConfigSpace... layers) {
+        this(Arrays.asList(requireNonNull(layers, "Layers cannot be null")));
+    }
+
+    /**
+     * CTOR
+     *
+     * @param layers
+     *            the layers, from lowest to highest precedence
+     */
+    public LayeredConfigSpace(final List<? extends ConfigSpace> layers) {
+        this(layers, true);
+    }
+
+    private LayeredConfigSpace(final List<? extends ConfigSpace> layers, final boolean followLayers) {
+        requireNonNull(layers, "Layers cannot be null");
+        this.layers = List.copyOf(layers);
+        this.owners = new ConcurrentHashMap<>();
+        this.versions = new KeyVersions();
+        this.modificationHooks = new CopyOnWriteArrayList<>();
+        this.layerSubscriptions = new ArrayList<>();
+        this.keyIndex = new KeyIndex(this::getOwnedKeys, key -> getOwner(key) != null);
+
+        // Layers that are not followed never change, so their owners are left to be resolved on first use
+        if (followLayers) {
+            synchronized (this) {
+                for (final ConfigSpace layer : this.layers) {
+                    layerSubscriptions.add(follow(layer));
+                }
+                completeOwners();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(final ConfigKey<T> key) {
+        requireNonNull(key, "Key cannot be null");
+        return key.read(this, versions.get(key.getName()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getBoolean(key, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        return getOwnerRequired(key).getBooleanRequired(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final String key, final double defaultValue) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getDouble(key, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        return getOwnerRequired(key).getDoubleRequired(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final String key, final int defaultValue) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getInt(key, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        return getOwnerRequired(key).getIntRequired(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(final String key, final long defaultValue) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getLong(key, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        return getOwnerRequired(key).getLongRequired(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObject(final String key, final T defaultValue, final Class<T> clazz) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getObject(key, defaultValue, clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        return getOwnerRequired(key).getObjectRequired(key, clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getString(final String key, final String defaultValue) {
+        final ConfigSpace owner = getOwner(key);
+        return owner == null ? defaultValue : owner.getString(key, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return getOwnerRequired(key).getStringRequired(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return getOwner(requireNonEmpty(key)) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(getOwnedKeys());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys(final String prefix) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        return keyIndex.withPrefix(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        requireNonEmpty(key, "Key cannot be null or empty");
+        requireNonNull(listener, "Listener cannot be null");
+        return getChangeDispatcher().subscribe(key, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        requireNonNull(prefix, "Prefix cannot be null");
+        requireNonNull(listener, "Listener cannot be null");
+        return getChangeDispatcher().subscribeToPrefix(prefix, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        final List<ConfigSpace> layerSnapshots = new ArrayList<>(layers.size());
+        for (final ConfigSpace layer : layers) {
+            layerSnapshots.add(layer.snapshot());
+        }
+        return new Snapshot(layerSnapshots);
+    }
+
+    /**
+     * Stop following changes to the layers
+     */
+    @Override
+    public synchronized void close() {
+        for (final ConfigSubscription subscription : layerSubscriptions) {
+            subscription.close();
+        }
+        layerSubscriptions.clear();
+    }
+
+    /**
+     * Run $hook synchronously after every modification
+     *
+     * @param hook
+     *            the {@link ModificationHook}
+     * @return a {@link ConfigSubscription} that can be closed to remove $hook
+     */
+    ConfigSubscription addModificationHook(final ModificationHook hook) {
+        modificationHooks.add(hook);
+        return () -> modificationHooks.remove(hook);
+    }
+
+    private ConfigSubscription follow(final ConfigSpace layer) {
+        final ModificationHook hook = keys -> onLayerModified(layer, keys);
+        if (layer instanceof AbstractConfigSpace) {
+            return ((AbstractConfigSpace) layer).addModificationHook(hook);
+        } else if (layer instanceof LayeredConfigSpace) {
+            return ((LayeredConfigSpace) layer).addModificationHook(hook);
+        }
+        return layer.subscribeToPrefix("", (key, snapshot) -> hook.onModified(Collections.singleton(key)));
+    }
+
+    private synchronized void onLayerModified(final ConfigSpace layer, final Collection<String> keys) {
+        final Collection<String> candidateKeys = keys == null ? getKeysOf(layer) : keys;
+
+        final List<String> changedKeys = new ArrayList<>();
+        for (final String key : candidateKeys) {
+            final ConfigSpace previousOwner = owners.get(key);
+            final ConfigSpace owner = resolveOwner(key);
+            if (owner == null) {
+                owners.remove(key);
+            } else {
+                owners.put(key, owner);
+            }
+
+            // A change to a key that a later layer overrides does not change its effective value
+            if (previousOwner != owner || owner == layer) {
+                changedKeys.add(key);
+            }
+        }
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+
+        versions.increment(changedKeys);
+        keyIndex.update(changedKeys);
+        for (final ModificationHook hook : modificationHooks) {
+            hook.onModified(changedKeys);
+        }
+
+        final ChangeDispatcher dispatcher = changeDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(changedKeys);
+        }
+    }
+
+    private Collection<String> getKeysOf(final ConfigSpace layer) {
+        // Every key the layer holds now, or owned before it changed
+        final Set<String> keys = new HashSet<>(layer.keys());
+        owners.forEach((key, owner) -> {
+            if (owner == layer) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    private ConfigSpace resolveOwner(final String key) {
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            final ConfigSpace layer = layers.get(i);
+            if (layer.hasValue(key)) {
+                return layer;
+            }
+        }
+        return null;
+    }
+
+    private ConfigSpace getOwner(final String key) {
+        requireNonNull(key, "Key cannot be null");
+        final ConfigSpace owner = owners.get(key);
+        if (owner != null || ownersComplete) {
+            return owner;
+        }
+
+        // Only a snapshot resolves owners lazily, and its layers never change, so racing resolutions agree
+        final ConfigSpace resolved = resolveOwner(key);
+        if (resolved != null) {
+            owners.putIfAbsent(key, resolved);
+        }
+        return resolved;
+    }
+
+    private ConfigSpace getOwnerRequired(final String key) throws ConfigurationException {
+        final ConfigSpace owner = key == null ? null : getOwner(key);
+        if (owner == null) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key));
+        }
+        return owner;
+    }
+
+    private Set<String> getOwnedKeys() {
+        completeOwners();
+        return owners.keySet();
+    }
+
+    private void completeOwners() {
+        if (ownersComplete) {
+            return;
+        }
+        synchronized (this) {
+            if (!ownersComplete) {
+                // From the highest precedence down, so that a concurrent read never sees an overridden owner
+                for (int i = layers.size() - 1; i >= 0; i--) {
+                    final ConfigSpace layer = layers.get(i);
+                    for (final String key : layer.keys()) {
+                        owners.putIfAbsent(key, layer);
+                    }
+                }
+                ownersComplete = true;
+            }
+        }
+    }
+
+    private ChangeDispatcher getChangeDispatcher() {
+        ChangeDispatcher dispatcher = changeDispatcher;
+        if (dispatcher == null) {
+            synchronized (this) {
+                dispatcher = changeDispatcher;
+                if (dispatcher == null) {
+                    dispatcher = new ChangeDispatcher(this::snapshot);
+                    changeDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} layering snapshots of the layers at the time it was taken
+     */
+    private static final class Snapshot extends LayeredConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final List<ConfigSpace> layerSnapshots) {
+            super(layerSnapshots, false);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.liquorice.config.api.storage;
+
+import java.util.Collection;
+
+/**
+ * A callback run synchronously, on the writing thread, whenever the contents of a {@link ConfigSpace} change
+ *
+ * <p>
+ * Unlike a {@link ConfigListener}, a hook has run by the time the write returns. This lets spaces that derive state
+ * from other spaces, such as {@link LayeredConfigSpace}, keep that state in step with them. Hooks must be quick.
+ */
+@FunctionalInterface
+interface ModificationHook {
+
+    /**
+     * Called after the values associated with $keys have changed
+     *
+     * @param keys
+     *            the changed keys, or null if any key may have changed
+     */
+    void onModified(final Collection<String> keys);
+}
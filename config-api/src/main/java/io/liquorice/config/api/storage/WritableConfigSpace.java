@@ -1,10 +1,24 @@
 package io.liquorice.config.api.storage;
 
+import java.util.function.Consumer;
+
 /**
  * An extension of a {@link ConfigSpace} that allows updating stored entities
  */
 public interface WritableConfigSpace extends ConfigSpace {
 
+    /**
+     * Apply every change $changes makes to a {@link ConfigBatch} at once
+     *
+     * <p>
+     * Readers observe either none or all of the changes, and a file-backed space is persisted once rather than once per
+     * change. If $changes throws, none of the changes are applied.
+     *
+     * @param changes
+     *            stages the changes on the given {@link ConfigBatch}
+     */
+    void batch(final Consumer<? super ConfigBatch> changes);
+
     /**
      * Remove the value associated with $key
      *
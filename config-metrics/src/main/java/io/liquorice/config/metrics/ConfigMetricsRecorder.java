@@ -0,0 +1,48 @@
+package io.liquorice.config.metrics;
+
+/**
+ * Receives the measurements taken by an {@link InstrumentedConfigSpace}
+ *
+ * <p>
+ * This is the bridge to an external metrics system: implement it to forward each measurement, or use
+ * {@link StripedConfigMetrics} and poll its totals. Every method is called on the thread doing the read or write, so
+ * implementations must be thread-safe and should be cheap, particularly {@link #recordRead(String, ReadOutcome)}.
+ */
+public interface ConfigMetricsRecorder {
+
+    /**
+     * Record a read of $key
+     *
+     * @param key
+     *            the key
+     * @param outcome
+     *            the {@link ReadOutcome}
+     */
+    void recordRead(final String key, final ReadOutcome outcome);
+
+    /**
+     * Record the time taken to read and decode an object from $key
+     *
+     * @param key
+     *            the key
+     * @param nanos
+     *            the elapsed time in nanoseconds
+     */
+    void recordDecode(final String key, final long nanos);
+
+    /**
+     * Record a write of $key
+     *
+     * @param key
+     *            the key
+     */
+    void recordWrite(final String key);
+
+    /**
+     * Record the time taken to apply and persist a write or a batch of writes
+     *
+     * @param nanos
+     *            the elapsed time in nanoseconds
+     */
+    void recordPersist(final long nanos);
+}
@@ -0,0 +1,339 @@
+package io.liquorice.config.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import io.liquorice.config.api.storage.ConfigKey;
+import io.liquorice.config.api.storage.ConfigListener;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.api.storage.ConfigSubscription;
+import io.liquorice.config.exception.ConfigurationException;
+
+/**
+ * A {@link ConfigSpace} that records every read of another {@link ConfigSpace} to a {@link ConfigMetricsRecorder}
+ *
+ * <p>
+ * Each read is recorded as a {@link ReadOutcome}, and reads of objects also record how long they took to decode. A
+ * read that returns its default value is checked again to tell a miss from a type error, so only the reads that fall
+ * back to their default cost more than the read itself. Reads through a {@link ConfigKey} are resolved by the key, and
+ * a type error is recorded as a hit.
+ *
+ * <p>
+ * NOTE: Reads from a {@link ConfigSnapshot}, including the ones passed to a {@link ConfigListener}, are not recorded
+ */
+public class InstrumentedConfigSpace implements ConfigSpace, AutoCloseable {
+
+    private final ConfigSpace configSpace;
+    private final ConfigMetricsRecorder recorder;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            the {@link ConfigSpace} to instrument
+     * @param recorder
+     *            the {@link ConfigMetricsRecorder} to record to
+     */
+    public InstrumentedConfigSpace(final ConfigSpace configSpace, final ConfigMetricsRecorder recorder) {
+        this.configSpace = requireNonNull(configSpace, "Config space cannot be null");
+        this.recorder = requireNonNull(recorder, "Recorder cannot be null");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(final ConfigKey<T> key) {
+        final T value = configSpace.get(key);
+        final boolean missing = Objects.equals(value, key.getDefaultValue()) && !configSpace.hasValue(key.getName());
+        recorder.recordRead(key.getName(), missing ? ReadOutcome.MISS : ReadOutcome.HIT);
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        final boolean value = configSpace.getBoolean(key, defaultValue);
+        if (value == defaultValue) {
+            recordDefaulted(key, () -> configSpace.getBoolean(key, !defaultValue) != defaultValue);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        try {
+            final boolean value = configSpace.getBooleanRequired(key);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final String key, final double defaultValue) {
+        final double value = configSpace.getDouble(key, defaultValue);
+        if (Double.compare(value, defaultValue) == 0) {
+            // Any other value would do, as long as a stored value equal to $defaultValue is told apart from it
+            final double otherValue = defaultValue == 0 ? 1 : 0;
+            recordDefaulted(key, () -> Double.compare(configSpace.getDouble(key, otherValue), otherValue) == 0);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        try {
+            final double value = configSpace.getDoubleRequired(key);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final String key, final int defaultValue) {
+        final int value = configSpace.getInt(key, defaultValue);
+        if (value == defaultValue) {
+            final int otherValue = defaultValue + 1;
+            recordDefaulted(key, () -> configSpace.getInt(key, otherValue) == otherValue);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        try {
+            final int value = configSpace.getIntRequired(key);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(final String key, final long defaultValue) {
+        final long value = configSpace.getLong(key, defaultValue);
+        if (value == defaultValue) {
+            final long otherValue = defaultValue + 1;
+            recordDefaulted(key, () -> configSpace.getLong(key, otherValue) == otherValue);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        try {
+            final long value = configSpace.getLongRequired(key);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObject(final String key, final T defaultValue, final Class<T> clazz) {
+        final long start = System.nanoTime();
+        final T value = configSpace.getObject(key, defaultValue, clazz);
+        recorder.recordDecode(key, System.nanoTime() - start);
+
+        if (value == defaultValue) {
+            // A null default is only returned when there is no value to decode
+            recordDefaulted(key, () -> defaultValue == null || configSpace.getObject(key, null, clazz) == null);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final long start = System.nanoTime();
+        try {
+            final T value = configSpace.getObjectRequired(key, clazz);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        } finally {
+            recorder.recordDecode(key, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getString(final String key, final String defaultValue) {
+        final String value = configSpace.getString(key, defaultValue);
+        if (value == defaultValue) {
+            recordDefaulted(key, () -> defaultValue == null || configSpace.getString(key, null) == null);
+        } else {
+            recorder.recordRead(key, ReadOutcome.HIT);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        try {
+            final String value = configSpace.getStringRequired(key);
+            recorder.recordRead(key, ReadOutcome.HIT);
+            return value;
+        } catch (final ConfigurationException e) {
+            recordFailed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return configSpace.hasValue(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return configSpace.keys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys(final String prefix) {
+        return configSpace.keys(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        return configSpace.subscribe(key, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        return configSpace.subscribeToPrefix(prefix, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return configSpace.snapshot();
+    }
+
+    /**
+     * Close the instrumented {@link ConfigSpace}, if it is {@link AutoCloseable}
+     *
+     * @throws UncheckedIOException
+     *             if it failed to close with an {@link IOException}
+     * @throws IllegalStateException
+     *             if it failed to close with any other checked exception
+     */
+    @Override
+    public void close() {
+        if (!(configSpace instanceof AutoCloseable)) {
+            return;
+        }
+
+        try {
+            ((AutoCloseable) configSpace).close();
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Failed to close the instrumented config space", e);
+        }
+    }
+
+    /**
+     * @return the {@link ConfigMetricsRecorder} recorded to
+     */
+    protected ConfigMetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    private void recordDefaulted(final String key, final BooleanSupplier isTypeError) {
+        // A present value may equal the default, so read it again with another default to tell it from a type error
+        if (!configSpace.hasValue(key)) {
+            recorder.recordRead(key, ReadOutcome.MISS);
+        } else {
+            recorder.recordRead(key, isTypeError.getAsBoolean() ? ReadOutcome.TYPE_ERROR : ReadOutcome.HIT);
+        }
+    }
+
+    private void recordFailed(final String key) {
+        recorder.recordRead(key, configSpace.hasValue(key) ? ReadOutcome.TYPE_ERROR : ReadOutcome.MISS);
+    }
+}
@@ -0,0 +1,184 @@
+package io.liquorice.config.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.liquorice.config.api.storage.ConfigBatch;
+import io.liquorice.config.api.storage.WritableConfigSpace;
+
+/**
+ * An {@link InstrumentedConfigSpace} that also records every write to a {@link WritableConfigSpace}
+ *
+ * <p>
+ * Each written key is recorded, and the time taken by each write or batch is recorded as its persistence latency. For
+ * a file-backed {@link WritableConfigSpace} that includes writing the file, unless it persists in the background.
+ */
+public class InstrumentedWritableConfigSpace extends InstrumentedConfigSpace implements WritableConfigSpace {
+
+    private final WritableConfigSpace configSpace;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            the {@link WritableConfigSpace} to instrument
+     * @param recorder
+     *            the {@link ConfigMetricsRecorder} to record to
+     */
+    public InstrumentedWritableConfigSpace(final WritableConfigSpace configSpace,
+            final ConfigMetricsRecorder recorder) {
+        super(configSpace, recorder);
+        this.configSpace = configSpace;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final List<String> keys = new ArrayList<>();
+        final long start = System.nanoTime();
+        configSpace.batch(batch -> changes.accept(new RecordingBatch(batch, keys)));
+        getRecorder().recordPersist(System.nanoTime() - start);
+
+        // Only once applied, as a batch that throws is discarded
+        for (final String key : keys) {
+            getRecorder().recordWrite(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final String key) {
+        final long start = System.nanoTime();
+        configSpace.remove(key);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBoolean(final String key, final boolean value) {
+        final long start = System.nanoTime();
+        configSpace.setBoolean(key, value);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDouble(final String key, final double value) {
+        final long start = System.nanoTime();
+        configSpace.setDouble(key, value);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInt(final String key, final int value) {
+        final long start = System.nanoTime();
+        configSpace.setInt(key, value);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLong(final String key, final long value) {
+        final long start = System.nanoTime();
+        configSpace.setLong(key, value);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setObject(final String key, final Object value) {
+        final long start = System.nanoTime();
+        configSpace.setObject(key, value);
+        recordWrite(key, start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setString(final String key, final String value) {
+        final long start = System.nanoTime();
+        configSpace.setString(key, value);
+        recordWrite(key, start);
+    }
+
+    private void recordWrite(final String key, final long start) {
+        getRecorder().recordPersist(System.nanoTime() - start);
+        getRecorder().recordWrite(key);
+    }
+
+    /**
+     * Collects each key staged on a {@link ConfigBatch}, once it has been staged successfully
+     */
+    private static final class RecordingBatch implements ConfigBatch {
+        private final ConfigBatch batch;
+        private final List<String> keys;
+
+        private RecordingBatch(final ConfigBatch batch, final List<String> keys) {
+            this.batch = batch;
+            this.keys = keys;
+        }
+
+        @Override
+        public void remove(final String key) {
+            batch.remove(key);
+            keys.add(key);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            batch.setBoolean(key, value);
+            keys.add(key);
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            batch.setDouble(key, value);
+            keys.add(key);
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            batch.setInt(key, value);
+            keys.add(key);
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            batch.setLong(key, value);
+            keys.add(key);
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            batch.setObject(key, value);
+            keys.add(key);
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            batch.setString(key, value);
+            keys.add(key);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.liquorice.config.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds, with a bucket per power of two
+ *
+ * <p>
+ * Each bucket is a {@link LongAdder}, so concurrent recording does not contend. The buckets bound the precision of
+ * percentiles to a factor of two, which is enough to tell a fast read from a slow one without pulling in a
+ * histogram library.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder[] buckets;
+    private final LongAdder totalNanos;
+
+    /**
+     * CTOR
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.totalNanos = new LongAdder();
+    }
+
+    /**
+     * Record a latency
+     *
+     * @param nanos
+     *            the latency in nanoseconds. Negative values, e.g. from a clock adjustment, are recorded as 0.
+     */
+    public void record(final long nanos) {
+        final long latency = Math.max(0, nanos);
+        buckets[bucketOf(latency)].increment();
+        totalNanos.add(latency);
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (final LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of every latency recorded, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Get an upper bound of the $percentile latency
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the $percentile latency, in nanoseconds, or 0 if nothing was
+     *         recorded
+     */
+    public long getPercentileNanos(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+
+        // Sum the buckets once, so that concurrent recording cannot push the rank past the total
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    private static int bucketOf(final long nanos) {
+        // 0 and 1 share the first bucket, then [2, 4), [4, 8) and so on
+        return nanos == 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBoundOf(final int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (2L << bucket) - 1;
+    }
+}
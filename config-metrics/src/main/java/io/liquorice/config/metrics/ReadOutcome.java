@@ -0,0 +1,22 @@
+package io.liquorice.config.metrics;
+
+/**
+ * How a read from an {@link InstrumentedConfigSpace} turned out
+ */
+public enum ReadOutcome {
+
+    /**
+     * The key had a value of the requested type
+     */
+    HIT,
+
+    /**
+     * The key had no value
+     */
+    MISS,
+
+    /**
+     * The key had a value, but it could not be read as the requested type
+     */
+    TYPE_ERROR
+}
@@ -0,0 +1,126 @@
+package io.liquorice.config.metrics;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ConfigMetricsRecorder} that keeps running totals in striped counters, for polling by a metrics system
+ *
+ * <p>
+ * Every counter is a {@link LongAdder}, so threads reading the same hot key increment separate cells rather than
+ * contending on one. A key's counter is created on its first read and kept from then on.
+ */
+public final class StripedConfigMetrics implements ConfigMetricsRecorder {
+
+    private final ConcurrentHashMap<String, LongAdder> readsByKey;
+    private final LongAdder[] readsByOutcome;
+    private final LongAdder writes;
+    private final LatencyHistogram decodeLatency;
+    private final LatencyHistogram persistLatency;
+
+    /**
+     * CTOR
+     */
+    public StripedConfigMetrics() {
+        this.readsByKey = new ConcurrentHashMap<>();
+        this.readsByOutcome = new LongAdder[ReadOutcome.values().length];
+        for (int i = 0; i < readsByOutcome.length; i++) {
+            readsByOutcome[i] = new LongAdder();
+        }
+        this.writes = new LongAdder();
+        this.decodeLatency = new LatencyHistogram();
+        this.persistLatency = new LatencyHistogram();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordRead(final String key, final ReadOutcome outcome) {
+        // Only the first read of a key pays for computeIfAbsent, which may lock
+        LongAdder counter = readsByKey.get(key);
+        if (counter == null) {
+            counter = readsByKey.computeIfAbsent(key, ignored -> new LongAdder());
+        }
+        counter.increment();
+        readsByOutcome[outcome.ordinal()].increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordDecode(final String key, final long nanos) {
+        decodeLatency.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordWrite(final String key) {
+        writes.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordPersist(final long nanos) {
+        persistLatency.record(nanos);
+    }
+
+    /**
+     * @param key
+     *            the key
+     * @return the number of reads of $key
+     */
+    public long getReadCount(final String key) {
+        final LongAdder counter = readsByKey.get(requireNonEmpty(key));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return the number of reads of every key read so far
+     */
+    public Map<String, Long> getReadCounts() {
+        final Map<String, Long> counts = new HashMap<>();
+        readsByKey.forEach((key, counter) -> counts.put(key, counter.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @param outcome
+     *            the {@link ReadOutcome}
+     * @return the number of reads of any key with $outcome
+     */
+    public long getReadCount(final ReadOutcome outcome) {
+        return readsByOutcome[outcome.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of keys written, counting each key of a batch
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /**
+     * @return the time taken to read and decode objects
+     */
+    public LatencyHistogram getDecodeLatency() {
+        return decodeLatency;
+    }
+
+    /**
+     * @return the time taken to apply and persist writes
+     */
+    public LatencyHistogram getPersistLatency() {
+        return persistLatency;
+    }
+}
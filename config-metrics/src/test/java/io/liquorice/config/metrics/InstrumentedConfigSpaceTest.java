@@ -0,0 +1,139 @@
+package io.liquorice.config.metrics;
+
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOES_NOT_EXIST_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_INT_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+import io.liquorice.config.storage.inmemory.WritableMapConfigSpace;
+
+class InstrumentedConfigSpaceTest {
+
+    private StripedConfigMetrics metrics;
+    private InstrumentedWritableConfigSpace configSpace;
+
+    @BeforeEach
+    void setup() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(BOOL_KEY, BOOL_VALUE);
+        properties.put(INT_KEY, INT_VALUE);
+        properties.put(STRING_KEY, STRING_VALUE);
+        properties.put(COMPLEX_KEY, COMPLEX_VALUE);
+
+        metrics = new StripedConfigMetrics();
+        configSpace = new InstrumentedWritableConfigSpace(
+                new WritableMapConfigSpace(new PassThroughConfigFormatter(), properties), metrics);
+    }
+
+    @Test
+    void testReadOutcomesAreRecorded() {
+        assertEquals(INT_VALUE, configSpace.getInt(INT_KEY, DEFAULT_INT_VALUE));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(DOES_NOT_EXIST_KEY, DEFAULT_INT_VALUE));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(STRING_KEY, DEFAULT_INT_VALUE));
+        assertEquals(DEFAULT_STRING_VALUE, configSpace.getString(DOES_NOT_EXIST_KEY, DEFAULT_STRING_VALUE));
+        assertThrows(ConfigurationException.class, () -> configSpace.getIntRequired(DOES_NOT_EXIST_KEY));
+        assertThrows(ConfigurationException.class, () -> configSpace.getIntRequired(STRING_KEY));
+
+        assertEquals(1, metrics.getReadCount(ReadOutcome.HIT));
+        assertEquals(3, metrics.getReadCount(ReadOutcome.MISS));
+        assertEquals(2, metrics.getReadCount(ReadOutcome.TYPE_ERROR));
+        assertEquals(3, metrics.getReadCount(DOES_NOT_EXIST_KEY));
+        assertEquals(Map.of(INT_KEY, 1L, DOES_NOT_EXIST_KEY, 3L, STRING_KEY, 2L), metrics.getReadCounts());
+    }
+
+    @Test
+    void testValueEqualToTheDefaultIsAHit() {
+        assertEquals(BOOL_VALUE, configSpace.getBoolean(BOOL_KEY, BOOL_VALUE));
+        assertEquals(INT_VALUE, configSpace.getInt(INT_KEY, INT_VALUE));
+        assertEquals(STRING_VALUE, configSpace.getString(STRING_KEY, STRING_VALUE));
+
+        assertEquals(3, metrics.getReadCount(ReadOutcome.HIT));
+        assertEquals(0, metrics.getReadCount(ReadOutcome.TYPE_ERROR));
+    }
+
+    @Test
+    void testDecodeLatencyIsRecorded() {
+        assertEquals(COMPLEX_VALUE, configSpace.getObjectRequired(COMPLEX_KEY, List.class));
+        assertEquals(COMPLEX_VALUE, configSpace.getObject(COMPLEX_KEY, null, List.class));
+
+        assertEquals(2, metrics.getDecodeLatency().getCount());
+        assertEquals(2, metrics.getReadCount(COMPLEX_KEY));
+    }
+
+    @Test
+    void testWritesAndPersistLatencyAreRecorded() {
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.batch(batch -> {
+            batch.remove(BOOL_KEY);
+            batch.setString(STRING_KEY, DEFAULT_STRING_VALUE);
+        });
+        assertThrows(NullPointerException.class, () -> configSpace.batch(batch -> batch.setObject(INT_KEY, null)));
+
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(3, metrics.getWriteCount());
+        assertEquals(2, metrics.getPersistLatency().getCount());
+    }
+
+    @Test
+    void testCloseWrapsCheckedExceptions() {
+        final InstrumentedConfigSpace failingToClose = new InstrumentedConfigSpace(new FailingToCloseConfigSpace(),
+                metrics);
+
+        final UncheckedIOException e = assertThrows(UncheckedIOException.class, failingToClose::close);
+        assertEquals("closing", e.getCause().getMessage());
+        configSpace.close();
+    }
+
+    @Test
+    void testPercentilesAreBoundedByTheirBucket() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(10_000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(19_900, histogram.getTotalNanos());
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(99));
+        assertEquals(16_383, histogram.getPercentileNanos(100));
+    }
+
+    /**
+     * Fails to close, as a file-backed space might
+     */
+    private static final class FailingToCloseConfigSpace extends WritableMapConfigSpace implements AutoCloseable {
+
+        private FailingToCloseConfigSpace() {
+            super(new PassThroughConfigFormatter(), Map.of());
+        }
+
+        @Override
+        public void close() throws IOException {
+            throw new IOException("closing");
+        }
+    }
+}
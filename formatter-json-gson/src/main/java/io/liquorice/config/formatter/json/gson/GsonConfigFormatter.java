@@ -2,37 +2,53 @@ package io.liquorice.config.formatter.json.gson;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
 
 import io.liquorice.config.api.formatter.StreamableConfigFormatter;
 
 /**
  * An implementation of a {@link StreamableConfigFormatter} where the values are interpreted as JSON strings and the
  * implementation is based around Google/Gson
+ *
+ * <p>
+ * {@link JsonElement}s are converted and values are written through a {@link TypeAdapter} looked up once per
+ * {@link Class} and kept for the life of the formatter, rather than looked up again by Gson on every call. A
+ * {@link JsonElement} is converted straight from the tree, without being written out as JSON first.
  */
 public class GsonConfigFormatter implements StreamableConfigFormatter {
 
     private static final GsonBuilder DEFAULT_GSON_BUILDER = new GsonBuilder();
 
     private final Gson gson;
+    private final ConcurrentMap<Class<?>, TypeAdapter<?>> typeAdapters;
 
     /**
      * CTOR
      */
     private GsonConfigFormatter(final Builder builder) {
         this.gson = builder.gsonBuilder.create();
+        this.typeAdapters = new ConcurrentHashMap<>();
     }
 
     /**
@@ -99,8 +115,11 @@ public class GsonConfigFormatter implements StreamableConfigFormatter {
      */
     public <T> Optional<T> read(final JsonElement jsonElement, final Class<T> valueType) {
         try {
-            return Optional.ofNullable(gson.fromJson(jsonElement, valueType));
-        } catch (final JsonSyntaxException e) {
+            return Optional.ofNullable(typeAdapterFor(valueType).fromJsonTree(jsonElement));
+        } catch (final NumberFormatException | JsonIOException e) {
+            // Unlike Gson#fromJson, the adapter reads the tree strictly, and rejects e.g. NaN and infinite numbers
+            return readLeniently(jsonElement, valueType);
+        } catch (final JsonParseException | IllegalStateException e) {
             return Optional.empty();
         }
     }
@@ -110,7 +129,51 @@ public class GsonConfigFormatter implements StreamableConfigFormatter {
      */
     @Override
     public Object write(final Object value) {
-        return gson.toJson(value);
+        if (value == null) {
+            return gson.toJson(JsonNull.INSTANCE);
+        }
+
+        // Configured as by Gson#toJson
+        final StringWriter stringWriter = new StringWriter();
+        try {
+            final JsonWriter jsonWriter = gson.newJsonWriter(stringWriter);
+            jsonWriter.setLenient(true);
+            jsonWriter.setHtmlSafe(gson.htmlSafe());
+            @SuppressWarnings("unchecked")
+            final TypeAdapter<Object> typeAdapter = (TypeAdapter<Object>) typeAdapterFor(value.getClass());
+            typeAdapter.write(jsonWriter, value);
+        } catch (final IOException e) {
+            throw new JsonIOException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Get the {@link TypeAdapter} that this formatter reads and writes values of type $valueType with
+     *
+     * <p>
+     * This is the fast path for callers that convert many values of the same type, e.g. through
+     * {@link TypeAdapter#fromJsonTree(JsonElement)}. The same instance is returned for every call with the same type.
+     *
+     * @param valueType
+     *            the type to read or write
+     * @param <T>
+     *            type param
+     * @return the cached {@link TypeAdapter}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> typeAdapterFor(final Class<T> valueType) {
+        final TypeAdapter<?> typeAdapter = typeAdapters.get(valueType);
+        return (TypeAdapter<T>) (typeAdapter != null ? typeAdapter
+                : typeAdapters.computeIfAbsent(valueType, gson::getAdapter));
+    }
+
+    private <T> Optional<T> readLeniently(final JsonElement jsonElement, final Class<T> valueType) {
+        try {
+            return Optional.ofNullable(gson.fromJson(jsonElement, valueType));
+        } catch (final JsonSyntaxException e) {
+            return Optional.empty();
+        }
     }
 
     /**
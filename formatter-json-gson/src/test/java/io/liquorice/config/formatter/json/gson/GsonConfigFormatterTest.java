@@ -6,12 +6,14 @@ import static io.liquorice.config.test.support.ConfigFormatterTestData.TEST_NOT_
 import static io.liquorice.config.test.support.ConfigFormatterTestData.TEST_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -110,4 +112,32 @@ class GsonConfigFormatterTest {
         assertTrue(written instanceof String);
         assertEquals(TEST_JSON, written);
     }
+
+    @Test
+    void testReadMalformedJsonElement() {
+        final Object jsonElement = new JsonPrimitive("not a number");
+        assertThrows(NoSuchElementException.class, () -> configFormatter.read(jsonElement, Integer.class).get());
+    }
+
+    @Test
+    void testReadJsonElementIsNaN() {
+        final Object jsonElement = new JsonPrimitive(Double.NaN);
+        assertTrue(configFormatter.read(jsonElement, Double.class).get().isNaN());
+    }
+
+    @Test
+    void testWriteMatchesGson() {
+        final Gson gson = new GsonBuilder().create();
+        final Map<String, Object> value = new HashMap<>();
+        value.put("html", "<a href='x'>&</a>");
+        value.put("null", null);
+
+        assertEquals(gson.toJson(value), configFormatter.write(value));
+        assertEquals("null", configFormatter.write(null));
+    }
+
+    @Test
+    void testTypeAdaptersAreCachedPerType() {
+        assertSame(configFormatter.typeAdapterFor(Map.class), configFormatter.typeAdapterFor(Map.class));
+    }
 }
@@ -10,26 +10,44 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.liquorice.config.api.formatter.StreamableConfigFormatter;
 
 /**
  * An implementation of a {@link StreamableConfigFormatter} where the values are interpreted as JSON strings and the
  * implementation is based around FasterXML/jackson
+ *
+ * <p>
+ * Values are read and written through an {@link ObjectReader} or {@link ObjectWriter} built once per {@link Class} and
+ * kept for the life of the formatter, so that the type, (de)serializer and configuration are not resolved again
+ * through the {@link ObjectMapper} on every call.
+ *
+ * <p>
+ * NOTE: As the cached readers and writers capture the configuration of the {@link ObjectMapper} when they are built,
+ * the {@link ObjectMapper} must not be reconfigured, e.g. by registering further modules, once this formatter is used.
  */
 public class JacksonConfigFormatter implements StreamableConfigFormatter {
 
     private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
 
     private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers;
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers;
 
     private JacksonConfigFormatter(final Builder builder) {
         this.objectMapper = builder.objectMapper;
+        this.readers = new ConcurrentHashMap<>();
+        this.writers = new ConcurrentHashMap<>();
     }
 
     /**
@@ -55,7 +73,7 @@ public class JacksonConfigFormatter implements StreamableConfigFormatter {
      */
     public <T> Optional<T> read(final Reader reader, final Class<T> valueType) {
         try {
-            return Optional.ofNullable(objectMapper.readValue(reader, valueType));
+            return Optional.ofNullable(readerFor(valueType).<T>readValue(reader));
         } catch (final IOException e) {
             return Optional.empty();
         }
@@ -66,7 +84,7 @@ public class JacksonConfigFormatter implements StreamableConfigFormatter {
      */
     public <T> Optional<T> read(final InputStream inputStream, final Class<T> valueType) {
         try {
-            return Optional.ofNullable(objectMapper.readValue(inputStream, valueType));
+            return Optional.ofNullable(readerFor(valueType).<T>readValue(inputStream));
         } catch (final IOException e) {
             return Optional.empty();
         }
@@ -77,7 +95,7 @@ public class JacksonConfigFormatter implements StreamableConfigFormatter {
      */
     public <T> Optional<T> read(final String string, final Class<T> valueType) {
         try {
-            return Optional.ofNullable(objectMapper.readValue(string, valueType));
+            return Optional.ofNullable(readerFor(valueType).<T>readValue(string));
         } catch (final IOException e) {
             return Optional.empty();
         }
@@ -96,8 +114,13 @@ public class JacksonConfigFormatter implements StreamableConfigFormatter {
      *         successful, or an {@link Optional#empty()} otherwise
      */
     public <T> Optional<T> read(final JsonNode jsonNode, final Class<T> valueType) {
+        // As by ObjectMapper#treeToValue, a node that is already of the requested type is returned as it is
+        if (TreeNode.class.isAssignableFrom(valueType) && valueType.isInstance(jsonNode)) {
+            return Optional.of(valueType.cast(jsonNode));
+        }
+
         try {
-            return Optional.ofNullable(objectMapper.treeToValue(jsonNode, valueType));
+            return Optional.ofNullable(readerFor(valueType).<T>readValue(jsonNode));
         } catch (final IOException e) {
             return Optional.empty();
         }
@@ -109,12 +132,43 @@ public class JacksonConfigFormatter implements StreamableConfigFormatter {
     @Override
     public Object write(final Object value) {
         try {
-            return objectMapper.writeValueAsString(value);
+            return (value == null ? objectMapper.writer() : writerFor(value.getClass())).writeValueAsString(value);
         } catch (final JsonProcessingException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Get the {@link ObjectReader} that this formatter reads values of type $valueType with
+     *
+     * <p>
+     * This is the fast path for callers that decode many values of the same type straight from JSON, e.g. from a
+     * {@link com.fasterxml.jackson.core.JsonParser}. The same instance is returned for every call with the same type.
+     *
+     * @param valueType
+     *            the type to read
+     * @return the cached {@link ObjectReader}
+     */
+    public ObjectReader readerFor(final Class<?> valueType) {
+        final ObjectReader reader = readers.get(valueType);
+        return reader != null ? reader : readers.computeIfAbsent(valueType, objectMapper::readerFor);
+    }
+
+    /**
+     * Get the {@link ObjectWriter} that this formatter writes values of type $valueType with
+     *
+     * <p>
+     * The same instance is returned for every call with the same type.
+     *
+     * @param valueType
+     *            the runtime type of the values to write
+     * @return the cached {@link ObjectWriter}
+     */
+    public ObjectWriter writerFor(final Class<?> valueType) {
+        final ObjectWriter writer = writers.get(valueType);
+        return writer != null ? writer : writers.computeIfAbsent(valueType, objectMapper::writerFor);
+    }
+
     /**
      * Builder
      */
@@ -6,9 +6,9 @@ import static io.liquorice.config.test.support.ConfigFormatterTestData.TEST_NOT_
 import static io.liquorice.config.test.support.ConfigFormatterTestData.TEST_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -26,6 +26,8 @@ import org.junit.jupiter.api.Test;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.TextNode;
 
@@ -100,8 +102,10 @@ class JacksonConfigFormatterTest {
     void testReadObjectIsMalformedJsonNode() throws Exception {
         final JsonProcessingException mockException = mock(JsonProcessingException.class);
         final ObjectMapper mockObjectMapper = mock(ObjectMapper.class);
+        final ObjectReader mockObjectReader = mock(ObjectReader.class);
         final JsonNode jsonNode = new TextNode(TEST_VALUE);
-        when(mockObjectMapper.treeToValue(eq(jsonNode), any())).thenThrow(mockException);
+        when(mockObjectMapper.readerFor(String.class)).thenReturn(mockObjectReader);
+        when(mockObjectReader.readValue(eq(jsonNode))).thenThrow(mockException);
 
         final JacksonConfigFormatter exceptionInducingObjectMapper = new JacksonConfigFormatter.Builder() //
                 .withObjectMapper(mockObjectMapper) //
@@ -109,6 +113,12 @@ class JacksonConfigFormatterTest {
         assertThrows(NoSuchElementException.class, () -> exceptionInducingObjectMapper.read(jsonNode, String.class).get());
     }
 
+    @Test
+    void testReadJsonNodeAsNodeType() {
+        final JsonNode jsonNode = new TextNode(TEST_VALUE);
+        assertSame(jsonNode, configFormatter.read(jsonNode, JsonNode.class).get());
+    }
+
     @Test
     void testUnsupportedInputType() {
         final Object downcastedDouble = 2.0;
@@ -126,11 +136,26 @@ class JacksonConfigFormatterTest {
     void testWriteException() throws Exception {
         final JsonProcessingException mockException = mock(JsonProcessingException.class);
         final ObjectMapper mockObjectMapper = mock(ObjectMapper.class);
-        when(mockObjectMapper.writeValueAsString(eq(TEST_VALUE))).thenThrow(mockException);
+        final ObjectWriter mockObjectWriter = mock(ObjectWriter.class);
+        when(mockObjectMapper.writerFor(String.class)).thenReturn(mockObjectWriter);
+        when(mockObjectWriter.writeValueAsString(eq(TEST_VALUE))).thenThrow(mockException);
 
         final JacksonConfigFormatter exceptionInducingObjectMapper = new JacksonConfigFormatter.Builder() //
                 .withObjectMapper(mockObjectMapper) //
                 .build();
         assertThrows(RuntimeException.class, () -> exceptionInducingObjectMapper.write(TEST_VALUE));
     }
+
+    @Test
+    void testWriteNull() {
+        assertEquals("null", configFormatter.write(null));
+    }
+
+    @Test
+    void testReadersAndWritersAreCachedPerType() {
+        assertSame(configFormatter.readerFor(Map.class), configFormatter.readerFor(Map.class));
+        assertSame(configFormatter.writerFor(Map.class), configFormatter.writerFor(Map.class));
+        assertEquals(TEST_MAP, configFormatter.read(TEST_JSON, Map.class).get());
+        assertEquals(TEST_JSON, configFormatter.write(TEST_MAP));
+    }
 }
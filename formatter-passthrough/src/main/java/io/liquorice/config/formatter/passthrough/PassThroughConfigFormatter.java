@@ -18,6 +18,14 @@ public class PassThroughConfigFormatter implements ConfigFormatter {
         return Optional.ofNullable(valueType.cast(value));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T readOrDefault(final Object value, final Class<T> valueType, final T defaultValue) {
+        return valueType.isInstance(value) ? valueType.cast(value) : defaultValue;
+    }
+
     /**
      * {@inheritDoc}
      */
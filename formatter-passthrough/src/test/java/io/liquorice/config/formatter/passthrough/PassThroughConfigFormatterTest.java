@@ -39,4 +39,10 @@ class PassThroughConfigFormatterTest {
         final Object written = configFormatter.write(TEST_VALUE);
         assertThrows(ClassCastException.class, () -> configFormatter.read(written, List.class));
     }
+
+    @Test
+    void testReadOrDefaultFailure() {
+        final Object written = configFormatter.write(TEST_VALUE);
+        assertEquals(TEST_LIST, configFormatter.readOrDefault(written, List.class, TEST_LIST));
+    }
 }
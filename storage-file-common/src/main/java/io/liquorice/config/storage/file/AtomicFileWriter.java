@@ -0,0 +1,175 @@
+package io.liquorice.config.storage.file;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Replaces the contents of a file atomically, so that a reader or a crash never observes a partially written file
+ *
+ * <p>
+ * The new contents are written to a temporary file in the same directory, optionally forced to the storage device,
+ * and then renamed over the file. A rename within a directory is atomic, so the file always holds either the old or
+ * the new contents in full.
+ */
+public final class AtomicFileWriter {
+
+    private final Path path;
+    private final SyncPolicy syncPolicy;
+
+    /**
+     * CTOR
+     *
+     * @param path
+     *            the file to write
+     * @param syncPolicy
+     *            how far to force each write to the storage device before it is considered done
+     */
+    public AtomicFileWriter(final Path path, final SyncPolicy syncPolicy) {
+        this.path = requireNonNull(path, "Path cannot be null").toAbsolutePath().normalize();
+        this.syncPolicy = requireNonNull(syncPolicy, "Sync policy cannot be null");
+        requireNonNull(this.path.getParent(), "Path must have a parent directory");
+    }
+
+    /**
+     * @return the file being written
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Replace the contents of the file with whatever $content writes, encoded as UTF-8
+     *
+     * <p>
+     * If $content throws, the file is left untouched.
+     *
+     * @param content
+     *            writes the new contents. May close the {@link Writer} it is given.
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public void write(final Content content) throws IOException {
+        requireNonNull(content, "Content cannot be null");
+
+        final Path directory = path.getParent();
+        final Path tempFile = Files.createTempFile(directory, "." + path.getFileName(), ".tmp");
+        try {
+            copyPermissions(tempFile);
+
+            try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                try (final Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new UnclosableOutputStream(Channels.newOutputStream(channel)), StandardCharsets.UTF_8))) {
+                    content.writeTo(writer);
+                }
+
+                if (syncPolicy != SyncPolicy.NONE) {
+                    channel.force(true);
+                }
+            }
+
+            Files.move(tempFile, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        if (syncPolicy == SyncPolicy.DATA_AND_DIRECTORY) {
+            syncDirectory(directory);
+        }
+    }
+
+    private void copyPermissions(final Path tempFile) throws IOException {
+        // Temporary files are only readable by their owner, which the replaced file may not have been
+        final PosixFileAttributeView view = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+        if (view != null && Files.exists(path)) {
+            Files.setPosixFilePermissions(tempFile, view.readAttributes().permissions());
+        }
+    }
+
+    private static void syncDirectory(final Path directory) {
+        try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException e) {
+            // Not every platform can open or force a directory, e.g. Windows. The rename has happened regardless.
+        }
+    }
+
+    /**
+     * How far to force each write to the storage device before it is considered done
+     *
+     * <p>
+     * Every policy replaces the file atomically. They differ in what a power loss or an operating system crash may
+     * lose.
+     */
+    public enum SyncPolicy {
+
+        /**
+         * Leave writing back to the operating system. The most recent writes may be lost, and on some file systems
+         * the file may be left empty.
+         */
+        NONE,
+
+        /**
+         * Force the new contents before renaming them into place. The most recent write may be lost, but the file
+         * holds either the old or the new contents.
+         */
+        DATA,
+
+        /**
+         * Also force the directory after the rename, so that a write is durable once it returns
+         */
+        DATA_AND_DIRECTORY
+    }
+
+    /**
+     * Writes the new contents of a file
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Write the contents to $writer
+         *
+         * @param writer
+         *            the {@link Writer}
+         * @throws IOException
+         *             if the contents could not be written
+         */
+        void writeTo(final Writer writer) throws IOException;
+    }
+
+    /**
+     * Keeps the channel open when the {@link Writer} is closed, so that it can still be forced
+     */
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+
+        private UnclosableOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.liquorice.config.storage.file;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that counts how many bytes the characters written to it take up once encoded as UTF-8
+ *
+ * <p>
+ * NOTE: Unpaired surrogates are counted as if they were paired, i.e. as 2 bytes each
+ */
+public final class CountingWriter extends FilterWriter {
+
+    private long byteCount;
+
+    /**
+     * CTOR
+     *
+     * @param writer
+     *            the {@link Writer} to write to
+     */
+    public CountingWriter(final Writer writer) {
+        super(requireNonNull(writer, "Writer cannot be null"));
+    }
+
+    /**
+     * @return the number of bytes written so far, encoded as UTF-8
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int c) throws IOException {
+        out.write(c);
+        byteCount += encodedLength((char) c);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        out.write(cbuf, off, len);
+        for (int i = off; i < off + len; i++) {
+            byteCount += encodedLength(cbuf[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        out.write(str, off, len);
+        for (int i = off; i < off + len; i++) {
+            byteCount += encodedLength(str.charAt(i));
+        }
+    }
+
+    private static int encodedLength(final char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            // A surrogate pair encodes to 4 bytes, split evenly between its halves
+            return 2;
+        }
+        return 3;
+    }
+}
@@ -0,0 +1,279 @@
+package io.liquorice.config.storage.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches files for changes, on a single background thread shared by every watched file
+ *
+ * <p>
+ * {@link WatchService}s watch directories, so each directory containing a watched file is registered once and its
+ * events are routed to the watches of the affected file. Bursts of events, e.g. an editor truncating and then writing a
+ * file, are debounced: a watch fires once its file has been quiet for the debounce period. Watches fire on a separate,
+ * shared thread, so a slow callback never delays the watching itself.
+ *
+ * <p>
+ * A directory that stops being watched, e.g. because it was deleted, is registered again if it still exists. Otherwise
+ * its watches stop firing, the failure is passed to the watcher thread's {@link Thread.UncaughtExceptionHandler}, and
+ * files registered in the directory later are watched afresh.
+ */
+public final class FileWatcher {
+
+    private static final FileWatcher INSTANCE = new FileWatcher();
+
+    private final Map<Path, WatchedDirectory> directories;
+    private final Map<WatchKey, WatchedDirectory> directoriesByKey;
+
+    private WatchService watchService;
+    private ScheduledExecutorService scheduler;
+
+    private FileWatcher() {
+        this.directories = new HashMap<>();
+        this.directoriesByKey = new HashMap<>();
+    }
+
+    /**
+     * @return the shared {@link FileWatcher}
+     */
+    public static FileWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Call $onChange whenever the file at $path is created, modified or deleted
+     *
+     * <p>
+     * $onChange is called on a background thread, at most once at a time per registration. Exceptions it throws are
+     * passed to the thread's {@link Thread.UncaughtExceptionHandler}.
+     *
+     * @param path
+     *            the file to watch. Its parent directory must exist.
+     * @param debounce
+     *            how long the file must remain unchanged before $onChange is called
+     * @param onChange
+     *            the callback
+     * @return a {@link Registration} that can be closed to stop watching
+     * @throws UncheckedIOException
+     *             if the parent directory of $path could not be watched
+     */
+    public synchronized Registration register(final Path path, final Duration debounce, final Runnable onChange) {
+        requireNonNull(path, "Path cannot be null");
+        requireNonNull(debounce, "Debounce cannot be null");
+        requireNonNull(onChange, "Callback cannot be null");
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            throw new IllegalArgumentException("Only files on the default file system can be watched");
+        }
+
+        final Path file = path.toAbsolutePath().normalize();
+        final Path directory = requireNonNull(file.getParent(), "Path must have a parent directory");
+
+        try {
+            start();
+            WatchedDirectory watchedDirectory = directories.get(directory);
+            if (watchedDirectory == null) {
+                final WatchKey watchKey = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirectory = new WatchedDirectory(directory, watchKey);
+                directories.put(directory, watchedDirectory);
+                directoriesByKey.put(watchKey, watchedDirectory);
+            }
+
+            final Watch watch = new Watch(file, debounce, onChange);
+            watchedDirectory.watches.add(watch);
+            return watch;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "liquorice-config-file-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final Thread watcherThread = new Thread(this::watch, "liquorice-config-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    private void watch() {
+        while (true) {
+            final WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (final InterruptedException e) {
+                return;
+            }
+
+            final List<Watch> triggered = new ArrayList<>();
+            for (final WatchEvent<?> event : watchKey.pollEvents()) {
+                collectWatches(watchKey, event, triggered);
+            }
+            if (!watchKey.reset()) {
+                reregister(watchKey, triggered);
+            }
+
+            for (final Watch watch : triggered) {
+                watch.schedule();
+            }
+        }
+    }
+
+    private synchronized void collectWatches(final WatchKey watchKey, final WatchEvent<?> event,
+            final List<Watch> triggered) {
+        final WatchedDirectory watchedDirectory = directoriesByKey.get(watchKey);
+        if (watchedDirectory == null) {
+            return;
+        }
+
+        for (final Watch watch : watchedDirectory.watches) {
+            // Overflowed events are lost, so every file in the directory may have changed
+            if (event.kind() == OVERFLOW || watch.file.getFileName().equals(event.context())) {
+                triggered.add(watch);
+            }
+        }
+    }
+
+    // A key stops being valid once its directory is deleted or can no longer be watched, and then never signals again
+    private synchronized void reregister(final WatchKey watchKey, final List<Watch> triggered) {
+        final WatchedDirectory watchedDirectory = directoriesByKey.remove(watchKey);
+        if (watchedDirectory == null) {
+            return;
+        }
+        directories.remove(watchedDirectory.directory);
+
+        // Changes while the directory was not watched are lost, so every file in the directory may have changed
+        triggered.addAll(watchedDirectory.watches);
+
+        final WatchKey newWatchKey;
+        try {
+            newWatchKey = watchedDirectory.directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (final IOException e) {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread,
+                    new UncheckedIOException("Stopped watching " + watchedDirectory.directory, e));
+            return;
+        }
+
+        final WatchedDirectory rewatchedDirectory = new WatchedDirectory(watchedDirectory.directory, newWatchKey);
+        rewatchedDirectory.watches.addAll(watchedDirectory.watches);
+        directories.put(rewatchedDirectory.directory, rewatchedDirectory);
+        directoriesByKey.put(newWatchKey, rewatchedDirectory);
+    }
+
+    private synchronized void unregister(final Watch watch) {
+        final WatchedDirectory watchedDirectory = directories.get(watch.file.getParent());
+        if (watchedDirectory == null || !watchedDirectory.watches.remove(watch)) {
+            return;
+        }
+
+        if (watchedDirectory.watches.isEmpty()) {
+            watchedDirectory.watchKey.cancel();
+            directories.remove(watchedDirectory.directory);
+            directoriesByKey.remove(watchedDirectory.watchKey);
+        }
+    }
+
+    /**
+     * A handle to a watched file
+     */
+    public interface Registration extends AutoCloseable {
+
+        /**
+         * Stop watching the file
+         */
+        @Override
+        void close();
+    }
+
+    private static final class WatchedDirectory {
+        private final Path directory;
+        private final WatchKey watchKey;
+        private final List<Watch> watches;
+
+        private WatchedDirectory(final Path directory, final WatchKey watchKey) {
+            this.directory = directory;
+            this.watchKey = watchKey;
+            this.watches = new ArrayList<>();
+        }
+    }
+
+    private final class Watch implements Registration {
+        private final Path file;
+        private final Duration debounce;
+        private final Runnable onChange;
+
+        private ScheduledFuture<?> pending;
+        private boolean closed;
+
+        private Watch(final Path file, final Duration debounce, final Runnable onChange) {
+            this.file = file;
+            this.debounce = debounce;
+            this.onChange = onChange;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+            }
+            unregister(this);
+        }
+
+        private synchronized void schedule() {
+            if (closed) {
+                return;
+            }
+
+            // Every event restarts the quiet period
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            pending = scheduler.schedule(this::fire, debounce.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private void fire() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+
+            try {
+                onChange.run();
+            } catch (final RuntimeException e) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+}
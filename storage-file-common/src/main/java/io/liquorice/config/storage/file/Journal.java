@@ -0,0 +1,239 @@
+package io.liquorice.config.storage.file;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of changes to a file, so that a change costs a write proportional to its own size rather than a
+ * rewrite of the whole file
+ *
+ * <p>
+ * Every changed key is appended as one record: its length and CRC32, then a sequence number, the type of change
+ * (set or remove), the key and, for a set, the value. Values are strings in whatever encoding the owner stores, e.g.
+ * JSON text. A record torn by a crash fails its length or checksum, and is discarded on {@link #replay(BiConsumer)}
+ * along with anything after it.
+ *
+ * <p>
+ * The owner periodically writes its full contents to the base file, and then drops the records they include with
+ * {@link #truncateBefore(long)}. Replaying a record over a base file that already includes it is harmless, so a crash
+ * between the two steps loses nothing.
+ */
+public final class Journal implements AutoCloseable {
+
+    private static final byte SET = 'S';
+    private static final byte REMOVE = 'R';
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path path;
+    private final AtomicFileWriter.SyncPolicy syncPolicy;
+
+    private FileChannel channel;
+    private long sequence;
+
+    /**
+     * CTOR
+     *
+     * <p>
+     * The journal is created if it does not exist. Call {@link #replay(BiConsumer)} before appending to it.
+     *
+     * @param path
+     *            the journal file
+     * @param syncPolicy
+     *            whether to force each append to the storage device before it returns
+     * @throws IOException
+     *             if the journal could not be opened
+     */
+    public Journal(final Path path, final AtomicFileWriter.SyncPolicy syncPolicy) throws IOException {
+        this.path = requireNonNull(path, "Path cannot be null").toAbsolutePath().normalize();
+        this.syncPolicy = requireNonNull(syncPolicy, "Sync policy cannot be null");
+        requireNonNull(this.path.getParent(), "Path must have a parent directory");
+        this.channel = open(this.path);
+    }
+
+    /**
+     * Pass every change recorded in the journal to $consumer, oldest first
+     *
+     * <p>
+     * Anything after the last complete record, i.e. the remains of a write interrupted by a crash, is removed.
+     *
+     * @param consumer
+     *            accepts each changed key and its new value, or null if it was removed
+     * @throws IOException
+     *             if the journal could not be read
+     */
+    public synchronized void replay(final BiConsumer<String, String> consumer) throws IOException {
+        requireNonNull(consumer, "Consumer cannot be null");
+
+        long validSize = 0;
+        channel.position(0);
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        try {
+            while (true) {
+                final int length = input.readInt();
+                final int checksum = input.readInt();
+                if (length < 0 || length > channel.size() - validSize - HEADER_SIZE) {
+                    break;
+                }
+
+                final byte[] body = new byte[length];
+                input.readFully(body);
+                if (checksum(body) != checksum || !apply(body, consumer)) {
+                    break;
+                }
+                validSize += HEADER_SIZE + length;
+            }
+        } catch (final EOFException e) {
+            // The last record is incomplete
+        }
+
+        if (validSize < channel.size()) {
+            channel.truncate(validSize);
+        }
+        channel.position(validSize);
+    }
+
+    /**
+     * Append a record of every change in $changes
+     *
+     * @param changes
+     *            each changed key and its new value, or null if it was removed
+     * @throws IOException
+     *             if the journal could not be written
+     */
+    public synchronized void append(final Map<String, String> changes) throws IOException {
+        requireNonNull(changes, "Changes cannot be null");
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(records);
+        long nextSequence = sequence;
+        for (final Map.Entry<String, String> change : changes.entrySet()) {
+            final byte[] body = encode(++nextSequence, change.getKey(), change.getValue());
+            output.writeInt(body.length);
+            output.writeInt(checksum(body));
+            output.write(body);
+        }
+
+        // A single write, so that the records of one change reach the journal together
+        final ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncPolicy != AtomicFileWriter.SyncPolicy.NONE) {
+            channel.force(false);
+        }
+        sequence = nextSequence;
+    }
+
+    /**
+     * @return the size of the journal in bytes, which is also the offset of the next record
+     * @throws IOException
+     *             if the size could not be determined
+     */
+    public synchronized long size() throws IOException {
+        return channel.position();
+    }
+
+    /**
+     * Drop every record before $offset, once the base file includes them
+     *
+     * @param offset
+     *            a size previously returned by {@link #size()}
+     * @throws IOException
+     *             if the journal could not be rewritten
+     */
+    public synchronized void truncateBefore(final long offset) throws IOException {
+        final long size = channel.position();
+        if (offset < 0 || offset > size) {
+            throw new IllegalArgumentException(String.format("Offset %d is outside the journal", offset));
+        }
+
+        // Copy the records appended since $offset to a new journal, and rename it into place
+        final Path tempFile = Files.createTempFile(path.getParent(), "." + path.getFileName(), ".tmp");
+        try {
+            try (final FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                long position = offset;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, tempChannel);
+                }
+                tempChannel.force(false);
+            }
+            Files.move(tempFile, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        channel.close();
+        channel = open(path);
+        channel.position(channel.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static FileChannel open(final Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private boolean apply(final byte[] body, final BiConsumer<String, String> consumer) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+        final long recordSequence = input.readLong();
+        final byte type = input.readByte();
+        final String key = input.readUTF();
+
+        // Sequence numbers only ever increase, so anything else is not a record of this journal
+        if (recordSequence <= sequence || (type != SET && type != REMOVE)) {
+            return false;
+        }
+
+        final String value = type == SET ? new String(input.readAllBytes(), StandardCharsets.UTF_8) : null;
+        consumer.accept(key, value);
+        sequence = recordSequence;
+        return true;
+    }
+
+    private static byte[] encode(final long sequence, final String key, final String value) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(body);
+        output.writeLong(sequence);
+        output.writeByte(value == null ? REMOVE : SET);
+        output.writeUTF(key);
+        if (value != null) {
+            output.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return body.toByteArray();
+    }
+
+    private static int checksum(final byte[] body) {
+        final CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,369 @@
+package io.liquorice.config.storage.file;
+
+import static io.liquorice.config.storage.file.KeyTables.slotFor;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An index of where the value of each top-level key of a JSON object lies in a file, so that values can be read and
+ * decoded one at a time
+ *
+ * <p>
+ * The file is scanned once, only tracking strings and nesting, so that scanning is much cheaper than parsing and the
+ * index only holds the keys and their byte ranges. Values are not validated until they are read. Keys with a null
+ * value are treated as missing, and a key that appears more than once keeps its last value.
+ *
+ * <p>
+ * NOTE: The file must be encoded as UTF-8, and must not be modified while the index is in use
+ */
+public final class JsonOffsetIndex {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_CAPACITY = 16;
+
+    // Marks a key whose last value was null
+    private static final int NO_VALUE = -1;
+
+    private final String[] keys;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    private JsonOffsetIndex(final String[] keys, final long[] offsets, final int[] lengths) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Scan the JSON object in $fileChannel, from the start of the file
+     *
+     * @param fileChannel
+     *            the {@link FileChannel} to scan. Its position is left unchanged.
+     * @return the index
+     * @throws IOException
+     *             if the file could not be read, or does not hold a JSON object
+     */
+    public static JsonOffsetIndex scan(final FileChannel fileChannel) throws IOException {
+        requireNonNull(fileChannel, "FileChannel cannot be null");
+
+        final Scanner scanner = new Scanner();
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = 0;
+        int read;
+        while ((read = fileChannel.read(buffer.clear(), position)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                scanner.accept(buffer.get(i), position + i);
+            }
+            position += read;
+        }
+        return scanner.finish();
+    }
+
+    /**
+     * @param key
+     *            the key
+     * @return true if $key has a value
+     */
+    public boolean containsKey(final String key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return every key with a value
+     */
+    public Set<String> keys() {
+        final Set<String> keySet = new HashSet<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && lengths[slot] != NO_VALUE) {
+                keySet.add(keys[slot]);
+            }
+        }
+        return Collections.unmodifiableSet(keySet);
+    }
+
+    /**
+     * Read the value of $key from $fileChannel
+     *
+     * @param fileChannel
+     *            the {@link FileChannel} that was scanned. Its position is left unchanged.
+     * @param key
+     *            the key
+     * @return the value as UTF-8 encoded JSON, or null if $key has no value
+     * @throws IOException
+     *             if the value could not be read
+     */
+    public byte[] read(final FileChannel fileChannel, final String key) throws IOException {
+        final int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(lengths[slot]);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, offsets[slot] + buffer.position()) < 0) {
+                throw new IOException(String.format("File was truncated while reading '%s'", key));
+            }
+        }
+        return buffer.array();
+    }
+
+    private int find(final String key) {
+        final int slot = slotFor(keys, key);
+        return slot >= 0 && lengths[slot] != NO_VALUE ? slot : -1;
+    }
+
+    /**
+     * Finds the top-level keys and values one byte at a time, across buffer boundaries
+     */
+    private static final class Scanner {
+
+        private enum State {
+            START, KEY_OR_END, KEY, COLON, VALUE, STRING_VALUE, NESTED_VALUE, SCALAR_VALUE, AFTER_VALUE, DONE
+        }
+
+        private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+        private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+        private State state = State.START;
+        private boolean escaped;
+        private boolean inString;
+        private int depth;
+        private boolean maybeNull;
+        private String key;
+        private long valueOffset;
+
+        private String[] keys = new String[MIN_CAPACITY];
+        private long[] offsets = new long[MIN_CAPACITY];
+        private int[] lengths = new int[MIN_CAPACITY];
+        private int count;
+
+        private void accept(final byte b, final long position) throws IOException {
+            switch (state) {
+                case START:
+                    // Also skips a byte order mark
+                    if (b == '{') {
+                        state = State.KEY_OR_END;
+                    } else if (!isWhitespace(b) && (position > 2 || b >= 0)) {
+                        throw new IOException("Not a JSON object");
+                    }
+                    break;
+                case KEY_OR_END:
+                    if (b == '"') {
+                        keyBytes.reset();
+                        state = State.KEY;
+                    } else if (b == '}') {
+                        state = State.DONE;
+                    } else if (!isWhitespace(b)) {
+                        throw malformed(position);
+                    }
+                    break;
+                case KEY:
+                    if (endsString(b)) {
+                        key = decodeKey(keyBytes.toByteArray());
+                        state = State.COLON;
+                    } else {
+                        keyBytes.write(b);
+                    }
+                    break;
+                case COLON:
+                    if (b == ':') {
+                        state = State.VALUE;
+                    } else if (!isWhitespace(b)) {
+                        throw malformed(position);
+                    }
+                    break;
+                case VALUE:
+                    if (isWhitespace(b)) {
+                        break;
+                    }
+                    valueOffset = position;
+                    if (b == '"') {
+                        state = State.STRING_VALUE;
+                    } else if (b == '{' || b == '[') {
+                        depth = 1;
+                        state = State.NESTED_VALUE;
+                    } else if (b == ',' || b == '}') {
+                        throw malformed(position);
+                    } else {
+                        maybeNull = b == NULL[0];
+                        state = State.SCALAR_VALUE;
+                    }
+                    break;
+                case STRING_VALUE:
+                    if (endsString(b)) {
+                        put(position + 1);
+                        state = State.AFTER_VALUE;
+                    }
+                    break;
+                case NESTED_VALUE:
+                    if (inString) {
+                        inString = !endsString(b);
+                    } else if (b == '"') {
+                        inString = true;
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if ((b == '}' || b == ']') && --depth == 0) {
+                        put(position + 1);
+                        state = State.AFTER_VALUE;
+                    }
+                    break;
+                case SCALAR_VALUE:
+                    if (isWhitespace(b) || b == ',' || b == '}') {
+                        if (maybeNull && position - valueOffset == NULL.length) {
+                            putNull();
+                        } else {
+                            put(position);
+                        }
+                        state = State.AFTER_VALUE;
+                        accept(b, position);
+                    } else {
+                        final long index = position - valueOffset;
+                        maybeNull &= index < NULL.length && b == NULL[(int) index];
+                    }
+                    break;
+                case AFTER_VALUE:
+                    if (b == ',') {
+                        state = State.KEY_OR_END;
+                    } else if (b == '}') {
+                        state = State.DONE;
+                    } else if (!isWhitespace(b)) {
+                        throw malformed(position);
+                    }
+                    break;
+                default:
+                    // Anything after the object is ignored, as when parsing it
+                    break;
+            }
+        }
+
+        private JsonOffsetIndex finish() throws IOException {
+            if (state == State.START) {
+                throw new IOException("Not a JSON object");
+            } else if (state != State.DONE) {
+                throw new IOException("Truncated JSON object");
+            }
+            return new JsonOffsetIndex(keys, offsets, lengths);
+        }
+
+        private boolean endsString(final byte b) {
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else {
+                return b == '"';
+            }
+            return false;
+        }
+
+        private void put(final long end) throws IOException {
+            if (end - valueOffset > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Value of '%s' is too large", key));
+            }
+            put((int) (end - valueOffset));
+        }
+
+        private void putNull() {
+            put(NO_VALUE);
+        }
+
+        private void put(final int length) {
+            if (count * 2 >= keys.length) {
+                grow();
+            }
+
+            int slot = slotFor(keys, key);
+            if (slot < 0) {
+                slot = -slot - 1;
+                keys[slot] = key;
+                count++;
+            }
+            offsets[slot] = valueOffset;
+            lengths[slot] = length;
+        }
+
+        private void grow() {
+            final String[] previousKeys = keys;
+            final long[] previousOffsets = offsets;
+            final int[] previousLengths = lengths;
+            keys = new String[previousKeys.length * 2];
+            offsets = new long[keys.length];
+            lengths = new int[keys.length];
+            for (int i = 0; i < previousKeys.length; i++) {
+                if (previousKeys[i] != null) {
+                    final int slot = -slotFor(keys, previousKeys[i]) - 1;
+                    keys[slot] = previousKeys[i];
+                    offsets[slot] = previousOffsets[i];
+                    lengths[slot] = previousLengths[i];
+                }
+            }
+        }
+
+        private static String decodeKey(final byte[] bytes) throws IOException {
+            final String raw = new String(bytes, StandardCharsets.UTF_8);
+            if (raw.indexOf('\\') < 0) {
+                return raw;
+            }
+
+            final StringBuilder key = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                final char c = raw.charAt(i);
+                if (c != '\\') {
+                    key.append(c);
+                    continue;
+                }
+
+                final char escape = raw.charAt(++i);
+                switch (escape) {
+                    case 'b':
+                        key.append('\b');
+                        break;
+                    case 'f':
+                        key.append('\f');
+                        break;
+                    case 'n':
+                        key.append('\n');
+                        break;
+                    case 'r':
+                        key.append('\r');
+                        break;
+                    case 't':
+                        key.append('\t');
+                        break;
+                    case 'u':
+                        if (i + 4 >= raw.length()) {
+                            throw new IOException(String.format("Malformed key '%s'", raw));
+                        }
+                        try {
+                            key.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                        } catch (final NumberFormatException e) {
+                            throw new IOException(String.format("Malformed key '%s'", raw), e);
+                        }
+                        i += 4;
+                        break;
+                    default:
+                        // i.e. '"', '\\' and '/'
+                        key.append(escape);
+                        break;
+                }
+            }
+            return key.toString();
+        }
+
+        private static boolean isWhitespace(final byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private static IOException malformed(final long position) {
+            return new IOException(String.format("Malformed JSON object at byte %d", position));
+        }
+    }
+}
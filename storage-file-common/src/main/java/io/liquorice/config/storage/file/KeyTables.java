@@ -0,0 +1,38 @@
+package io.liquorice.config.storage.file;
+
+/**
+ * Finds keys in the open-addressing tables behind the file indexes, where each key is stored in a {@link String}
+ * array, at the first free slot probed linearly from its hash
+ *
+ * <p>
+ * The values are kept by the caller, in arrays parallel to the keys. The length of a table must be a power of two, and
+ * the table must always have a free slot, so that a probe for a missing key ends.
+ */
+public final class KeyTables {
+
+    private KeyTables() {
+        // Utility class
+    }
+
+    /**
+     * Find the slot of $key in $keys
+     *
+     * @param keys
+     *            the table of keys, whose length is a power of two and which is never full
+     * @param key
+     *            the key
+     * @return the slot holding $key, or -(the slot where it would be inserted) - 1 if it is absent
+     */
+    public static int slotFor(final String[] keys, final String key) {
+        final int mask = keys.length - 1;
+        final int h = key.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+}
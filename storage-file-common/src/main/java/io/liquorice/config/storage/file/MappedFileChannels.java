@@ -0,0 +1,118 @@
+package io.liquorice.config.storage.file;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the contents of a {@link FileChannel} by mapping them into memory, rather than copying them through the small
+ * buffers of {@link java.nio.channels.Channels#newReader}
+ *
+ * <p>
+ * NOTE: The contents are read from the current position of the {@link FileChannel} to its end, without changing its
+ * position, and must not be truncated while they are read. The mapping is only released once it has been garbage
+ * collected, which on some platforms keeps the file from being deleted or replaced until then.
+ */
+public final class MappedFileChannels {
+
+    private MappedFileChannels() {
+        // Utility class
+    }
+
+    /**
+     * Map the contents of $fileChannel for reading
+     *
+     * @param fileChannel
+     *            the {@link FileChannel}
+     * @return a read-only {@link ByteBuffer} of the contents
+     * @throws IOException
+     *             if the contents could not be mapped, or are larger than 2GB
+     */
+    public static ByteBuffer map(final FileChannel fileChannel) throws IOException {
+        requireNonNull(fileChannel, "FileChannel cannot be null");
+
+        final long position = fileChannel.position();
+        final long size = fileChannel.size() - position;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Cannot map %d bytes", size));
+        }
+        return fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * Open an {@link InputStream} reading the bytes of $fileChannel straight from memory
+     *
+     * @param fileChannel
+     *            the {@link FileChannel}
+     * @return the {@link InputStream}
+     * @throws IOException
+     *             if the contents could not be mapped
+     */
+    public static InputStream newInputStream(final FileChannel fileChannel) throws IOException {
+        return new ByteBufferInputStream(map(fileChannel));
+    }
+
+    /**
+     * Open a {@link Reader} of the contents of $fileChannel, decoded as UTF-8 as they are read
+     *
+     * <p>
+     * The bytes are decoded from memory through the small buffer of an {@link InputStreamReader}, so the heap used
+     * does not grow with the size of the file. Contents that are not valid UTF-8 fail the read that reaches them.
+     *
+     * @param fileChannel
+     *            the {@link FileChannel}
+     * @return the {@link Reader}
+     * @throws IOException
+     *             if the contents could not be mapped
+     */
+    public static Reader newReader(final FileChannel fileChannel) throws IOException {
+        return new InputStreamReader(newInputStream(fileChannel), StandardCharsets.UTF_8.newDecoder());
+    }
+
+    /**
+     * An {@link InputStream} reading from a {@link ByteBuffer}
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int read = Math.min(len, buffer.remaining());
+            buffer.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.liquorice.config.storage.file;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists a file on a background thread, coalescing every change made within an interval into a single write
+ *
+ * <p>
+ * The owner calls {@link #markDirty()} after each in-memory change. The first change after a write schedules the next
+ * one, $interval later, and every change made in the meantime is carried by that same write. The write always
+ * persists the latest contents, so nothing is lost by coalescing.
+ *
+ * <p>
+ * A failed background write is passed to the thread's {@link Thread.UncaughtExceptionHandler}, and the contents stay
+ * dirty. The write is retried after the next change, and on {@link #flush()} or {@link #close()}, which throw if it
+ * fails again.
+ */
+public final class WriteBehind implements AutoCloseable {
+
+    private final Duration interval;
+    private final Runnable write;
+    private final Object writeLock;
+
+    private boolean dirty;
+    private boolean closed;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * CTOR
+     *
+     * @param interval
+     *            how long to wait after a change before writing, to coalesce the changes that follow it
+     * @param write
+     *            writes the current contents. Must be safe to call from any thread.
+     */
+    public WriteBehind(final Duration interval, final Runnable write) {
+        requireNonNull(interval, "Interval cannot be null");
+        if (interval.isNegative()) {
+            throw new IllegalArgumentException("Interval cannot be negative");
+        }
+        this.interval = interval;
+        this.write = requireNonNull(write, "Write cannot be null");
+        this.writeLock = new Object();
+    }
+
+    /**
+     * Signal that the contents have changed, scheduling a write if none is pending
+     *
+     * @throws IllegalStateException
+     *             if this {@link WriteBehind} has been closed
+     */
+    public synchronized void markDirty() {
+        if (closed) {
+            throw new IllegalStateException("Write-behind has been closed");
+        }
+
+        dirty = true;
+        if (pending == null) {
+            pending = Scheduler.INSTANCE.schedule(this::flushInBackground, interval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Write the contents now, if they have changed since the last successful write
+     *
+     * @throws RuntimeException
+     *             whatever the write throws, e.g. an {@link java.io.UncheckedIOException}
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                // Cleared before writing, so that a change made during the write is written again
+                dirty = false;
+            }
+
+            try {
+                write.run();
+            } catch (final RuntimeException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Write any outstanding changes, and stop writing in the background
+     *
+     * @throws RuntimeException
+     *             whatever the final write throws
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+        flush();
+    }
+
+    private void flushInBackground() {
+        synchronized (this) {
+            pending = null;
+        }
+
+        try {
+            flush();
+        } catch (final RuntimeException e) {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * A single daemon thread shared by every {@link WriteBehind}, started on first use
+     */
+    private static final class Scheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "liquorice-config-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AtomicFileWriterTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws Exception {
+        directory = Files.createTempDirectory("liquorice-config");
+        file = directory.resolve("written.properties");
+        Files.write(file, List.of("key=a much longer original value"));
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        try (final Stream<Path> files = Files.list(directory)) {
+            for (final Path path : files.collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testContentsAreReplacedInFull() throws Exception {
+        new AtomicFileWriter(file, AtomicFileWriter.SyncPolicy.DATA_AND_DIRECTORY).write(writer -> {
+            writer.write("key=short\n");
+            writer.close();
+        });
+
+        assertEquals(List.of("key=short"), Files.readAllLines(file));
+        assertEquals(List.of(file), listDirectory());
+    }
+
+    @Test
+    void testFailedWriteLeavesFileUntouched() throws Exception {
+        final AtomicFileWriter atomicFileWriter = new AtomicFileWriter(file, AtomicFileWriter.SyncPolicy.NONE);
+
+        assertThrows(IOException.class, () -> atomicFileWriter.write(writer -> {
+            writer.write("key=partial");
+            throw new IOException("serialization failed");
+        }));
+
+        assertEquals(List.of("key=a much longer original value"), Files.readAllLines(file));
+        assertEquals(List.of(file), listDirectory());
+    }
+
+    private List<Path> listDirectory() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
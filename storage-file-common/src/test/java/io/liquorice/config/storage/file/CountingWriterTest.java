@@ -0,0 +1,27 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CountingWriterTest {
+
+    @Test
+    void testCountsUtf8EncodedBytes() throws Exception {
+        // One, two, three and four byte characters, the last as a surrogate pair
+        final String text = "a\u00e9\u20ac\ud83d\ude00";
+        final StringWriter stringWriter = new StringWriter();
+
+        try (final CountingWriter countingWriter = new CountingWriter(stringWriter)) {
+            countingWriter.write(text.charAt(0));
+            countingWriter.write(text.toCharArray(), 1, 2);
+            countingWriter.write(text, 3, 2);
+
+            assertEquals(text, stringWriter.toString());
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, countingWriter.getByteCount());
+        }
+    }
+}
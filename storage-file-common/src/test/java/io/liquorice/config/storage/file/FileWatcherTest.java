@@ -0,0 +1,93 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FileWatcherTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws Exception {
+        directory = Files.createTempDirectory("liquorice-config");
+        file = directory.resolve("watched.properties");
+        Files.write(file, List.of("key=0"));
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        Files.deleteIfExists(file);
+        Files.delete(directory);
+    }
+
+    @Test
+    @SuppressWarnings("try") // The registration is only held for the scope of the try
+    void testBurstOfChangesIsDebounced() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch called = new CountDownLatch(1);
+
+        try (final FileWatcher.Registration ignored = FileWatcher.getInstance().register(file,
+                Duration.ofMillis(500), () -> {
+                    calls.incrementAndGet();
+                    called.countDown();
+                })) {
+            for (int i = 1; i <= 5; i++) {
+                Files.write(file, List.of("key=" + i));
+            }
+
+            assertTrue(called.await(30, TimeUnit.SECONDS));
+            Thread.sleep(1000);
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try") // The registration is only held for the scope of the try
+    void testOtherFilesInDirectoryAreIgnored() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final Path otherFile = directory.resolve("other.properties");
+
+        try (final FileWatcher.Registration ignored = FileWatcher.getInstance().register(file,
+                Duration.ofMillis(10), calls::incrementAndGet)) {
+            Files.write(otherFile, List.of("key=1"));
+            Thread.sleep(1000);
+            assertEquals(0, calls.get());
+        } finally {
+            Files.deleteIfExists(otherFile);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try") // The registrations are only held for the scope of the try
+    void testDirectoryIsWatchedAgainAfterBeingRecreated() throws Exception {
+        final CountDownLatch deleted = new CountDownLatch(1);
+        final CountDownLatch changed = new CountDownLatch(1);
+
+        try (final FileWatcher.Registration ignored = FileWatcher.getInstance().register(file,
+                Duration.ofMillis(10), deleted::countDown)) {
+            Files.delete(file);
+            Files.delete(directory);
+            assertTrue(deleted.await(30, TimeUnit.SECONDS));
+
+            Files.createDirectory(directory);
+            try (final FileWatcher.Registration ignoredAgain = FileWatcher.getInstance().register(file,
+                    Duration.ofMillis(10), changed::countDown)) {
+                Files.write(file, List.of("key=1"));
+                assertTrue(changed.await(30, TimeUnit.SECONDS));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JournalTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws Exception {
+        directory = Files.createTempDirectory("liquorice-config");
+        file = directory.resolve("config.properties.journal");
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        try (final Stream<Path> files = Files.list(directory)) {
+            for (final Path path : files.collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testAppendedChangesAreReplayedInOrder() throws Exception {
+        try (final Journal journal = new Journal(file, AtomicFileWriter.SyncPolicy.NONE)) {
+            journal.replay((key, value) -> {
+            });
+            journal.append(changes("first", "1", "second", "2"));
+            journal.append(changes("first", null));
+        }
+
+        final Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("first", null);
+        expected.put("second", "2");
+        assertEquals(expected, replay());
+    }
+
+    @Test
+    void testTornRecordIsDiscarded() throws Exception {
+        try (final Journal journal = new Journal(file, AtomicFileWriter.SyncPolicy.NONE)) {
+            journal.replay((key, value) -> {
+            });
+            journal.append(changes("first", "1"));
+            journal.append(changes("second", "2"));
+        }
+
+        // Cut the last record short, as a crash during its write would
+        final long size = Files.size(file);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 1);
+        }
+
+        assertEquals(changes("first", "1"), replay());
+        try (final Journal journal = new Journal(file, AtomicFileWriter.SyncPolicy.NONE)) {
+            journal.replay((key, value) -> {
+            });
+            journal.append(changes("third", "3"));
+        }
+        assertEquals(changes("first", "1", "third", "3"), replay());
+    }
+
+    @Test
+    void testTruncateBeforeKeepsLaterRecords() throws Exception {
+        try (final Journal journal = new Journal(file, AtomicFileWriter.SyncPolicy.DATA)) {
+            journal.replay((key, value) -> {
+            });
+            journal.append(changes("first", "1"));
+            final long offset = journal.size();
+            journal.append(changes("second", "2"));
+
+            journal.truncateBefore(offset);
+            journal.append(changes("third", "3"));
+        }
+
+        assertEquals(changes("second", "2", "third", "3"), replay());
+    }
+
+    private Map<String, String> replay() throws IOException {
+        final Map<String, String> replayed = new LinkedHashMap<>();
+        try (final Journal journal = new Journal(file, AtomicFileWriter.SyncPolicy.NONE)) {
+            journal.replay(replayed::put);
+        }
+        return replayed;
+    }
+
+    private static Map<String, String> changes(final String... keysAndValues) {
+        final Map<String, String> changes = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            changes.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return changes;
+    }
+}
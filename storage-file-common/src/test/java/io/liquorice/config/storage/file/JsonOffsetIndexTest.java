@@ -0,0 +1,104 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JsonOffsetIndexTest {
+
+    private Path file;
+    private FileChannel fileChannel;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.createTempFile("liquorice-config", ".json");
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    void testValuesAreReadAsWritten() throws Exception {
+        final JsonOffsetIndex index = scan("\uFEFF{ \"int\" : 42 ,\"string\":\"a \\\"}\\\" b\",\n"
+                + "\"nested\":{\"x\":[1,{\"y\":\"]\"}]},\"bool\":true}");
+
+        assertEquals(Set.of("int", "string", "nested", "bool"), index.keys());
+        assertEquals("42", read(index, "int"));
+        assertEquals("\"a \\\"}\\\" b\"", read(index, "string"));
+        assertEquals("{\"x\":[1,{\"y\":\"]\"}]}", read(index, "nested"));
+        assertEquals("true", read(index, "bool"));
+    }
+
+    @Test
+    void testEscapedKeysAreDecoded() throws Exception {
+        final JsonOffsetIndex index = scan("{\"a\\u00e9\\n\\\"b\":1,\"\u00e9t\u00e9\":2}");
+
+        assertEquals("1", read(index, "a\u00e9\n\"b"));
+        assertEquals("2", read(index, "\u00e9t\u00e9"));
+    }
+
+    @Test
+    void testNullValuesAreMissingAndDuplicateKeysKeepTheirLastValue() throws Exception {
+        final JsonOffsetIndex index = scan(
+                "{\"a\":1,\"a\":null,\"b\":null,\"b\":\"x\",\"c\":nullable,\"d\":2,\"d\":3}");
+
+        assertFalse(index.containsKey("a"));
+        assertNull(index.read(fileChannel, "a"));
+        assertEquals("\"x\"", read(index, "b"));
+        assertEquals("nullable", read(index, "c"));
+        assertEquals("3", read(index, "d"));
+        assertEquals(Set.of("b", "c", "d"), index.keys());
+    }
+
+    @Test
+    void testManyKeysAcrossBuffers() throws Exception {
+        final StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 10_000; i++) {
+            json.append(i == 0 ? "" : ",").append("\"key").append(i).append("\":\"value ").append(i).append('"');
+        }
+        final JsonOffsetIndex index = scan(json.append('}').toString());
+
+        assertEquals(10_000, index.keys().size());
+        assertEquals("\"value 0\"", read(index, "key0"));
+        assertEquals("\"value 9999\"", read(index, "key9999"));
+    }
+
+    @Test
+    void testNonObjectIsRejected() {
+        assertThrows(IOException.class, () -> scan("[1,2]"));
+        assertThrows(IOException.class, () -> scan(""));
+        assertThrows(IOException.class, () -> scan("{\"a\":1"));
+        assertThrows(IOException.class, () -> scan("{\"a\" 1}"));
+    }
+
+    private JsonOffsetIndex scan(final String json) throws IOException {
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        return JsonOffsetIndex.scan(fileChannel);
+    }
+
+    private String read(final JsonOffsetIndex index, final String key) throws IOException {
+        return new String(index.read(fileChannel, key), StandardCharsets.UTF_8);
+    }
+}
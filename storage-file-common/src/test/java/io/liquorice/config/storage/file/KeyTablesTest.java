@@ -0,0 +1,28 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class KeyTablesTest {
+
+    @Test
+    void testInsertsAndFindsCollidingKeys() {
+        // "Aa" and "BB" share a hash, so the second is probed past the first
+        final String[] keys = new String[8];
+        for (final String key : new String[] { "Aa", "BB", "other" }) {
+            final int slot = KeyTables.slotFor(keys, key);
+            assertTrue(slot < 0, key);
+            assertNull(keys[-slot - 1]);
+            keys[-slot - 1] = key;
+        }
+
+        assertEquals("Aa", keys[KeyTables.slotFor(keys, "Aa")]);
+        assertEquals("BB", keys[KeyTables.slotFor(keys, "BB")]);
+        assertEquals("other", keys[KeyTables.slotFor(keys, "other")]);
+        assertEquals((KeyTables.slotFor(keys, "Aa") + 1) & 7, KeyTables.slotFor(keys, "BB"));
+        assertTrue(KeyTables.slotFor(keys, "missing") < 0);
+    }
+}
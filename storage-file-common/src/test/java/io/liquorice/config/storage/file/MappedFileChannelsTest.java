@@ -0,0 +1,67 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedFileChannelsTest {
+
+    private Path file;
+    private FileChannel fileChannel;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.createTempFile("liquorice-config", ".txt");
+        Files.write(file, "key=\u00e9t\u00e9\n".getBytes(StandardCharsets.UTF_8));
+        fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        fileChannel.close();
+        Files.delete(file);
+    }
+
+    @Test
+    void testReaderDecodesUtf8() throws Exception {
+        try (final Reader reader = MappedFileChannels.newReader(fileChannel)) {
+            final StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            assertEquals("key=\u00e9t\u00e9\n", writer.toString());
+        }
+    }
+
+    @Test
+    void testInputStreamReadsFromTheCurrentPosition() throws Exception {
+        fileChannel.position(4);
+
+        try (final InputStream inputStream = MappedFileChannels.newInputStream(fileChannel)) {
+            assertArrayEquals("\u00e9t\u00e9\n".getBytes(StandardCharsets.UTF_8), inputStream.readAllBytes());
+            assertEquals(-1, inputStream.read());
+        }
+        assertEquals(4, fileChannel.position());
+    }
+
+    @Test
+    void testMalformedUtf8IsRejected() throws Exception {
+        Files.write(file, new byte[] { 'k', '=', (byte) 0xC3 });
+
+        try (final Reader reader = MappedFileChannels.newReader(fileChannel)) {
+            assertThrows(IOException.class, () -> reader.transferTo(new StringWriter()));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.liquorice.config.storage.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class WriteBehindTest {
+
+    @Test
+    void testBurstOfChangesIsWrittenOnce() throws Exception {
+        final AtomicInteger writes = new AtomicInteger();
+        final CountDownLatch written = new CountDownLatch(1);
+
+        final WriteBehind writeBehind = new WriteBehind(Duration.ofMillis(200), () -> {
+            writes.incrementAndGet();
+            written.countDown();
+        });
+        for (int i = 0; i < 100; i++) {
+            writeBehind.markDirty();
+        }
+
+        assertTrue(written.await(30, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        assertEquals(1, writes.get());
+
+        writeBehind.close();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void testFlushWritesOnlyWhenDirty() {
+        final AtomicInteger writes = new AtomicInteger();
+        final WriteBehind writeBehind = new WriteBehind(Duration.ofHours(1), writes::incrementAndGet);
+
+        writeBehind.flush();
+        assertEquals(0, writes.get());
+
+        writeBehind.markDirty();
+        writeBehind.markDirty();
+        writeBehind.flush();
+        writeBehind.flush();
+        assertEquals(1, writes.get());
+
+        writeBehind.close();
+        assertEquals(1, writes.get());
+        assertThrows(IllegalStateException.class, writeBehind::markDirty);
+    }
+
+    @Test
+    void testFailedWriteIsRetriedAndSurfaced() {
+        final UncheckedIOException failure = new UncheckedIOException(new IOException("disk full"));
+        final AtomicInteger attempts = new AtomicInteger();
+        final WriteBehind writeBehind = new WriteBehind(Duration.ofHours(1), () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw failure;
+            }
+        });
+
+        writeBehind.markDirty();
+        assertSame(failure, assertThrows(UncheckedIOException.class, writeBehind::flush));
+
+        writeBehind.close();
+        assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,381 @@
+package io.liquorice.config.storage.file.json.gson;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.json.gson.GsonConfigFormatter;
+import io.liquorice.config.storage.file.JsonOffsetIndex;
+
+/**
+ * A Google/Gson-backed implementation of a {@link ConfigSpace} that only parses the values that are read, where
+ * the contained items are unmodifiable after creation
+ *
+ * <p>
+ * Building the space only scans the file for the byte range of each top-level value, using a
+ * {@link JsonOffsetIndex}. The first read of a key reads its range from the {@link FileChannel} and parses it into a
+ * {@link JsonElement}, which is kept for later reads, so the time and memory used grow with the keys actually read
+ * rather than with the size of the file. Elements are then read as by {@link ReadableGsonFileConfigSpace}.
+ *
+ * <p>
+ * NOTE: The {@link FileChannel} must stay open, and the file unchanged, for as long as the space is used. A malformed
+ * value is only detected when its key is first read, and is then parsed no more. It is read as missing by the getters
+ * taking a default, and fails the required getters with a {@link ConfigurationException}.
+ */
+public class LazyGsonFileConfigSpace extends AbstractConfigSpace {
+
+    private static final GsonBuilder DEFAULT_GSON_BUILDER = new GsonBuilder();
+
+    private final FileChannel fileChannel;
+    private final Gson gson;
+    private final JsonOffsetIndex index;
+    // Each parsed element, or the exception that failed to parse it
+    private final ConcurrentMap<String, Object> elements;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            A {@link LazyGsonFileConfigSpace} to shallow copy
+     */
+    protected LazyGsonFileConfigSpace(final LazyGsonFileConfigSpace configSpace) {
+        super(configSpace);
+        this.fileChannel = configSpace.fileChannel;
+        this.gson = configSpace.gson;
+        this.index = configSpace.index;
+        this.elements = configSpace.elements;
+    }
+
+    private LazyGsonFileConfigSpace(final Builder builder) throws IOException {
+        super(builder.configFormatter, builder.decodedObjectCacheSize);
+        this.fileChannel = builder.fileChannel;
+        this.gson = builder.gsonBuilder.create();
+        this.index = JsonOffsetIndex.scan(fileChannel);
+        this.elements = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isBooleanPrimitive(value) ? ((JsonPrimitive) value).getAsBoolean()
+                : getObjectRequired(key, Boolean.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsDouble() : getObjectRequired(key, Double.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsInt() : getObjectRequired(key, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsLong() : getObjectRequired(key, Long.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        try {
+            return decode(key, requireNonNull(value), clazz);
+        } catch (final Exception e) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return getObjectRequired(key, String.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return index.containsKey(requireNonEmpty(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return index.keys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: A value that could not be read or parsed is returned as missing
+     */
+    @Override
+    protected Object lookup(final String key) {
+        final Object parsed = parse(key);
+        return parsed instanceof Exception ? null : parsed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return isBooleanPrimitive(value) ? ((JsonPrimitive) value).getAsBoolean()
+                : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsDouble() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsInt() : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsLong() : super.asLong(value, defaultValue);
+    }
+
+    private static boolean isBooleanPrimitive(final Object value) {
+        return value instanceof JsonPrimitive && ((JsonPrimitive) value).isBoolean();
+    }
+
+    private static boolean isNumberPrimitive(final Object value) {
+        // Gson itself narrows numeric primitives through the same JsonPrimitive accessors
+        return value instanceof JsonPrimitive && ((JsonPrimitive) value).isNumber();
+    }
+
+    private Object lookupRequired(final String key) throws ConfigurationException {
+        final Object parsed = parse(requireNonEmpty(key));
+        if (parsed instanceof Exception) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), (Exception) parsed);
+        }
+        return parsed;
+    }
+
+    private Object parse(final String key) {
+        final Object parsed = elements.get(key);
+        if (parsed != null || !index.containsKey(key)) {
+            return parsed;
+        }
+        // Parsed at most once, even when first read by several threads at a time, so a failure is also remembered
+        return elements.computeIfAbsent(key, this::readElement);
+    }
+
+    private Object readElement(final String key) {
+        try {
+            return new JsonParser().parse(gson.newJsonReader(new InputStreamReader(
+                    new ByteArrayInputStream(index.read(fileChannel, key)), StandardCharsets.UTF_8)));
+        } catch (final IOException | RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * A {@link ConfigSnapshot} of a {@link LazyGsonFileConfigSpace}, which is never modified and so shares its
+     * parsed values
+     */
+    private static final class Snapshot extends LazyGsonFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final LazyGsonFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        private ConfigFormatter configFormatter;
+        private int decodedObjectCacheSize;
+        private FileChannel fileChannel;
+        private GsonBuilder gsonBuilder;
+        private Map<Type, Object> typeAdapters;
+
+        /**
+         * CTOR
+         */
+        public Builder() {
+            this.gsonBuilder = DEFAULT_GSON_BUILDER;
+            this.configFormatter = new GsonConfigFormatter.Builder().build();
+            this.typeAdapters = new HashMap<>();
+        }
+
+        /**
+         * Overwrite the default {@link ConfigFormatter} with a custom one
+         *
+         * @param configFormatter
+         *            the {@link ConfigFormatter}
+         * @return this
+         */
+        public Builder withConfigFormatter(final ConfigFormatter configFormatter) {
+            this.configFormatter = configFormatter;
+            return this;
+        }
+
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the parsed value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.decodedObjectCacheSize = decodedObjectCacheSize;
+            return this;
+        }
+
+        /**
+         * Set the {@link FileChannel} to read from, which must hold UTF-8 encoded JSON
+         *
+         * @param fileChannel
+         *            the {@link FileChannel}
+         * @return this
+         */
+        public Builder withFileChannel(final FileChannel fileChannel) {
+            this.fileChannel = fileChannel;
+            return this;
+        }
+
+        /**
+         * Overwrite the default {@link GsonBuilder} with a custom one
+         *
+         * @param gsonBuilder
+         *            the {@link GsonBuilder}
+         * @return this
+         */
+        public Builder withGsonBuilder(final GsonBuilder gsonBuilder) {
+            this.gsonBuilder = gsonBuilder;
+            return this;
+        }
+
+        /**
+         * Register a {@link com.google.gson.TypeAdapter} with the underlying {@link GsonBuilder}
+         *
+         * @param type
+         *            the {@link Type}
+         * @param typeAdapter
+         *            the type adapter
+         * @return this
+         */
+        public Builder withTypeAdapter(final Type type, final Object typeAdapter) {
+            this.typeAdapters.put(type, typeAdapter);
+            return this;
+        }
+
+        /**
+         * Register multiple {@link com.google.gson.TypeAdapter}s with the underlying {@link GsonBuilder}
+         *
+         * @param typeAdapters
+         *            the type adapters
+         * @return this
+         */
+        public Builder withTypeAdapters(final Map<Type, Object> typeAdapters) {
+            this.typeAdapters.putAll(typeAdapters);
+            return this;
+        }
+
+        /**
+         * Build
+         *
+         * @return a new {@link LazyGsonFileConfigSpace} built to specification
+         * @throws ConfigurationException
+         *             if there was a problem building
+         */
+        public LazyGsonFileConfigSpace build() throws ConfigurationException {
+            requireNonNull(configFormatter);
+            requireNonNull(fileChannel);
+            requireNonNull(gsonBuilder);
+
+            for (final Map.Entry<Type, Object> entry : typeAdapters.entrySet()) {
+                gsonBuilder.registerTypeAdapter(requireNonNull(entry.getKey()), requireNonNull(entry.getValue()));
+            }
+
+            try {
+                return new LazyGsonFileConfigSpace(this);
+            } catch (final IOException e) {
+                throw new ConfigurationException(String.format("Error building %s",
+                        LazyGsonFileConfigSpace.class.getSimpleName()), e);
+            }
+        }
+    }
+}
@@ -3,13 +3,20 @@ package io.liquorice.config.storage.file.json.gson;
 import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.google.gson.Gson;
@@ -17,28 +24,55 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 
+import io.liquorice.config.api.event.ConfigReloadEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
 import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
 import io.liquorice.config.api.storage.ConfigSpace;
 import io.liquorice.config.exception.ConfigurationException;
 import io.liquorice.config.formatter.json.gson.GsonConfigFormatter;
+import io.liquorice.config.storage.file.FileWatcher;
+import io.liquorice.config.storage.file.MappedFileChannels;
 
 /**
  * A Google/Gson-backed backed implementation of a {@link ConfigSpace} where the contained items are unmodifiable after
  * creation
+ *
+ * <p>
+ * Boolean and numeric primitives are read directly from their {@link JsonPrimitive}, without going through the
+ * {@link ConfigFormatter}. Elements of any other type fall back to the {@link ConfigFormatter}.
+ *
+ * <p>
+ * The backing store is never modified once published. Updates by extending classes replace it as a whole, so reads
+ * are lock-free and a {@link ConfigSnapshot} only needs to hold on to the current store.
+ *
+ * <p>
+ * When built with {@link Builder#withReloadOnChange(Path)}, the file is parsed again on a background thread whenever
+ * it changes, and the new contents are published in a single step. Readers never wait for a reload.
+ *
+ * <p>
+ * When built with {@link Builder#withMemoryMappedLoading()}, the file is mapped into memory and decoded as it is
+ * parsed, rather than read through the {@link FileChannel}. This only saves the copy of each read into a buffer: Gson
+ * still parses chars, so every byte is decoded, and the whole file is still parsed into a tree.
  */
-public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
+public class ReadableGsonFileConfigSpace extends AbstractConfigSpace implements AutoCloseable {
 
     private static final Function<FileChannel, Reader> DEFAULT_FILE_CHANNEL_READER_FUNCTION = internalFileChannel -> Channels
             .newReader(requireNonNull(internalFileChannel), StandardCharsets.UTF_8.name());
 
     private static final GsonBuilder DEFAULT_GSON_BUILDER = new GsonBuilder();
 
+    private static final Duration DEFAULT_RELOAD_DEBOUNCE = Duration.ofMillis(100);
+
     private final FileChannel fileChannel;
     private final Function<FileChannel, Reader> fileChannelReaderFunction;
+    private final boolean memoryMapped;
+    private final Path reloadPath;
+    private final FileWatcher.Registration reloadRegistration;
     private final Gson gson;
-    private final JsonObject rootObject;
+    private volatile JsonObject rootObject;
 
     /**
      * CTOR
@@ -48,20 +82,29 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      *
      */
     protected ReadableGsonFileConfigSpace(final ReadableGsonFileConfigSpace configSpace) {
-        super(configSpace.getConfigFormatter());
+        super(configSpace);
         this.fileChannel = configSpace.fileChannel;
         this.fileChannelReaderFunction = configSpace.fileChannelReaderFunction;
+        this.memoryMapped = configSpace.memoryMapped;
         this.gson = configSpace.gson;
         this.rootObject = configSpace.rootObject;
+
+        // Copies never reload on their own
+        this.reloadPath = null;
+        this.reloadRegistration = null;
     }
 
-    private ReadableGsonFileConfigSpace(final Builder builder) {
-        super(builder.configFormatter);
+    private ReadableGsonFileConfigSpace(final Builder builder) throws IOException {
+        super(builder.configFormatter, builder.decodedObjectCacheSize);
         this.fileChannel = builder.fileChannel;
         this.fileChannelReaderFunction = builder.fileChannelReaderFunction;
+        this.memoryMapped = builder.memoryMapped;
         this.gson = builder.gsonBuilder.create();
-        this.rootObject = new JsonParser().parse(gson.newJsonReader(fileChannelReaderFunction.apply(fileChannel)))
-                .getAsJsonObject();
+        this.rootObject = new JsonParser().parse(gson.newJsonReader(newReader(fileChannel))).getAsJsonObject();
+
+        this.reloadPath = builder.reloadPath;
+        this.reloadRegistration = reloadPath == null ? null
+                : FileWatcher.getInstance().register(reloadPath, builder.reloadDebounce, this::reload);
     }
 
     /**
@@ -69,7 +112,9 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public boolean getBooleanRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Boolean.class);
+        final Object value = lookup(key);
+        return isBooleanPrimitive(value) ? ((JsonPrimitive) value).getAsBoolean()
+                : getObjectRequired(key, Boolean.class);
     }
 
     /**
@@ -77,7 +122,8 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public double getDoubleRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Double.class);
+        final Object value = lookup(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsDouble() : getObjectRequired(key, Double.class);
     }
 
     /**
@@ -85,7 +131,8 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public int getIntRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Integer.class);
+        final Object value = lookup(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsInt() : getObjectRequired(key, Integer.class);
     }
 
     /**
@@ -93,7 +140,8 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public long getLongRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Long.class);
+        final Object value = lookup(key);
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsLong() : getObjectRequired(key, Long.class);
     }
 
     /**
@@ -102,7 +150,7 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
     @Override
     public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
         try {
-            return getConfigFormatter().read(getNonNullable(key), clazz).get();
+            return decode(key, getNonNullable(key), clazz);
         } catch (final Exception e) {
             throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
         }
@@ -124,6 +172,73 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
         return rootObject.has(requireNonEmpty(key));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(rootObject.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Stop reloading the contents of this {@link ReadableGsonFileConfigSpace}, if it was built to reload
+     */
+    @Override
+    public void close() {
+        if (reloadRegistration != null) {
+            reloadRegistration.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object lookup(final String key) {
+        return rootObject.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return isBooleanPrimitive(value) ? ((JsonPrimitive) value).getAsBoolean()
+                : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsDouble() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsInt() : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return isNumberPrimitive(value) ? ((JsonPrimitive) value).getAsLong() : super.asLong(value, defaultValue);
+    }
+
     /**
      * Get a reference to the {@link Gson} storing all of the contained properties
      *
@@ -140,7 +255,8 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
      * Get a reference to the {@link JsonObject} storing all of the contained properties
      *
      * <p>
-     * NOTE: This is the actual backing store, not a copy. This method should only be used by extending classes
+     * NOTE: This is the current backing store, not a copy. It must not be modified, and may be replaced at any time by
+     * {@link #replaceBackingJsonObject(JsonObject)}
      *
      * @return the backing store
      */
@@ -148,20 +264,109 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
         return rootObject;
     }
 
+    /**
+     * Publish $jsonObject as the new backing store, replacing the current one in a single step
+     *
+     * <p>
+     * NOTE: This method should only be used by extending classes, which must serialize their updates, must not modify
+     * $jsonObject afterwards and must call {@link #markModified(String)} once it has been published
+     *
+     * @param jsonObject
+     *            the new backing store
+     */
+    protected void replaceBackingJsonObject(final JsonObject jsonObject) {
+        this.rootObject = requireNonNull(jsonObject);
+    }
+
+    private static boolean isBooleanPrimitive(final Object value) {
+        return value instanceof JsonPrimitive && ((JsonPrimitive) value).isBoolean();
+    }
+
+    private static boolean isNumberPrimitive(final Object value) {
+        // Gson itself narrows numeric primitives through the same JsonPrimitive accessors
+        return value instanceof JsonPrimitive && ((JsonPrimitive) value).isNumber();
+    }
+
     private JsonElement getNonNullable(final String key) {
         final JsonElement value = getBackingJsonObject().get(requireNonEmpty(key));
         requireNonNull(value);
         return value;
     }
 
+    private Reader newReader(final FileChannel channel) throws IOException {
+        return memoryMapped ? MappedFileChannels.newReader(channel) : fileChannelReaderFunction.apply(channel);
+    }
+
+    private void reload() {
+        final ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
+        final JsonObject reloadedObject;
+        try (final FileChannel reloadChannel = FileChannel.open(reloadPath, StandardOpenOption.READ)) {
+            if (event.isEnabled()) {
+                event.setBytesRead(reloadChannel.size());
+            }
+            reloadedObject = new JsonParser().parse(gson.newJsonReader(newReader(reloadChannel))).getAsJsonObject();
+        } catch (final IOException | RuntimeException e) {
+            // Keep serving the previous contents, e.g. while the file is only partially written
+            throw new ConfigurationException(String.format("Failed to reload '%s'", reloadPath), e);
+        }
+
+        final Set<String> changedKeys;
+        synchronized (this) {
+            changedKeys = changedKeys(rootObject, reloadedObject);
+            if (!changedKeys.isEmpty()) {
+                rootObject = reloadedObject;
+                markModified(changedKeys);
+            }
+        }
+        event.complete(this, reloadPath, changedKeys.size());
+    }
+
+    private static Set<String> changedKeys(final JsonObject previousObject, final JsonObject currentObject) {
+        final Set<String> changedKeys = new HashSet<>();
+        for (final Map.Entry<String, JsonElement> entry : previousObject.entrySet()) {
+            if (!entry.getValue().equals(currentObject.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (final String key : currentObject.keySet()) {
+            if (!previousObject.has(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} holding on to the backing store at the time it was taken
+     */
+    private static final class Snapshot extends ReadableGsonFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final ReadableGsonFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
     /**
      * Builder
      */
     public static final class Builder {
 
         private ConfigFormatter configFormatter;
+        private int decodedObjectCacheSize;
         private FileChannel fileChannel;
         private Function<FileChannel, Reader> fileChannelReaderFunction;
+        private boolean memoryMapped;
+        private Path reloadPath;
+        private Duration reloadDebounce;
         private GsonBuilder gsonBuilder;
         private Map<Type, Object> typeAdapters;
 
@@ -187,6 +392,21 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the stored value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.decodedObjectCacheSize = decodedObjectCacheSize;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link ConfigFormatter} with a custom one
          *
@@ -199,6 +419,54 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Reload the contents whenever the file at $path changes
+         *
+         * <p>
+         * Changes are picked up by a {@link FileWatcher} and debounced by 100ms. A file that fails to parse is
+         * ignored until it changes again. Call {@link ReadableGsonFileConfigSpace#close()} to stop reloading.
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path) {
+            return withReloadOnChange(path, DEFAULT_RELOAD_DEBOUNCE);
+        }
+
+        /**
+         * Reload the contents whenever the file at $path changes, once it has been unchanged for $debounce
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @param debounce
+         *            how long the file must remain unchanged before it is reloaded
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path, final Duration debounce) {
+            this.reloadPath = path;
+            this.reloadDebounce = debounce;
+            return this;
+        }
+
+        /**
+         * Load the file by mapping it into memory and decoding it as it is parsed, rather than reading it through the
+         * {@link FileChannel}
+         *
+         * <p>
+         * This only avoids the read system calls and the copy of the file into a read buffer. Gson only parses chars,
+         * so every byte is still decoded into chars, through a small buffer, and the whole file is still parsed into a
+         * tree, which is where most of the loading time goes. Expect little gain, mostly for large files. The
+         * {@link FileChannel} to {@link Reader} {@link Function} is not used. Disabled by default.
+         *
+         * @return this
+         * @see MappedFileChannels
+         */
+        public Builder withMemoryMappedLoading() {
+            this.memoryMapped = true;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
          *
@@ -256,8 +524,10 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
          * Build
          *
          * @return a new {@link ReadableGsonFileConfigSpace} built to specification
+         * @throws ConfigurationException
+         *             if the file could not be mapped
          */
-        public ReadableGsonFileConfigSpace build() {
+        public ReadableGsonFileConfigSpace build() throws ConfigurationException {
             requireNonNull(configFormatter);
             requireNonNull(fileChannel);
             requireNonNull(fileChannelReaderFunction);
@@ -267,7 +537,12 @@ public class ReadableGsonFileConfigSpace extends AbstractConfigSpace {
                 gsonBuilder.registerTypeAdapter(requireNonNull(entry.getKey()), requireNonNull(entry.getValue()));
             }
 
-            return new ReadableGsonFileConfigSpace(this);
+            try {
+                return new ReadableGsonFileConfigSpace(this);
+            } catch (final IOException e) {
+                throw new ConfigurationException(String.format("Error building %s",
+                        ReadableGsonFileConfigSpace.class.getSimpleName()), e);
+            }
         }
     }
 }
@@ -11,16 +11,29 @@ import java.lang.reflect.Type;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 
+import io.liquorice.config.api.event.ConfigPersistEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
 import io.liquorice.config.api.storage.WritableConfigSpace;
 import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.storage.file.AtomicFileWriter;
+import io.liquorice.config.storage.file.CountingWriter;
+import io.liquorice.config.storage.file.Journal;
+import io.liquorice.config.storage.file.WriteBehind;
 
 /**
  * A Google/Gson-backed implementation of a {@link WritableConfigSpace} where the contained items can be modified
@@ -32,11 +45,82 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
 
     private final FileChannel fileChannel;
     private final Function<FileChannel, Writer> fileChannelWriterFunction;
+    private final AtomicFileWriter atomicFileWriter;
+    private final WriteBehind writeBehind;
+    private final Journal journal;
+    private final long journalCompactionThreshold;
+    private final AtomicFileWriter journalBaseWriter;
+    private final WriteBehind journalCompactor;
 
     private WritableGsonFileConfigSpace(final Builder builder) {
         super(builder.delegateBuilder.build());
         this.fileChannel = builder.fileChannel;
         this.fileChannelWriterFunction = builder.fileChannelWriterFunction;
+        this.atomicFileWriter = builder.atomicFileWriter;
+        this.writeBehind = builder.writeBehindInterval == null ? null
+                : new WriteBehind(builder.writeBehindInterval, this::updateOnDiskStore);
+
+        this.journalCompactionThreshold = builder.journalCompactionThreshold;
+        if (builder.journalPath == null) {
+            this.journal = null;
+            this.journalBaseWriter = null;
+            this.journalCompactor = null;
+        } else {
+            this.journal = openJournal(builder.journalPath, builder.journalSyncPolicy);
+            this.journalBaseWriter = new AtomicFileWriter(builder.journalPath, builder.journalSyncPolicy);
+            this.journalCompactor = new WriteBehind(Duration.ZERO, this::compactJournal);
+        }
+    }
+
+    /**
+     * Write any changes not yet persisted to disk, if built to write behind
+     *
+     * @throws UncheckedIOException
+     *             if the file could not be written
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Write any changes not yet persisted to disk, and stop reloading, if built to reload on change
+     *
+     * @throws UncheckedIOException
+     *             if the file could not be written
+     */
+    @Override
+    public void close() {
+        try {
+            if (writeBehind != null) {
+                writeBehind.close();
+            }
+            if (journal != null) {
+                journalCompactor.close();
+                journal.close();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final Batch batch = new Batch();
+        try {
+            changes.accept(batch);
+        } finally {
+            batch.closed = true;
+        }
+        update(batch.changes);
     }
 
     /**
@@ -45,11 +129,7 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
     public void remove(final String key) {
         requireNonEmpty(key);
 
-        // Remove the cached copy of the property
-        getBackingJsonObject().remove(key);
-
-        // Update the on-disk copy of the properties
-        updateOnDiskStore();
+        update(Collections.singletonMap(key, null));
     }
 
     /**
@@ -101,14 +181,7 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
         requireNonEmpty(key);
         requireNonNull(value, "Null value. Call ConfigSpace#remove instead.");
 
-        // Update the cached copy of the property
-        final JsonElement jsonElement = value instanceof JsonElement ? (JsonElement) value : getBackingGson()
-                .toJsonTree(value);
-
-        getBackingJsonObject().add(key, jsonElement);
-
-        // Update the on-disk copy of the property
-        updateOnDiskStore();
+        update(Collections.singletonMap(key, toJsonElement(value)));
     }
 
     /**
@@ -119,14 +192,182 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
         setObject(key, new JsonPrimitive(value));
     }
 
+    private JsonElement toJsonElement(final Object value) {
+        return value instanceof JsonElement ? (JsonElement) value : getBackingGson().toJsonTree(value);
+    }
+
+    private synchronized void update(final Map<String, JsonElement> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        apply(changes);
+
+        // Update the on-disk copy of the properties
+        if (journal != null) {
+            appendToJournal(changes);
+        } else if (writeBehind == null) {
+            updateOnDiskStore();
+        } else {
+            writeBehind.markDirty();
+        }
+    }
+
+    private void apply(final Map<String, JsonElement> changes) {
+        // Copy-on-write, so that readers and snapshots never observe an object while it is being modified
+        final JsonObject jsonObject = new JsonObject();
+        for (final Map.Entry<String, JsonElement> entry : getBackingJsonObject().entrySet()) {
+            jsonObject.add(entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<String, JsonElement> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                jsonObject.remove(change.getKey());
+            } else {
+                jsonObject.add(change.getKey(), change.getValue());
+            }
+        }
+
+        // Update the cached copy of the properties
+        replaceBackingJsonObject(jsonObject);
+        markModified(changes.keySet());
+    }
+
+    private Journal openJournal(final Path path, final AtomicFileWriter.SyncPolicy syncPolicy) {
+        try {
+            final Journal openedJournal = new Journal(path.resolveSibling(path.getFileName() + ".journal"), syncPolicy);
+            try {
+                final Map<String, String> records = new LinkedHashMap<>();
+                openedJournal.replay(records::put);
+
+                // Bring the contents read from the file up to date with the changes not yet folded into it
+                final Map<String, JsonElement> changes = new LinkedHashMap<>();
+                for (final Map.Entry<String, String> record : records.entrySet()) {
+                    changes.put(record.getKey(), record.getValue() == null ? null
+                            : new JsonParser().parse(record.getValue()));
+                }
+                if (!changes.isEmpty()) {
+                    apply(changes);
+                }
+                return openedJournal;
+            } catch (final IOException | RuntimeException e) {
+                openedJournal.close();
+                throw e;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendToJournal(final Map<String, JsonElement> changes) {
+        final Map<String, String> records = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<String, JsonElement> change : changes.entrySet()) {
+                records.put(change.getKey(), change.getValue() == null ? null
+                        : getBackingGson().toJson(change.getValue()));
+            }
+            journal.append(records);
+
+            if (journal.size() >= journalCompactionThreshold) {
+                journalCompactor.markDirty();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compactJournal() {
+        try {
+            // Every change is published before it is journaled, so the file written next includes every record so far
+            final long offset = journal.size();
+            journalBaseWriter.write(this::writeTo);
+            journal.truncateBefore(offset);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void updateOnDiskStore() {
+        final ConfigPersistEvent event = new ConfigPersistEvent();
+        event.begin();
         try {
-            try (final Writer writer = fileChannelWriterFunction.apply(fileChannel)) {
-                getBackingGson().toJson(getBackingJsonObject(), writer);
+            if (atomicFileWriter != null) {
+                atomicFileWriter.write(writer -> writeTo(writer, event));
+            } else {
+                try (final Writer writer = fileChannelWriterFunction.apply(fileChannel)) {
+                    writeTo(writer, event);
+                }
             }
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
+        event.complete(this, atomicFileWriter == null ? null : atomicFileWriter.getPath());
+    }
+
+    private void writeTo(final Writer writer, final ConfigPersistEvent event) throws IOException {
+        // Counting every character written is only worth it while the event is being recorded
+        if (!event.isEnabled()) {
+            writeTo(writer);
+            return;
+        }
+        final CountingWriter countingWriter = new CountingWriter(writer);
+        writeTo(countingWriter);
+        event.setBytesWritten(countingWriter.getByteCount());
+    }
+
+    private void writeTo(final Writer writer) throws IOException {
+        getBackingGson().toJson(getBackingJsonObject(), writer);
+    }
+
+    /**
+     * Stages changes for {@link #batch(Consumer)}, encoding them as {@link JsonElement}s up front
+     */
+    private final class Batch implements ConfigBatch {
+        private final Map<String, JsonElement> changes = new LinkedHashMap<>();
+        private boolean closed;
+
+        @Override
+        public void remove(final String key) {
+            stage(key, null);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            stage(key, new JsonPrimitive(value));
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            stage(key, new JsonPrimitive(value));
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            stage(key, new JsonPrimitive(value));
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            stage(key, new JsonPrimitive(value));
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            requireNonNull(value, "Null value. Call ConfigBatch#remove instead.");
+            stage(key, toJsonElement(value));
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            setObject(key, new JsonPrimitive(value));
+        }
+
+        private void stage(final String key, final JsonElement value) {
+            requireNonEmpty(key);
+            if (closed) {
+                throw new IllegalStateException("Batch has already been applied");
+            }
+            changes.put(key, value);
+        }
     }
 
     /**
@@ -137,6 +378,11 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
         private ReadableGsonFileConfigSpace.Builder delegateBuilder;
         private FileChannel fileChannel;
         private Function<FileChannel, Writer> fileChannelWriterFunction;
+        private AtomicFileWriter atomicFileWriter;
+        private Duration writeBehindInterval;
+        private Path journalPath;
+        private long journalCompactionThreshold;
+        private AtomicFileWriter.SyncPolicy journalSyncPolicy;
 
         /**
          * CTOR
@@ -158,6 +404,21 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
             return this;
         }
 
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the stored value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.delegateBuilder.withDecodedObjectCacheSize(decodedObjectCacheSize);
+            return this;
+        }
+
         /**
          * Overwrite the default {@link ConfigFormatter} with a custom one
          *
@@ -171,6 +432,21 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
             return this;
         }
 
+        /**
+         * Load the file by mapping it into memory
+         *
+         * <p>
+         * This only avoids the copy of the file into a read buffer: the bytes are still decoded into chars for Gson and
+         * the whole file is still parsed, so expect little gain. Disabled by default.
+         *
+         * @return this
+         * @see ReadableGsonFileConfigSpace.Builder#withMemoryMappedLoading()
+         */
+        public Builder withMemoryMappedLoading() {
+            this.delegateBuilder.withMemoryMappedLoading();
+            return this;
+        }
+
         /**
          * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
          *
@@ -239,6 +515,100 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
             return this;
         }
 
+        /**
+         * Persist changes by atomically replacing the file at $path, rather than by writing through the
+         * {@link FileChannel}
+         *
+         * <p>
+         * Each write goes to a temporary file next to $path, which is forced to the storage device and renamed over
+         * $path, so that neither readers nor a crash ever observe a partially written file. $path should be the file
+         * the {@link FileChannel} was opened on.
+         *
+         * @param path
+         *            the file to write
+         * @return this
+         */
+        public Builder withAtomicWrites(final Path path) {
+            return withAtomicWrites(path, AtomicFileWriter.SyncPolicy.DATA_AND_DIRECTORY);
+        }
+
+        /**
+         * Persist changes by atomically replacing the file at $path, forcing each write as far as $syncPolicy
+         *
+         * @param path
+         *            the file to write
+         * @param syncPolicy
+         *            the {@link AtomicFileWriter.SyncPolicy}
+         * @return this
+         * @see #withAtomicWrites(Path)
+         */
+        public Builder withAtomicWrites(final Path path, final AtomicFileWriter.SyncPolicy syncPolicy) {
+            this.atomicFileWriter = new AtomicFileWriter(path, syncPolicy);
+            return this;
+        }
+
+        /**
+         * Persist changes by appending them to a journal next to the file at $path, rather than by rewriting the file
+         *
+         * <p>
+         * Each write appends a compact record of every changed key to "$path.journal", so that it costs time
+         * proportional to the change rather than to the file. The journal is replayed over the file when this
+         * {@link WritableGsonFileConfigSpace} is built, and is folded back into the file on a background thread
+         * once it grows past $compactionThreshold bytes. $path should be the file the {@link FileChannel} was opened
+         * on.
+         *
+         * @param path
+         *            the file the journal belongs to
+         * @param compactionThreshold
+         *            the size of the journal, in bytes, above which it is folded into the file
+         * @return this
+         */
+        public Builder withJournal(final Path path, final long compactionThreshold) {
+            return withJournal(path, compactionThreshold, AtomicFileWriter.SyncPolicy.DATA);
+        }
+
+        /**
+         * Persist changes by appending them to a journal, forcing each append and compaction as far as $syncPolicy
+         *
+         * @param path
+         *            the file the journal belongs to
+         * @param compactionThreshold
+         *            the size of the journal, in bytes, above which it is folded into the file
+         * @param syncPolicy
+         *            the {@link AtomicFileWriter.SyncPolicy}
+         * @return this
+         * @see #withJournal(Path, long)
+         */
+        public Builder withJournal(final Path path, final long compactionThreshold,
+                final AtomicFileWriter.SyncPolicy syncPolicy) {
+            if (compactionThreshold <= 0) {
+                throw new IllegalArgumentException("Compaction threshold must be positive");
+            }
+            this.journalPath = requireNonNull(path, "Path cannot be null");
+            this.journalCompactionThreshold = compactionThreshold;
+            this.journalSyncPolicy = requireNonNull(syncPolicy, "Sync policy cannot be null");
+            return this;
+        }
+
+        /**
+         * Persist changes on a background thread, rather than on the writing thread
+         *
+         * <p>
+         * Writes update the in-memory contents immediately, and every change made within $interval of the first is
+         * persisted by a single write of the file. Failed writes are passed to the background thread's
+         * {@link Thread.UncaughtExceptionHandler} and retried, and are thrown by
+         * {@link WritableGsonFileConfigSpace#flush()} and {@link WritableGsonFileConfigSpace#close()}.
+         * Disabled by default.
+         *
+         * @param interval
+         *            how long to wait after a change before writing the file
+         * @return this
+         */
+        public Builder withWriteBehind(final Duration interval) {
+            this.writeBehindInterval = requireNonNull(interval, "Interval cannot be null");
+            return this;
+        }
+
         /**
          * Build
          *
@@ -247,6 +617,9 @@ public class WritableGsonFileConfigSpace extends ReadableGsonFileConfigSpace imp
         public WritableGsonFileConfigSpace build() {
             requireNonNull(fileChannel);
             requireNonNull(fileChannelWriterFunction);
+            if (journalPath != null && writeBehindInterval != null) {
+                throw new IllegalStateException("A journal cannot be combined with write-behind");
+            }
 
             return new WritableGsonFileConfigSpace(this);
         }
@@ -0,0 +1,139 @@
+package io.liquorice.config.storage.file.json.gson;
+
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_DOUBLE_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_LONG_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOES_NOT_EXIST_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.JSON_STRING;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.liquorice.config.exception.ConfigurationException;
+
+class LazyGsonFileConfigSpaceTest {
+
+    private Path file;
+    private FileChannel fileChannel;
+
+    private LazyGsonFileConfigSpace configSpace;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.createTempFile("liquorice-config", ".json");
+        configSpace = build(JSON_STRING);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        fileChannel.close();
+        Files.delete(file);
+    }
+
+    private LazyGsonFileConfigSpace build(final String json) throws Exception {
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+
+        return new LazyGsonFileConfigSpace.Builder() //
+                .withFileChannel(fileChannel) //
+                .build();
+    }
+
+    @Test
+    void testGettersReturnCorrectValues() {
+        assertEquals(BOOL_VALUE, configSpace.getBoolean(BOOL_KEY, DEFAULT_BOOL_VALUE));
+        assertEquals(DOUBLE_VALUE, configSpace.getDouble(DOUBLE_KEY, DEFAULT_DOUBLE_VALUE));
+        assertEquals(INT_VALUE, configSpace.getInt(INT_KEY, DEFAULT_INT_VALUE));
+        assertEquals(LONG_VALUE, configSpace.getLong(LONG_KEY, DEFAULT_LONG_VALUE));
+        assertEquals(STRING_VALUE, configSpace.getString(STRING_KEY, DEFAULT_STRING_VALUE));
+        assertEquals(COMPLEX_VALUE, configSpace.getObject(COMPLEX_KEY, DEFAULT_COMPLEX_VALUE, List.class));
+        assertEquals(Set.of(BOOL_KEY, DOUBLE_KEY, INT_KEY, LONG_KEY, STRING_KEY, COMPLEX_KEY), configSpace.keys());
+    }
+
+    @Test
+    void testGettersReturnDefaultValues() {
+        assertEquals(DEFAULT_BOOL_VALUE, configSpace.getBoolean(DOES_NOT_EXIST_KEY, DEFAULT_BOOL_VALUE));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(DOES_NOT_EXIST_KEY, DEFAULT_INT_VALUE));
+        assertEquals(DEFAULT_COMPLEX_VALUE, configSpace.getObject(DOES_NOT_EXIST_KEY, DEFAULT_COMPLEX_VALUE, List.class));
+        assertThrows(ConfigurationException.class, () -> configSpace.getStringRequired(DOES_NOT_EXIST_KEY));
+    }
+
+    @Test
+    void testPropertyOfWrongType() {
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(BOOL_KEY, DEFAULT_INT_VALUE));
+        assertThrows(ConfigurationException.class, () -> configSpace.getLongRequired(BOOL_KEY));
+        assertThrows(ConfigurationException.class, () -> configSpace.getObjectRequired(BOOL_KEY, List.class));
+    }
+
+    @Test
+    void testValuesAreParsedOnceOnFirstRead() throws Exception {
+        final LazyGsonFileConfigSpace lazy = build("{\"a\":\"first\",\"b\":\"first\"}");
+        assertEquals("first", lazy.getStringRequired("a"));
+
+        // Same length, so that only the value that has not been read yet moves
+        Files.write(file, "{\"a\":\"later\",\"b\":\"later\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("first", lazy.getStringRequired("a"));
+        assertEquals("later", lazy.getStringRequired("b"));
+    }
+
+    @Test
+    void testMalformedValueOnlyFailsItsOwnRead() throws Exception {
+        final LazyGsonFileConfigSpace lazy = build("{\"a\":{1},\"b\":{\"c\":[1,2]}}");
+
+        assertEquals(List.of(1.0, 2.0), lazy.getObjectRequired("b", Map.class).get("c"));
+        assertThrows(ConfigurationException.class, () -> lazy.getBooleanRequired("a"));
+    }
+
+    @Test
+    void testMalformedValueIsMissingWhenReadWithADefault() throws Exception {
+        final LazyGsonFileConfigSpace lazy = build("{\"bad\":[1,},\"ok\":2}");
+
+        assertEquals(-1, lazy.getInt("bad", -1));
+        assertEquals("default", lazy.getString("bad", "default"));
+        assertEquals(2, lazy.getInt("ok", -1));
+        assertThrows(ConfigurationException.class, () -> lazy.getIntRequired("bad"));
+
+        // Same length, so that only the malformed value changes, which has already failed and is not parsed again
+        Files.write(file, "{\"bad\":[12],\"ok\":2}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of(), lazy.getObject("bad", List.of(), List.class));
+        assertThrows(ConfigurationException.class, () -> lazy.getObjectRequired("bad", List.class));
+    }
+
+    @Test
+    void testNonObjectFailsToBuild() {
+        assertThrows(ConfigurationException.class, () -> build("[1,2]"));
+        assertThrows(ConfigurationException.class, () -> build("{\"a\":1"));
+    }
+}
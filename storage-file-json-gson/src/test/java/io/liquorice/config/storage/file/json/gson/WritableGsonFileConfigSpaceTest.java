@@ -21,6 +21,7 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_LONG_
 import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -31,6 +32,9 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Function;
 
@@ -56,6 +60,11 @@ class WritableGsonFileConfigSpaceTest {
 
     private static WritableGsonFileConfigSpace createConfigSpace(final OutputStream outputStream,
             final FileChannel fileChannel) {
+        return createBuilder(outputStream, fileChannel).build();
+    }
+
+    private static WritableGsonFileConfigSpace.Builder createBuilder(final OutputStream outputStream,
+            final FileChannel fileChannel) {
         // Initialize seed properties
         final InputStreamReader isr = new InputStreamReader(new ByteArrayInputStream(
                 JSON_STRING.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
@@ -71,8 +80,7 @@ class WritableGsonFileConfigSpaceTest {
                 .withFileChannel(fileChannel) //
                 .withFileChannelReaderFunction(fileChannelReaderFunction) //
                 .withFileChannelWriterFunction(fileChannelWriterFunction) //
-                .withGsonBuilder(GSON_BUILDER) //
-                .build();
+                .withGsonBuilder(GSON_BUILDER);
     }
 
     private static final GsonBuilder GSON_BUILDER = new GsonBuilder();
@@ -247,4 +255,104 @@ class WritableGsonFileConfigSpaceTest {
         assertEquals(STRING_VALUE, jsonObject.get(STRING_KEY).getAsString());
         assertEquals(COMPLEX_VALUE, gson.fromJson(jsonObject.get(COMPLEX_KEY), List.class));
     }
+
+    @Test
+    void testWriteBehindDefersWritesUntilFlushed() {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final WritableGsonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                .withWriteBehind(Duration.ofHours(1)) //
+                .build();
+
+        // Do the thing
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+
+        // Verify the cache properties were updated, but not yet the on disk properties
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(0, baos.size());
+
+        // Verify both updates are written at once. The writer is closed after the first write.
+        configSpace.close();
+        final Reader isr = new InputStreamReader(new ByteArrayInputStream(baos.toByteArray()), StandardCharsets.UTF_8);
+        final JsonObject jsonObject = new JsonParser().parse(gson.newJsonReader(isr)).getAsJsonObject();
+        assertEquals(UPDATED_INT_VALUE, jsonObject.get(INT_KEY).getAsInt());
+        assertEquals(UPDATED_STRING_VALUE, jsonObject.get(STRING_KEY).getAsString());
+    }
+
+    @Test
+    void testAtomicWritesReplaceTheFile() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".json");
+        Files.write(file, List.of("{\"stale\": \"a much longer value than any written by the update\"}"));
+
+        try {
+            final WritableGsonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withAtomicWrites(file) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+
+            // Verify the file was replaced rather than written through the channel
+            final JsonObject jsonObject = readFile(file);
+            assertEquals(0, baos.size());
+            assertFalse(jsonObject.has("stale"));
+            assertEquals(UPDATED_INT_VALUE, jsonObject.get(INT_KEY).getAsInt());
+            assertEquals(STRING_VALUE, jsonObject.get(STRING_KEY).getAsString());
+            assertEquals(COMPLEX_VALUE, gson.fromJson(jsonObject.get(COMPLEX_KEY), List.class));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testJournalIsReplayedAndCompacted() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".json");
+        final Path journal = file.resolveSibling(file.getFileName() + ".journal");
+
+        try {
+            final WritableGsonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, Long.MAX_VALUE) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+            configSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+            configSpace.close();
+
+            // Verify the changes were journaled rather than written, and are replayed by the next config space
+            assertEquals(0, baos.size());
+            assertEquals(0, Files.size(file));
+            assertTrue(Files.size(journal) > 0);
+
+            final WritableGsonFileConfigSpace replayed = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, 1) //
+                    .build();
+            assertEquals(UPDATED_INT_VALUE, replayed.getIntRequired(INT_KEY));
+            assertEquals(UPDATED_COMPLEX_VALUE, replayed.getObjectRequired(COMPLEX_KEY, List.class));
+
+            // Verify the journal is folded into the file once it passes the threshold
+            replayed.remove(STRING_KEY);
+            replayed.close();
+
+            final JsonObject jsonObject = readFile(file);
+            assertEquals(UPDATED_INT_VALUE, jsonObject.get(INT_KEY).getAsInt());
+            assertEquals(UPDATED_COMPLEX_VALUE, gson.fromJson(jsonObject.get(COMPLEX_KEY), List.class));
+            assertFalse(jsonObject.has(STRING_KEY));
+            assertEquals(0, Files.size(journal));
+        } finally {
+            Files.deleteIfExists(journal);
+            Files.delete(file);
+        }
+    }
+
+    private JsonObject readFile(final Path file) throws Exception {
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(gson.newJsonReader(reader)).getAsJsonObject();
+        }
+    }
 }
@@ -0,0 +1,281 @@
+package io.liquorice.config.storage.file.json.jackson;
+
+import static io.liquorice.config.storage.file.KeyTables.slotFor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A compact, immutable index of the top-level keys of a JSON object, built by streaming it rather than by reading it
+ * into a tree
+ *
+ * <p>
+ * The index is an open-addressing hash table of parallel arrays. Booleans, ints, longs and doubles are stored unboxed,
+ * and strings as {@link String}s. Any other value, i.e. an object, an array or a number that does not fit a long or a
+ * double, is copied as compact JSON into a single byte array and decoded on demand. Keys with a null value are treated
+ * as missing.
+ */
+final class JsonValueIndex {
+
+    static final byte BOOLEAN = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte STRING = 5;
+    static final byte RAW = 6;
+
+    // Kept rather than dropped, so that a null value hides an earlier value of the same key
+    private static final byte NULL = 0;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final String[] keys;
+    private final byte[] types;
+    // The value of a primitive, or the offset and length of a raw value
+    private final long[] bits;
+    private final String[] strings;
+    private final byte[] raw;
+    private final int size;
+
+    private JsonValueIndex(final Loader loader) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < loader.count * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.types = new byte[capacity];
+        this.bits = new long[capacity];
+        this.strings = new String[capacity];
+        this.raw = loader.raw.toByteArray();
+
+        int size = 0;
+        for (int i = 0; i < loader.count; i++) {
+            // A key that appears more than once keeps its last value, as when reading a tree
+            int slot = slotFor(keys, loader.keys[i]);
+            if (slot < 0) {
+                slot = -slot - 1;
+                keys[slot] = loader.keys[i];
+                size++;
+            }
+            types[slot] = loader.types[i];
+            bits[slot] = loader.bits[i];
+            strings[slot] = loader.strings[i];
+        }
+        this.size = size;
+    }
+
+    /**
+     * Stream the JSON object read by $parser into an index
+     *
+     * @param parser
+     *            a {@link JsonParser} positioned before the object
+     * @param generator
+     *            a {@link JsonGenerator} writing to $rawOutput, without a root value separator
+     * @param rawOutput
+     *            the stream written by $generator, which must be empty
+     * @return the index
+     * @throws IOException
+     *             if the JSON could not be read, or is not an object
+     */
+    static JsonValueIndex load(final JsonParser parser, final JsonGenerator generator,
+            final ByteArrayOutputStream rawOutput) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Not a JSON object");
+        }
+
+        final Loader loader = new Loader(rawOutput);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String key = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                loader.add(key, NULL, 0, null);
+            } else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+                loader.add(key, BOOLEAN, token == JsonToken.VALUE_TRUE ? 1 : 0, null);
+            } else if (token == JsonToken.VALUE_NUMBER_INT
+                    && parser.getNumberType() == JsonParser.NumberType.INT) {
+                loader.add(key, INT, parser.getIntValue(), null);
+            } else if (token == JsonToken.VALUE_NUMBER_INT
+                    && parser.getNumberType() == JsonParser.NumberType.LONG) {
+                loader.add(key, LONG, parser.getLongValue(), null);
+            } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                loader.add(key, DOUBLE, Double.doubleToRawLongBits(parser.getDoubleValue()), null);
+            } else if (token == JsonToken.VALUE_STRING) {
+                loader.add(key, STRING, 0, parser.getText());
+            } else {
+                final int offset = rawOutput.size();
+                generator.copyCurrentStructure(parser);
+                generator.flush();
+                loader.add(key, RAW, (long) offset << 32 | (rawOutput.size() - offset), null);
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Truncated JSON object");
+        }
+        return new JsonValueIndex(loader);
+    }
+
+    /**
+     * Find the slot holding the value of $key
+     *
+     * @param key
+     *            the key
+     * @return the slot, or a negative number if $key has no value
+     */
+    int find(final String key) {
+        final int slot = slotFor(keys, key);
+        return slot >= 0 && types[slot] != NULL ? slot : -1;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}
+     * @return the type of the value in $slot
+     */
+    byte type(final int slot) {
+        return types[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}, holding a {@link #BOOLEAN}
+     * @return the value
+     */
+    boolean booleanValue(final int slot) {
+        return bits[slot] != 0;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}, holding an {@link #INT} or a {@link #LONG}
+     * @return the value
+     */
+    long longValue(final int slot) {
+        return bits[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}, holding any numeric type
+     * @return the value, widened to a double
+     */
+    double doubleValue(final int slot) {
+        return types[slot] == DOUBLE ? Double.longBitsToDouble(bits[slot]) : bits[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}, holding a {@link #STRING}
+     * @return the value
+     */
+    String stringValue(final int slot) {
+        return strings[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(String)}, holding a {@link #RAW} value
+     * @return a new {@link InputStream} of the value as UTF-8 encoded JSON
+     */
+    InputStream rawValue(final int slot) {
+        return new ByteArrayInputStream(raw, (int) (bits[slot] >>> 32), (int) bits[slot]);
+    }
+
+    /**
+     * @return every key with a value
+     */
+    Set<String> keys() {
+        final Set<String> keySet = new HashSet<>(size * 4 / 3 + 1);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && types[slot] != NULL) {
+                keySet.add(keys[slot]);
+            }
+        }
+        return Collections.unmodifiableSet(keySet);
+    }
+
+    /**
+     * Find every key whose value differs between $previous and $current
+     *
+     * <p>
+     * NOTE: Raw values are compared as written, so an object whose keys were only reordered is considered changed
+     *
+     * @param previous
+     *            the index before a change
+     * @param current
+     *            the index after it
+     * @return the keys added, removed or modified
+     */
+    static Set<String> changedKeys(final JsonValueIndex previous, final JsonValueIndex current) {
+        final Set<String> changedKeys = new HashSet<>();
+        for (int slot = 0; slot < previous.keys.length; slot++) {
+            final String key = previous.keys[slot];
+            if (key != null && previous.types[slot] != NULL
+                    && !previous.valueEquals(slot, current, current.find(key))) {
+                changedKeys.add(key);
+            }
+        }
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            final String key = current.keys[slot];
+            if (key != null && current.types[slot] != NULL && previous.find(key) < 0) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
+    }
+
+    private boolean valueEquals(final int slot, final JsonValueIndex other, final int otherSlot) {
+        if (otherSlot < 0 || types[slot] != other.types[otherSlot]) {
+            return false;
+        } else if (types[slot] == STRING) {
+            return strings[slot].equals(other.strings[otherSlot]);
+        } else if (types[slot] != RAW) {
+            return bits[slot] == other.bits[otherSlot];
+        }
+
+        final int offset = (int) (bits[slot] >>> 32);
+        final int otherOffset = (int) (other.bits[otherSlot] >>> 32);
+        return Arrays.equals(raw, offset, offset + (int) bits[slot], other.raw, otherOffset,
+                otherOffset + (int) other.bits[otherSlot]);
+    }
+
+    /**
+     * Accumulates the values in the order they are read, before they are placed into the table
+     */
+    private static final class Loader {
+        private final ByteArrayOutputStream raw;
+        private String[] keys = new String[MIN_CAPACITY];
+        private byte[] types = new byte[MIN_CAPACITY];
+        private long[] bits = new long[MIN_CAPACITY];
+        private String[] strings = new String[MIN_CAPACITY];
+        private int count;
+
+        private Loader(final ByteArrayOutputStream raw) {
+            this.raw = raw;
+        }
+
+        private void add(final String key, final byte type, final long value, final String string) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                types = Arrays.copyOf(types, count * 2);
+                bits = Arrays.copyOf(bits, count * 2);
+                strings = Arrays.copyOf(strings, count * 2);
+            }
+            keys[count] = key;
+            types[count] = type;
+            bits[count] = value;
+            strings[count] = string;
+            count++;
+        }
+    }
+}
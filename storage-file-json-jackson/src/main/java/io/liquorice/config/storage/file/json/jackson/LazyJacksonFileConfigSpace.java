@@ -0,0 +1,378 @@
+package io.liquorice.config.storage.file.json.jackson;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.storage.file.JsonOffsetIndex;
+
+/**
+ * A FasterXML/jackson-backed implementation of a {@link ConfigSpace} that only parses the values that are read, where
+ * the contained items are unmodifiable after creation
+ *
+ * <p>
+ * Building the space only scans the file for the byte range of each top-level value, using a
+ * {@link JsonOffsetIndex}. The first read of a key reads its range from the {@link FileChannel} and parses it into a
+ * {@link JsonNode}, which is kept for later reads, so the time and memory used grow with the keys actually read rather
+ * than with the size of the file. Nodes are then read as by {@link ReadableJacksonFileConfigSpace}.
+ *
+ * <p>
+ * NOTE: The {@link FileChannel} must stay open, and the file unchanged, for as long as the space is used. A malformed
+ * value is only detected when its key is first read, and is then parsed no more. It is read as missing by the getters
+ * taking a default, and fails the required getters with a {@link ConfigurationException}.
+ */
+public class LazyJacksonFileConfigSpace extends AbstractConfigSpace {
+
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+    private final FileChannel fileChannel;
+    private final ObjectMapper objectMapper;
+    private final JsonOffsetIndex index;
+    // Each parsed node, or the exception that failed to parse it
+    private final ConcurrentMap<String, Object> nodes;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            A {@link LazyJacksonFileConfigSpace} to shallow copy
+     */
+    protected LazyJacksonFileConfigSpace(final LazyJacksonFileConfigSpace configSpace) {
+        super(configSpace);
+        this.fileChannel = configSpace.fileChannel;
+        this.objectMapper = configSpace.objectMapper;
+        this.index = configSpace.index;
+        this.nodes = configSpace.nodes;
+    }
+
+    private LazyJacksonFileConfigSpace(final Builder builder) throws IOException {
+        super(builder.configFormatter, builder.decodedObjectCacheSize);
+        this.fileChannel = builder.fileChannel;
+        this.objectMapper = builder.objectMapper;
+        this.index = JsonOffsetIndex.scan(fileChannel);
+        this.nodes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isBooleanNode(value) ? ((JsonNode) value).booleanValue() : getObjectRequired(key, Boolean.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isDoubleNode(value) ? ((JsonNode) value).doubleValue() : getObjectRequired(key, Double.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isIntNode(value) ? ((JsonNode) value).intValue() : getObjectRequired(key, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        return isLongNode(value) ? ((JsonNode) value).longValue() : getObjectRequired(key, Long.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final Object value = lookupRequired(key);
+        try {
+            return decode(key, requireNonNull(value), clazz);
+        } catch (final Exception e) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return getObjectRequired(key, String.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return index.containsKey(requireNonEmpty(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return index.keys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: A value that could not be read or parsed is returned as missing
+     */
+    @Override
+    protected Object lookup(final String key) {
+        final Object parsed = parse(key);
+        return parsed instanceof Exception ? null : parsed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return isBooleanNode(value) ? ((JsonNode) value).booleanValue() : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return isDoubleNode(value) ? ((JsonNode) value).doubleValue() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return isIntNode(value) ? ((JsonNode) value).intValue() : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return isLongNode(value) ? ((JsonNode) value).longValue() : super.asLong(value, defaultValue);
+    }
+
+    private static boolean isBooleanNode(final Object value) {
+        return value instanceof JsonNode && ((JsonNode) value).isBoolean();
+    }
+
+    private static boolean isDoubleNode(final Object value) {
+        // Any numeric node can be widened to a double without loss of meaning
+        return value instanceof JsonNode && ((JsonNode) value).isNumber();
+    }
+
+    private static boolean isIntNode(final Object value) {
+        return value instanceof JsonNode && ((JsonNode) value).isInt();
+    }
+
+    private static boolean isLongNode(final Object value) {
+        return value instanceof JsonNode && (((JsonNode) value).isInt() || ((JsonNode) value).isLong());
+    }
+
+    private Object lookupRequired(final String key) throws ConfigurationException {
+        final Object parsed = parse(requireNonEmpty(key));
+        if (parsed instanceof Exception) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), (Exception) parsed);
+        }
+        return parsed;
+    }
+
+    private Object parse(final String key) {
+        final Object parsed = nodes.get(key);
+        if (parsed != null || !index.containsKey(key)) {
+            return parsed;
+        }
+        // Parsed at most once, even when first read by several threads at a time, so a failure is also remembered
+        return nodes.computeIfAbsent(key, this::readNode);
+    }
+
+    private Object readNode(final String key) {
+        try {
+            return objectMapper.readTree(index.read(fileChannel, key));
+        } catch (final IOException e) {
+            return e;
+        }
+    }
+
+    /**
+     * A {@link ConfigSnapshot} of a {@link LazyJacksonFileConfigSpace}, which is never modified and so shares its
+     * parsed values
+     */
+    private static final class Snapshot extends LazyJacksonFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final LazyJacksonFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        private ConfigFormatter configFormatter;
+        private int decodedObjectCacheSize;
+        private FileChannel fileChannel;
+        private Set<Module> modulesToRegister;
+        private ObjectMapper objectMapper;
+
+        /**
+         * CTOR
+         */
+        public Builder() {
+            this.configFormatter = new JacksonConfigFormatter.Builder().build();
+            this.modulesToRegister = new HashSet<>();
+            this.objectMapper = DEFAULT_OBJECT_MAPPER;
+        }
+
+        /**
+         * Overwrite the default {@link ConfigFormatter} with a custom one
+         *
+         * @param configFormatter
+         *            the {@link ConfigFormatter}
+         * @return this
+         */
+        public Builder withConfigFormatter(final ConfigFormatter configFormatter) {
+            this.configFormatter = configFormatter;
+            return this;
+        }
+
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the parsed value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.decodedObjectCacheSize = decodedObjectCacheSize;
+            return this;
+        }
+
+        /**
+         * Set the {@link FileChannel} to read from, which must hold UTF-8 encoded JSON
+         *
+         * @param fileChannel
+         *            the {@link FileChannel}
+         * @return this
+         */
+        public Builder withFileChannel(final FileChannel fileChannel) {
+            this.fileChannel = fileChannel;
+            return this;
+        }
+
+        /**
+         * Overwrite the default {@link ObjectMapper} with a custom one
+         *
+         * @param objectMapper
+         *            the object mapper
+         * @return this
+         */
+        public Builder withObjectMapper(final ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * Register a module with the underlying {@link ObjectMapper}
+         *
+         * @param module
+         *            the {@link Module} to register
+         * @return this
+         */
+        public Builder withRegisteredModule(final Module module) {
+            this.modulesToRegister.add(requireNonNull(module));
+            return this;
+        }
+
+        /**
+         * Register a module with the underlying {@link ObjectMapper}
+         *
+         * @param modules
+         *            the {@link Module}s to register
+         * @return this
+         */
+        public Builder withRegisteredModules(final Collection<Module> modules) {
+            this.modulesToRegister.addAll(modules);
+            return this;
+        }
+
+        /**
+         * Build
+         *
+         * @return a new {@link LazyJacksonFileConfigSpace} built to specification
+         * @throws ConfigurationException
+         *             if there was a problem building
+         */
+        public LazyJacksonFileConfigSpace build() throws ConfigurationException {
+            requireNonNull(configFormatter);
+            requireNonNull(fileChannel);
+            requireNonNull(objectMapper);
+
+            for (final Module module : modulesToRegister) {
+                objectMapper.registerModule(requireNonNull(module));
+            }
+
+            try {
+                return new LazyJacksonFileConfigSpace(this);
+            } catch (final IOException e) {
+                throw new ConfigurationException(String.format("Error building %s",
+                        LazyJacksonFileConfigSpace.class.getSimpleName()), e);
+            }
+        }
+    }
+}
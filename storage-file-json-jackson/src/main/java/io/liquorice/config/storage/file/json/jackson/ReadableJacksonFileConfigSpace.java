@@ -8,7 +8,11 @@ import java.io.Reader;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Function;
@@ -17,27 +21,52 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.liquorice.config.api.event.ConfigReloadEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
 import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
 import io.liquorice.config.api.storage.ConfigSpace;
 import io.liquorice.config.exception.ConfigurationException;
 import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.storage.file.FileWatcher;
+import io.liquorice.config.storage.file.MappedFileChannels;
 
 /**
  * A FasterXML/jackson-backed backed implementation of a {@link ConfigSpace} where the contained items are unmodifiable
  * after creation
+ *
+ * <p>
+ * Boolean and numeric nodes hold their values in primitive form and are read directly, without going through the
+ * {@link ConfigFormatter}. Nodes of any other type fall back to the {@link ConfigFormatter}.
+ *
+ * <p>
+ * The backing store is never modified once published. Updates by extending classes replace it as a whole, so reads
+ * are lock-free and a {@link ConfigSnapshot} only needs to hold on to the current store.
+ *
+ * <p>
+ * When built with {@link Builder#withReloadOnChange(Path)}, the file is parsed again on a background thread whenever
+ * it changes, and the new contents are published in a single step. Readers never wait for a reload.
+ *
+ * <p>
+ * When built with {@link Builder#withMemoryMappedLoading()}, the file is mapped into memory and parsed from its bytes,
+ * without decoding it to chars first.
  */
-public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
+public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace implements AutoCloseable {
 
     private static final Function<FileChannel, Reader> DEFAULT_FILE_CHANNEL_READER_FUNCTION = internalFileChannel -> Channels
             .newReader(requireNonNull(internalFileChannel), StandardCharsets.UTF_8.name());
 
     private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
 
+    private static final Duration DEFAULT_RELOAD_DEBOUNCE = Duration.ofMillis(100);
+
     private final FileChannel fileChannel;
     private final Function<FileChannel, Reader> fileChannelReaderFunction;
+    private final boolean memoryMapped;
+    private final Path reloadPath;
+    private final FileWatcher.Registration reloadRegistration;
     private final ObjectMapper objectMapper;
-    private final JsonNode rootNode;
+    private volatile JsonNode rootNode;
 
     /**
      * CTOR
@@ -47,19 +76,29 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
      *
      */
     protected ReadableJacksonFileConfigSpace(final ReadableJacksonFileConfigSpace configSpace) {
-        super(configSpace.getConfigFormatter());
+        super(configSpace);
         this.fileChannel = configSpace.fileChannel;
         this.fileChannelReaderFunction = configSpace.fileChannelReaderFunction;
+        this.memoryMapped = configSpace.memoryMapped;
         this.objectMapper = configSpace.objectMapper;
         this.rootNode = configSpace.rootNode;
+
+        // Copies never reload on their own
+        this.reloadPath = null;
+        this.reloadRegistration = null;
     }
 
     private ReadableJacksonFileConfigSpace(final Builder builder) throws IOException {
-        super(builder.configFormatter);
+        super(builder.configFormatter, builder.decodedObjectCacheSize);
         this.fileChannel = builder.fileChannel;
         this.fileChannelReaderFunction = builder.fileChannelReaderFunction;
+        this.memoryMapped = builder.memoryMapped;
         this.objectMapper = builder.objectMapper;
-        this.rootNode = objectMapper.readTree(this.fileChannelReaderFunction.apply(this.fileChannel));
+        this.rootNode = readTree(this.fileChannel);
+
+        this.reloadPath = builder.reloadPath;
+        this.reloadRegistration = reloadPath == null ? null
+                : FileWatcher.getInstance().register(reloadPath, builder.reloadDebounce, this::reload);
     }
 
     /**
@@ -67,7 +106,8 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public boolean getBooleanRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Boolean.class);
+        final Object value = lookup(key);
+        return isBooleanNode(value) ? ((JsonNode) value).booleanValue() : getObjectRequired(key, Boolean.class);
     }
 
     /**
@@ -75,7 +115,8 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public double getDoubleRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Double.class);
+        final Object value = lookup(key);
+        return isDoubleNode(value) ? ((JsonNode) value).doubleValue() : getObjectRequired(key, Double.class);
     }
 
     /**
@@ -83,7 +124,8 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public int getIntRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Integer.class);
+        final Object value = lookup(key);
+        return isIntNode(value) ? ((JsonNode) value).intValue() : getObjectRequired(key, Integer.class);
     }
 
     /**
@@ -91,7 +133,8 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public long getLongRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Long.class);
+        final Object value = lookup(key);
+        return isLongNode(value) ? ((JsonNode) value).longValue() : getObjectRequired(key, Long.class);
     }
 
     /**
@@ -100,7 +143,7 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
     @Override
     public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
         try {
-            return getConfigFormatter().read(getNonNullable(key), clazz).get();
+            return decode(key, getNonNullable(key), clazz);
         } catch (final Exception e) {
             throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
         }
@@ -122,11 +165,86 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
         return rootNode.hasNonNull(requireNonEmpty(key));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        final JsonNode node = rootNode;
+        final Set<String> keys = new HashSet<>();
+        node.fieldNames().forEachRemaining(key -> {
+            if (node.hasNonNull(key)) {
+                keys.add(key);
+            }
+        });
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Stop reloading the contents of this {@link ReadableJacksonFileConfigSpace}, if it was built to reload
+     */
+    @Override
+    public void close() {
+        if (reloadRegistration != null) {
+            reloadRegistration.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object lookup(final String key) {
+        final JsonNode value = rootNode.get(key);
+        return value == null || value.isNull() ? null : value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return isBooleanNode(value) ? ((JsonNode) value).booleanValue() : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return isDoubleNode(value) ? ((JsonNode) value).doubleValue() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return isIntNode(value) ? ((JsonNode) value).intValue() : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return isLongNode(value) ? ((JsonNode) value).longValue() : super.asLong(value, defaultValue);
+    }
+
     /**
      * Get a reference to the {@link JsonNode} storing all of the contained properties
      *
      * <p>
-     * NOTE: This is the actual backing store, not a copy. This method should only be used by extending classes
+     * NOTE: This is the current backing store, not a copy. It must not be modified, and may be replaced at any time by
+     * {@link #replaceBackingJsonNode(JsonNode)}
      *
      * @return the backing store
      */
@@ -134,6 +252,20 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
         return rootNode;
     }
 
+    /**
+     * Publish $jsonNode as the new backing store, replacing the current one in a single step
+     *
+     * <p>
+     * NOTE: This method should only be used by extending classes, which must serialize their updates, must not modify
+     * $jsonNode afterwards and must call {@link #markModified(String)} once it has been published
+     *
+     * @param jsonNode
+     *            the new backing store
+     */
+    protected void replaceBackingJsonNode(final JsonNode jsonNode) {
+        this.rootNode = requireNonNull(jsonNode);
+    }
+
     /**
      * Get a reference to the {@link ObjectMapper} used to interpret the properties
      *
@@ -147,20 +279,108 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
         return objectMapper;
     }
 
+    private static boolean isBooleanNode(final Object value) {
+        return value instanceof JsonNode && ((JsonNode) value).isBoolean();
+    }
+
+    private static boolean isDoubleNode(final Object value) {
+        // Any numeric node can be widened to a double without loss of meaning
+        return value instanceof JsonNode && ((JsonNode) value).isNumber();
+    }
+
+    private static boolean isIntNode(final Object value) {
+        return value instanceof JsonNode && ((JsonNode) value).isInt();
+    }
+
+    private static boolean isLongNode(final Object value) {
+        return value instanceof JsonNode && (((JsonNode) value).isInt() || ((JsonNode) value).isLong());
+    }
+
     private JsonNode getNonNullable(final String key) {
         final JsonNode value = getBackingJsonNode().get(requireNonEmpty(key));
         requireNonNull(value);
         return value;
     }
 
+    private JsonNode readTree(final FileChannel channel) throws IOException {
+        // The byte-based parser reads straight from the mapping, without decoding it to chars first
+        return memoryMapped ? objectMapper.readTree(MappedFileChannels.newInputStream(channel))
+                : objectMapper.readTree(fileChannelReaderFunction.apply(channel));
+    }
+
+    private void reload() {
+        final ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
+        final JsonNode reloadedNode;
+        try (final FileChannel reloadChannel = FileChannel.open(reloadPath, StandardOpenOption.READ)) {
+            if (event.isEnabled()) {
+                event.setBytesRead(reloadChannel.size());
+            }
+            reloadedNode = readTree(reloadChannel);
+            if (reloadedNode == null || !reloadedNode.isObject()) {
+                throw new IOException("Not a JSON object");
+            }
+        } catch (final IOException | RuntimeException e) {
+            // Keep serving the previous contents, e.g. while the file is only partially written
+            throw new ConfigurationException(String.format("Failed to reload '%s'", reloadPath), e);
+        }
+
+        final Set<String> changedKeys;
+        synchronized (this) {
+            changedKeys = changedKeys(rootNode, reloadedNode);
+            if (!changedKeys.isEmpty()) {
+                rootNode = reloadedNode;
+                markModified(changedKeys);
+            }
+        }
+        event.complete(this, reloadPath, changedKeys.size());
+    }
+
+    private static Set<String> changedKeys(final JsonNode previousNode, final JsonNode currentNode) {
+        final Set<String> changedKeys = new HashSet<>();
+        previousNode.fieldNames().forEachRemaining(key -> {
+            if (!previousNode.get(key).equals(currentNode.get(key))) {
+                changedKeys.add(key);
+            }
+        });
+        currentNode.fieldNames().forEachRemaining(key -> {
+            if (!previousNode.has(key)) {
+                changedKeys.add(key);
+            }
+        });
+        return changedKeys;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} holding on to the backing store at the time it was taken
+     */
+    private static final class Snapshot extends ReadableJacksonFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final ReadableJacksonFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
     /**
      * Builder
      */
     public static final class Builder {
 
         private ConfigFormatter configFormatter;
+        private int decodedObjectCacheSize;
         private FileChannel fileChannel;
         private Function<FileChannel, Reader> fileChannelReaderFunction;
+        private boolean memoryMapped;
+        private Path reloadPath;
+        private Duration reloadDebounce;
         private Set<Module> modulesToRegister;
         private ObjectMapper objectMapper;
 
@@ -186,6 +406,21 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the stored value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.decodedObjectCacheSize = decodedObjectCacheSize;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link ConfigFormatter} with a custom one
          *
@@ -198,6 +433,52 @@ public class ReadableJacksonFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Reload the contents whenever the file at $path changes
+         *
+         * <p>
+         * Changes are picked up by a {@link FileWatcher} and debounced by 100ms. A file that fails to parse is
+         * ignored until it changes again. Call {@link ReadableJacksonFileConfigSpace#close()} to stop reloading.
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path) {
+            return withReloadOnChange(path, DEFAULT_RELOAD_DEBOUNCE);
+        }
+
+        /**
+         * Reload the contents whenever the file at $path changes, once it has been unchanged for $debounce
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @param debounce
+         *            how long the file must remain unchanged before it is reloaded
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path, final Duration debounce) {
+            this.reloadPath = path;
+            this.reloadDebounce = debounce;
+            return this;
+        }
+
+        /**
+         * Load the file by mapping it into memory and parsing its bytes, rather than reading it through a
+         * {@link Reader}
+         *
+         * <p>
+         * This avoids decoding large files to chars and copying them through intermediate buffers. The
+         * {@link FileChannel} to {@link Reader} {@link Function} is not used. Disabled by default.
+         *
+         * @return this
+         * @see MappedFileChannels
+         */
+        public Builder withMemoryMappedLoading() {
+            this.memoryMapped = true;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
          *
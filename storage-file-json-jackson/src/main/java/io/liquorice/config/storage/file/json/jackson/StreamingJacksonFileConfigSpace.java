@@ -0,0 +1,535 @@
+package io.liquorice.config.storage.file.json.jackson;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import io.liquorice.config.api.event.ConfigReloadEvent;
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.storage.file.FileWatcher;
+import io.liquorice.config.storage.file.MappedFileChannels;
+
+/**
+ * A FasterXML/jackson-backed implementation of a {@link ConfigSpace} for large JSON files, where the contained items
+ * are unmodifiable after creation
+ *
+ * <p>
+ * Unlike {@link ReadableJacksonFileConfigSpace}, the file is streamed with a {@link JsonParser} rather than read into a
+ * tree. Only a compact index of the top-level keys is kept: boolean, int, long and double values are stored unboxed
+ * and read directly by the required getters, and strings are stored as {@link String}s. Objects, arrays and numbers
+ * that do not fit a long or a double are kept as compact JSON bytes, and decoded by the {@link ConfigFormatter} on
+ * every read. Values that are not read directly are passed to the {@link ConfigFormatter} as a {@link
+ * com.fasterxml.jackson.databind.JsonNode} or an {@link InputStream}, so they are interpreted as they would be from a
+ * tree.
+ *
+ * <p>
+ * The index is never modified once published, so reads are lock-free and a {@link ConfigSnapshot} only needs to hold
+ * on to the current index. When built with {@link Builder#withReloadOnChange(Path)}, the file is streamed again on a
+ * background thread whenever it changes, and the new index is published in a single step. When built with
+ * {@link Builder#withMemoryMappedLoading()}, the file is mapped into memory and streamed from its bytes.
+ */
+public class StreamingJacksonFileConfigSpace extends AbstractConfigSpace implements AutoCloseable {
+
+    private static final Function<FileChannel, Reader> DEFAULT_FILE_CHANNEL_READER_FUNCTION = internalFileChannel -> Channels
+            .newReader(requireNonNull(internalFileChannel), StandardCharsets.UTF_8.name());
+
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Duration DEFAULT_RELOAD_DEBOUNCE = Duration.ofMillis(100);
+
+    private final Function<FileChannel, Reader> fileChannelReaderFunction;
+    private final boolean memoryMapped;
+    private final Path reloadPath;
+    private final FileWatcher.Registration reloadRegistration;
+    private final ObjectMapper objectMapper;
+    private volatile JsonValueIndex index;
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            A {@link StreamingJacksonFileConfigSpace} to shallow copy
+     */
+    protected StreamingJacksonFileConfigSpace(final StreamingJacksonFileConfigSpace configSpace) {
+        super(configSpace);
+        this.fileChannelReaderFunction = configSpace.fileChannelReaderFunction;
+        this.memoryMapped = configSpace.memoryMapped;
+        this.objectMapper = configSpace.objectMapper;
+        this.index = configSpace.index;
+
+        // Copies never reload on their own
+        this.reloadPath = null;
+        this.reloadRegistration = null;
+    }
+
+    private StreamingJacksonFileConfigSpace(final Builder builder) throws IOException {
+        super(builder.configFormatter);
+        this.fileChannelReaderFunction = builder.fileChannelReaderFunction;
+        this.memoryMapped = builder.memoryMapped;
+        this.objectMapper = builder.objectMapper;
+        this.index = readIndex(builder.fileChannel);
+
+        this.reloadPath = builder.reloadPath;
+        this.reloadRegistration = reloadPath == null ? null
+                : FileWatcher.getInstance().register(reloadPath, builder.reloadDebounce, this::reload);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        final JsonValueIndex index = this.index;
+        final int slot = index.find(requireNonEmpty(key));
+        return slot >= 0 && index.type(slot) == JsonValueIndex.BOOLEAN ? index.booleanValue(slot)
+                : getObjectRequired(key, Boolean.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        final JsonValueIndex index = this.index;
+        final int slot = index.find(requireNonEmpty(key));
+        return slot >= 0 && isNumber(index.type(slot)) ? index.doubleValue(slot)
+                : getObjectRequired(key, Double.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        final JsonValueIndex index = this.index;
+        final int slot = index.find(requireNonEmpty(key));
+        return slot >= 0 && index.type(slot) == JsonValueIndex.INT ? (int) index.longValue(slot)
+                : getObjectRequired(key, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        final JsonValueIndex index = this.index;
+        final int slot = index.find(requireNonEmpty(key));
+        return slot >= 0 && isWholeNumber(index.type(slot)) ? index.longValue(slot)
+                : getObjectRequired(key, Long.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final Object value = lookup(requireNonEmpty(key));
+        if (value != null && !(value instanceof InputStream) && clazz.isInstance(value)) {
+            return clazz.cast(value);
+        }
+
+        try {
+            return decode(key, toFormatterValue(requireNonNull(value)), clazz);
+        } catch (final Exception e) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return getObjectRequired(key, String.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return index.find(requireNonEmpty(key)) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return index.keys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Stop reloading the contents of this {@link StreamingJacksonFileConfigSpace}, if it was built to reload
+     */
+    @Override
+    public void close() {
+        if (reloadRegistration != null) {
+            reloadRegistration.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a {@link Boolean}, {@link Double}, {@link Integer}, {@link Long} or {@link String}, or a new
+     *         {@link InputStream} of the JSON of any other value
+     */
+    @Override
+    protected Object lookup(final String key) {
+        final JsonValueIndex index = this.index;
+        final int slot = index.find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        switch (index.type(slot)) {
+            case JsonValueIndex.BOOLEAN:
+                return index.booleanValue(slot);
+            case JsonValueIndex.INT:
+                return (int) index.longValue(slot);
+            case JsonValueIndex.LONG:
+                return index.longValue(slot);
+            case JsonValueIndex.DOUBLE:
+                return index.doubleValue(slot);
+            case JsonValueIndex.STRING:
+                return index.stringValue(slot);
+            default:
+                return index.rawValue(slot);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return value instanceof Boolean ? (Boolean) value : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        // Any stored number can be widened to a double without loss of meaning
+        return value instanceof Number ? ((Number) value).doubleValue() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return value instanceof Integer ? (Integer) value : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return value instanceof Integer || value instanceof Long ? ((Number) value).longValue()
+                : super.asLong(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected <T> T asObject(final Object value, final Class<T> clazz, final T defaultValue) {
+        return value != null && !(value instanceof InputStream) && clazz.isInstance(value) ? clazz.cast(value)
+                : super.asObject(toFormatterValue(value), clazz, defaultValue);
+    }
+
+    private static boolean isNumber(final byte type) {
+        return isWholeNumber(type) || type == JsonValueIndex.DOUBLE;
+    }
+
+    private static boolean isWholeNumber(final byte type) {
+        return type == JsonValueIndex.INT || type == JsonValueIndex.LONG;
+    }
+
+    private static Object toFormatterValue(final Object value) {
+        // As read from a tree, so that e.g. a string is not parsed as JSON
+        if (value instanceof Boolean) {
+            return BooleanNode.valueOf((Boolean) value);
+        } else if (value instanceof Integer) {
+            return IntNode.valueOf((Integer) value);
+        } else if (value instanceof Long) {
+            return LongNode.valueOf((Long) value);
+        } else if (value instanceof Double) {
+            return DoubleNode.valueOf((Double) value);
+        } else if (value instanceof String) {
+            return TextNode.valueOf((String) value);
+        }
+        return value;
+    }
+
+    private JsonValueIndex readIndex(final FileChannel channel) throws IOException {
+        final JsonFactory jsonFactory = objectMapper.getFactory();
+        final ByteArrayOutputStream rawOutput = new ByteArrayOutputStream();
+        try (final JsonParser parser = memoryMapped
+                ? jsonFactory.createParser(MappedFileChannels.newInputStream(channel))
+                : jsonFactory.createParser(fileChannelReaderFunction.apply(channel));
+                final JsonGenerator generator = jsonFactory.createGenerator(rawOutput)) {
+            // Raw values are written back to back, and sliced by offset
+            generator.setRootValueSeparator(null);
+            return JsonValueIndex.load(parser, generator, rawOutput);
+        }
+    }
+
+    private void reload() {
+        final ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
+        final JsonValueIndex reloadedIndex;
+        try (final FileChannel reloadChannel = FileChannel.open(reloadPath, StandardOpenOption.READ)) {
+            if (event.isEnabled()) {
+                event.setBytesRead(reloadChannel.size());
+            }
+            reloadedIndex = readIndex(reloadChannel);
+        } catch (final IOException | RuntimeException e) {
+            // Keep serving the previous contents, e.g. while the file is only partially written
+            throw new ConfigurationException(String.format("Failed to reload '%s'", reloadPath), e);
+        }
+
+        final Set<String> changedKeys;
+        synchronized (this) {
+            changedKeys = JsonValueIndex.changedKeys(index, reloadedIndex);
+            if (!changedKeys.isEmpty()) {
+                index = reloadedIndex;
+                markModified(changedKeys);
+            }
+        }
+        event.complete(this, reloadPath, changedKeys.size());
+    }
+
+    /**
+     * A {@link ConfigSnapshot} holding on to the index at the time it was taken
+     */
+    private static final class Snapshot extends StreamingJacksonFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final StreamingJacksonFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        private ConfigFormatter configFormatter;
+        private FileChannel fileChannel;
+        private Function<FileChannel, Reader> fileChannelReaderFunction;
+        private boolean memoryMapped;
+        private Path reloadPath;
+        private Duration reloadDebounce;
+        private Set<Module> modulesToRegister;
+        private ObjectMapper objectMapper;
+
+        /**
+         * CTOR
+         */
+        public Builder() {
+            this.configFormatter = new JacksonConfigFormatter.Builder().build();
+            this.fileChannelReaderFunction = DEFAULT_FILE_CHANNEL_READER_FUNCTION;
+            this.modulesToRegister = new HashSet<>();
+            this.objectMapper = DEFAULT_OBJECT_MAPPER;
+        }
+
+        /**
+         * Overwrite the default {@link ConfigFormatter} with a custom one
+         *
+         * @param configFormatter
+         *            the {@link ConfigFormatter}
+         * @return this
+         */
+        public Builder withConfigFormatter(final ConfigFormatter configFormatter) {
+            this.configFormatter = configFormatter;
+            return this;
+        }
+
+        /**
+         * Set the {@link FileChannel} to read from
+         *
+         * @param fileChannel
+         *            the {@link FileChannel}
+         * @return this
+         */
+        public Builder withFileChannel(final FileChannel fileChannel) {
+            this.fileChannel = fileChannel;
+            return this;
+        }
+
+        /**
+         * Reload the contents whenever the file at $path changes
+         *
+         * <p>
+         * Changes are picked up by a {@link FileWatcher} and debounced by 100ms. A file that fails to parse is
+         * ignored until it changes again. Call {@link StreamingJacksonFileConfigSpace#close()} to stop reloading.
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path) {
+            return withReloadOnChange(path, DEFAULT_RELOAD_DEBOUNCE);
+        }
+
+        /**
+         * Reload the contents whenever the file at $path changes, once it has been unchanged for $debounce
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @param debounce
+         *            how long the file must remain unchanged before it is reloaded
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path, final Duration debounce) {
+            this.reloadPath = path;
+            this.reloadDebounce = debounce;
+            return this;
+        }
+
+        /**
+         * Stream the file from a mapping of it into memory, rather than through a {@link Reader}
+         *
+         * <p>
+         * The byte-based parser then reads straight from the mapping, without decoding the file to chars first. The
+         * {@link FileChannel} to {@link Reader} {@link Function} is not used. Disabled by default.
+         *
+         * @return this
+         * @see MappedFileChannels
+         */
+        public Builder withMemoryMappedLoading() {
+            this.memoryMapped = true;
+            return this;
+        }
+
+        /**
+         * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
+         *
+         * <p>
+         * This is likely only needed by inheriting classes and tests. The default should be sufficient in most cases.
+         *
+         * @param fileChannelReaderFunction
+         *            the {@link Function}
+         * @return this
+         */
+        protected Builder withFileChannelReaderFunction(final Function<FileChannel, Reader> fileChannelReaderFunction) {
+            this.fileChannelReaderFunction = fileChannelReaderFunction;
+            return this;
+        }
+
+        /**
+         * Overwrite the default {@link ObjectMapper} with a custom one
+         *
+         * <p>
+         * Its {@link JsonFactory} is used to stream the file.
+         *
+         * @param objectMapper
+         *            the object mapper
+         * @return this
+         */
+        public Builder withObjectMapper(final ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * Register a module with the underlying {@link ObjectMapper}
+         *
+         * @param module
+         *            the {@link Module} to register
+         * @return this
+         */
+        public Builder withRegisteredModule(final Module module) {
+            this.modulesToRegister.add(requireNonNull(module));
+            return this;
+        }
+
+        /**
+         * Register a module with the underlying {@link ObjectMapper}
+         *
+         * @param modules
+         *            the {@link Module}s to register
+         * @return this
+         */
+        public Builder withRegisteredModules(final Collection<Module> modules) {
+            this.modulesToRegister.addAll(modules);
+            return this;
+        }
+
+        /**
+         * Build
+         *
+         * @return a new {@link StreamingJacksonFileConfigSpace} built to specification
+         * @throws ConfigurationException
+         *             if there was a problem building
+         */
+        public StreamingJacksonFileConfigSpace build() throws ConfigurationException {
+            requireNonNull(configFormatter);
+            requireNonNull(fileChannel);
+            requireNonNull(fileChannelReaderFunction);
+            requireNonNull(objectMapper);
+
+            for (final Module module : modulesToRegister) {
+                objectMapper.registerModule(requireNonNull(module));
+            }
+
+            try {
+                return new StreamingJacksonFileConfigSpace(this);
+            } catch (final IOException e) {
+                throw new ConfigurationException(String.format("Error building %s",
+                        StreamingJacksonFileConfigSpace.class.getSimpleName()), e);
+            }
+        }
+    }
+}
@@ -28,6 +28,9 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.function.Function;
 
@@ -162,4 +165,23 @@ public class ReadableJacksonFileConfigSpaceTest {
     void testRequiredObjectPropertyOfWrongType() {
         assertThrows(ConfigurationException.class, () -> configSpace.getObjectRequired(BOOL_KEY, List.class));
     }
+
+    @Test
+    void testMemoryMappedLoading() throws Exception {
+        final Path file = Files.createTempFile("liquorice-config", ".json");
+        Files.write(file, JSON_STRING.getBytes(StandardCharsets.UTF_8));
+
+        try (final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ReadableJacksonFileConfigSpace mappedConfigSpace = new ReadableJacksonFileConfigSpace.Builder() //
+                    .withFileChannel(fileChannel) //
+                    .withMemoryMappedLoading() //
+                    .build();
+
+            assertEquals(STRING_VALUE, mappedConfigSpace.getStringRequired(STRING_KEY));
+            assertEquals(LONG_VALUE, mappedConfigSpace.getLongRequired(LONG_KEY));
+            assertEquals(COMPLEX_VALUE, mappedConfigSpace.getObjectRequired(COMPLEX_KEY, List.class));
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -21,6 +21,7 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_LONG_
 import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -31,6 +32,9 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Function;
 
@@ -53,6 +57,11 @@ class WritableJacksonFileConfigSpaceTest {
 
     private static WritableJacksonFileConfigSpace createConfigSpace(final OutputStream outputStream,
             final FileChannel fileChannel) {
+        return createBuilder(outputStream, fileChannel).build();
+    }
+
+    private static WritableJacksonFileConfigSpace.Builder createBuilder(final OutputStream outputStream,
+            final FileChannel fileChannel) {
         // Initialize seed properties
         final InputStreamReader isr = new InputStreamReader(new ByteArrayInputStream(
                 JSON_STRING.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
@@ -68,8 +77,7 @@ class WritableJacksonFileConfigSpaceTest {
                 .withFileChannel(fileChannel) //
                 .withFileChannelReaderFunction(fileChannelReaderFunction) //
                 .withFileChannelWriterFunction(fileChannelWriterFunction) //
-                .withObjectMapper(OBJECT_MAPPER) //
-                .build();
+                .withObjectMapper(OBJECT_MAPPER);
     }
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
@@ -230,4 +238,124 @@ class WritableJacksonFileConfigSpaceTest {
         assertEquals(STRING_VALUE, jsonNode.get(STRING_KEY).asText());
         assertEquals(COMPLEX_VALUE, OBJECT_MAPPER.treeToValue(jsonNode.get(COMPLEX_KEY), List.class));
     }
+
+    @Test
+    void testBatchIsWrittenOnce() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final WritableJacksonFileConfigSpace configSpace = createConfigSpace(baos, mockFileChannel);
+
+        // Do the thing. The writer is closed after the first write, so writing twice would fail.
+        configSpace.batch(batch -> {
+            batch.setInt(INT_KEY, UPDATED_INT_VALUE);
+            batch.setString(STRING_KEY, UPDATED_STRING_VALUE);
+            batch.remove(BOOL_KEY);
+        });
+
+        // Verify the cache properties were updated
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(UPDATED_STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
+        assertFalse(configSpace.hasValue(BOOL_KEY));
+
+        // Verify the on disk properties were updated
+        final JsonNode jsonNode = OBJECT_MAPPER.readTree(new ByteArrayInputStream(baos.toByteArray()));
+        assertFalse(jsonNode.has(BOOL_KEY));
+        assertEquals(DOUBLE_VALUE, jsonNode.get(DOUBLE_KEY).asDouble());
+        assertEquals(UPDATED_INT_VALUE, jsonNode.get(INT_KEY).asInt());
+        assertEquals(LONG_VALUE, jsonNode.get(LONG_KEY).asLong());
+        assertEquals(UPDATED_STRING_VALUE, jsonNode.get(STRING_KEY).asText());
+    }
+
+    @Test
+    void testWriteBehindDefersWritesUntilFlushed() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final WritableJacksonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                .withWriteBehind(Duration.ofHours(1)) //
+                .build();
+
+        // Do the thing
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+
+        // Verify the cache properties were updated, but not yet the on disk properties
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(0, baos.size());
+
+        // Verify both updates are written at once. The writer is closed after the first write.
+        configSpace.close();
+        final JsonNode jsonNode = OBJECT_MAPPER.readTree(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(UPDATED_INT_VALUE, jsonNode.get(INT_KEY).asInt());
+        assertEquals(UPDATED_STRING_VALUE, jsonNode.get(STRING_KEY).asText());
+    }
+
+    @Test
+    void testAtomicWritesReplaceTheFile() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".json");
+        Files.write(file, List.of("{\"stale\": \"a much longer value than any written by the update\"}"));
+
+        try {
+            final WritableJacksonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withAtomicWrites(file) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+
+            // Verify the file was replaced rather than written through the channel
+            final JsonNode jsonNode = OBJECT_MAPPER.readTree(file.toFile());
+            assertEquals(0, baos.size());
+            assertFalse(jsonNode.has("stale"));
+            assertEquals(UPDATED_INT_VALUE, jsonNode.get(INT_KEY).asInt());
+            assertEquals(STRING_VALUE, jsonNode.get(STRING_KEY).asText());
+            assertEquals(COMPLEX_VALUE, OBJECT_MAPPER.treeToValue(jsonNode.get(COMPLEX_KEY), List.class));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testJournalIsReplayedAndCompacted() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".json");
+        final Path journal = file.resolveSibling(file.getFileName() + ".journal");
+
+        try {
+            final WritableJacksonFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, Long.MAX_VALUE) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+            configSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+            configSpace.close();
+
+            // Verify the changes were journaled rather than written, and are replayed by the next config space
+            assertEquals(0, baos.size());
+            assertEquals(0, Files.size(file));
+            assertTrue(Files.size(journal) > 0);
+
+            final WritableJacksonFileConfigSpace replayed = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, 1) //
+                    .build();
+            assertEquals(UPDATED_INT_VALUE, replayed.getIntRequired(INT_KEY));
+            assertEquals(UPDATED_COMPLEX_VALUE, replayed.getObjectRequired(COMPLEX_KEY, List.class));
+
+            // Verify the journal is folded into the file once it passes the threshold
+            replayed.remove(STRING_KEY);
+            replayed.close();
+
+            final JsonNode jsonNode = OBJECT_MAPPER.readTree(file.toFile());
+            assertEquals(UPDATED_INT_VALUE, jsonNode.get(INT_KEY).asInt());
+            assertEquals(UPDATED_COMPLEX_VALUE, OBJECT_MAPPER.treeToValue(jsonNode.get(COMPLEX_KEY), List.class));
+            assertFalse(jsonNode.has(STRING_KEY));
+            assertEquals(0, Files.size(journal));
+        } finally {
+            Files.deleteIfExists(journal);
+            Files.delete(file);
+        }
+    }
 }
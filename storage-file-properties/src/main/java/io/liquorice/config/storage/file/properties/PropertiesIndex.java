@@ -0,0 +1,437 @@
+package io.liquorice.config.storage.file.properties;
+
+import static io.liquorice.config.storage.file.KeyTables.slotFor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact, immutable map of properties, which also holds the boolean and numeric form of each value
+ *
+ * <p>
+ * Keys and values are held in the parallel arrays of an open-addressing hash table. Values written in the canonical
+ * form of an int, a long or a double are parsed once, when the index is built, so reading them never parses again.
+ * Any other value, e.g. a double written as {@code NaN} or with a trailing {@code d}, is parsed on its first read
+ * instead, and the outcome is kept, including any failure, so that it is never parsed twice either.
+ *
+ * <p>
+ * An index built from a previous one re-uses the parsed forms of every value that did not change.
+ */
+final class PropertiesIndex extends AbstractMap<String, String> {
+
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 8;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final String[] keys;
+    private final String[] values;
+    private final byte[] types;
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] parsedInts;
+    private final Object[] parsedLongs;
+    private final Object[] parsedDoubles;
+    private final int size;
+    private Set<Map.Entry<String, String>> entrySet;
+
+    private PropertiesIndex(final Builder builder, final PropertiesIndex previous) {
+        this.keys = builder.keys;
+        this.values = builder.values;
+        this.size = builder.size;
+        this.types = new byte[keys.length];
+        this.longs = new long[keys.length];
+        this.doubles = new double[keys.length];
+        this.parsedInts = new Object[keys.length];
+        this.parsedLongs = new Object[keys.length];
+        this.parsedDoubles = new Object[keys.length];
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == null) {
+                continue;
+            }
+
+            final int previousSlot = previous == null ? -1 : previous.find(keys[slot]);
+            if (previousSlot >= 0 && values[slot].equals(previous.values[previousSlot])) {
+                copy(previous, previousSlot, slot);
+            } else {
+                parse(slot);
+            }
+        }
+    }
+
+    /**
+     * @param properties
+     *            the properties to index
+     * @param previous
+     *            the index to re-use the parsed form of unchanged values from, or null
+     * @return a new {@link PropertiesIndex} of $properties, or $properties if it is one already
+     */
+    static PropertiesIndex of(final Map<String, String> properties, final PropertiesIndex previous) {
+        if (properties instanceof PropertiesIndex) {
+            return (PropertiesIndex) properties;
+        }
+
+        final Builder builder = new Builder();
+        for (final Map.Entry<String, String> entry : properties.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.build(previous);
+    }
+
+    /**
+     * Find the slot holding the value of $key
+     *
+     * @param key
+     *            the key
+     * @return the slot, or a negative number if $key has no value
+     */
+    int find(final Object key) {
+        return key instanceof String ? slotFor(keys, (String) key) : -1;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return the value in $slot, as written
+     */
+    String value(final int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return true if the value in $slot is "true", ignoring case
+     */
+    boolean isTrue(final int slot) {
+        return (types[slot] & TRUE) != 0;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return true if the value in $slot was parsed as an int, which {@link #longValue(int)} returns
+     */
+    boolean isInt(final int slot) {
+        return (types[slot] & INT) != 0;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return true if the value in $slot was parsed as a long, which {@link #longValue(int)} returns
+     */
+    boolean isLong(final int slot) {
+        return (types[slot] & LONG) != 0;
+    }
+
+    /**
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return true if the value in $slot was parsed as a double, which {@link #doubleValue(int)} returns
+     */
+    boolean isDouble(final int slot) {
+        return (types[slot] & DOUBLE) != 0;
+    }
+
+    /**
+     * @param slot
+     *            a slot for which {@link #isLong(int)} is true
+     * @return the parsed value
+     */
+    long longValue(final int slot) {
+        return longs[slot];
+    }
+
+    /**
+     * @param slot
+     *            a slot for which {@link #isDouble(int)} is true
+     * @return the parsed value
+     */
+    double doubleValue(final int slot) {
+        return doubles[slot];
+    }
+
+    /**
+     * Parse the value in $slot as by {@link Integer#parseInt(String)}, at most once
+     *
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return the {@link Integer}, or the {@link NumberFormatException} thrown by parsing the value
+     */
+    Object parseInt(final int slot) {
+        Object parsed = parsedInts[slot];
+        if (parsed == null) {
+            try {
+                parsed = Integer.valueOf(values[slot]);
+            } catch (final NumberFormatException e) {
+                parsed = e;
+            }
+            // Racy but idempotent, as every thread parses the same outcome
+            parsedInts[slot] = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * Parse the value in $slot as by {@link Long#parseLong(String)}, at most once
+     *
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return the {@link Long}, or the {@link NumberFormatException} thrown by parsing the value
+     */
+    Object parseLong(final int slot) {
+        Object parsed = parsedLongs[slot];
+        if (parsed == null) {
+            try {
+                parsed = Long.valueOf(values[slot]);
+            } catch (final NumberFormatException e) {
+                parsed = e;
+            }
+            parsedLongs[slot] = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * Parse the value in $slot as by {@link Double#parseDouble(String)}, at most once
+     *
+     * @param slot
+     *            a slot returned by {@link #find(Object)}
+     * @return the {@link Double}, or the {@link NumberFormatException} thrown by parsing the value
+     */
+    Object parseDouble(final int slot) {
+        Object parsed = parsedDoubles[slot];
+        if (parsed == null) {
+            try {
+                parsed = Double.valueOf(values[slot]);
+            } catch (final NumberFormatException e) {
+                parsed = e;
+            }
+            parsedDoubles[slot] = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(final Object key) {
+        final int slot = find(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        // Racy but idempotent, as every view is equivalent
+        Set<Map.Entry<String, String>> view = entrySet;
+        if (view == null) {
+            view = new EntrySet();
+            entrySet = view;
+        }
+        return view;
+    }
+
+    private void parse(final int slot) {
+        final String value = values[slot];
+        if ("true".equalsIgnoreCase(value)) {
+            types[slot] = TRUE;
+            return;
+        }
+
+        // Only values in the canonical form of a number are parsed, so that other values never throw
+        final int form = numericForm(value);
+        if (form == LONG) {
+            try {
+                longs[slot] = Long.parseLong(value);
+                types[slot] = longs[slot] == (int) longs[slot] ? INT | LONG : LONG;
+            } catch (final NumberFormatException e) {
+                // Out of range for a long, but still a double
+            }
+        }
+        if (form != 0) {
+            doubles[slot] = Double.parseDouble(value);
+            types[slot] |= DOUBLE;
+        }
+    }
+
+    private void copy(final PropertiesIndex previous, final int previousSlot, final int slot) {
+        types[slot] = previous.types[previousSlot];
+        longs[slot] = previous.longs[previousSlot];
+        doubles[slot] = previous.doubles[previousSlot];
+        parsedInts[slot] = previous.parsedInts[previousSlot];
+        parsedLongs[slot] = previous.parsedLongs[previousSlot];
+        parsedDoubles[slot] = previous.parsedDoubles[previousSlot];
+    }
+
+    private static int numericForm(final String value) {
+        final int length = value.length();
+        final int integerStart = skipSign(value, 0);
+        int i = skipDigits(value, integerStart);
+        boolean hasDigits = i > integerStart;
+        if (i == length) {
+            return hasDigits ? LONG : 0;
+        }
+
+        if (value.charAt(i) == '.') {
+            final int fractionStart = i + 1;
+            i = skipDigits(value, fractionStart);
+            hasDigits |= i > fractionStart;
+        }
+        if (hasDigits && i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            final int exponentStart = skipSign(value, i + 1);
+            i = skipDigits(value, exponentStart);
+            if (i == exponentStart) {
+                return 0;
+            }
+        }
+        return hasDigits && i == length ? DOUBLE : 0;
+    }
+
+    private static int skipSign(final String value, final int from) {
+        return from < value.length() && (value.charAt(from) == '-' || value.charAt(from) == '+') ? from + 1 : from;
+    }
+
+    private static int skipDigits(final String value, final int from) {
+        int i = from;
+        while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * A read-only view of the entries, in table order
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int slot = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Map.Entry<String, String> entry = new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                    slot = advance(slot + 1);
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private int advance(final int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Builder, where a key that is put more than once keeps its last value
+     */
+    static final class Builder {
+
+        private String[] keys = new String[MIN_CAPACITY];
+        private String[] values = new String[MIN_CAPACITY];
+        private int size;
+
+        /**
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         * @return this
+         */
+        Builder put(final String key, final String value) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+
+            final int slot = slotFor(keys, key);
+            if (slot >= 0) {
+                values[slot] = value;
+            } else {
+                keys[-slot - 1] = key;
+                values[-slot - 1] = value;
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Build, after which this {@link Builder} must not be used again
+         *
+         * @return a new {@link PropertiesIndex} of every key put
+         */
+        PropertiesIndex build() {
+            return build(null);
+        }
+
+        /**
+         * Build, after which this {@link Builder} must not be used again
+         *
+         * @param previous
+         *            the index to re-use the parsed form of unchanged values from, or null
+         * @return a new {@link PropertiesIndex} of every key put
+         */
+        PropertiesIndex build(final PropertiesIndex previous) {
+            return new PropertiesIndex(this, previous);
+        }
+
+        private void grow() {
+            final String[] previousKeys = keys;
+            final String[] previousValues = values;
+            keys = new String[previousKeys.length * 2];
+            values = new String[keys.length];
+            for (int i = 0; i < previousKeys.length; i++) {
+                if (previousKeys[i] != null) {
+                    final int slot = -slotFor(keys, previousKeys[i]) - 1;
+                    keys[slot] = previousKeys[i];
+                    values[slot] = previousValues[i];
+                }
+            }
+        }
+    }
+}
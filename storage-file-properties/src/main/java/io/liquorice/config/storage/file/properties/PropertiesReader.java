@@ -0,0 +1,261 @@
+package io.liquorice.config.storage.file.properties;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 encoded properties into a {@link PropertiesIndex}, with the same syntax as
+ * {@link java.util.Properties#load(Reader)}
+ *
+ * <p>
+ * The bytes are scanned directly, as every character with a meaning in the syntax is ASCII and so can never be part of
+ * a multi-byte character. Each logical line is assembled into a single reused buffer, and only keys and values
+ * holding escapes or non-ASCII characters are decoded through a {@link CharsetDecoder}.
+ *
+ * <p>
+ * NOTE: Unlike {@link java.util.Properties}, malformed input is reported as an {@link IOException}
+ */
+final class PropertiesReader {
+
+    private final ByteBuffer input;
+    private final int limit;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final StringBuilder unescaped = new StringBuilder();
+    private byte[] line = new byte[256];
+    private int position;
+
+    private PropertiesReader(final ByteBuffer input) {
+        this.input = input;
+        this.position = input.position();
+        this.limit = input.limit();
+    }
+
+    /**
+     * Read the properties in $bytes, from its position to its limit
+     *
+     * @param bytes
+     *            the UTF-8 encoded properties. Its position is left unchanged.
+     * @return the properties, where a key that appears more than once keeps its last value
+     * @throws IOException
+     *             if the properties are malformed
+     */
+    static PropertiesIndex read(final ByteBuffer bytes) throws IOException {
+        return new PropertiesReader(bytes).readAll();
+    }
+
+    /**
+     * Read the properties in $fileChannel, from its position to its end
+     *
+     * @param fileChannel
+     *            the {@link FileChannel} holding UTF-8 encoded properties
+     * @return the properties, where a key that appears more than once keeps its last value
+     * @throws IOException
+     *             if the properties could not be read, or are malformed
+     */
+    static PropertiesIndex read(final FileChannel fileChannel) throws IOException {
+        final long size = fileChannel.size() - fileChannel.position();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Cannot read %d bytes", size));
+        }
+
+        final ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        while (bytes.hasRemaining() && fileChannel.read(bytes) >= 0) {
+            // Read until full, or until the file turns out to be shorter
+        }
+        return read(bytes.flip());
+    }
+
+    /**
+     * Read the properties in $reader, to its end
+     *
+     * @param reader
+     *            the {@link Reader}
+     * @return the properties, where a key that appears more than once keeps its last value
+     * @throws IOException
+     *             if the properties could not be read, or are malformed
+     */
+    static PropertiesIndex read(final Reader reader) throws IOException {
+        final StringBuilder chars = new StringBuilder();
+        final char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            chars.append(buffer, 0, read);
+        }
+        return read(StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap(chars)));
+    }
+
+    private PropertiesIndex readAll() throws IOException {
+        final PropertiesIndex.Builder builder = new PropertiesIndex.Builder();
+        int length;
+        while ((length = readLine()) >= 0) {
+            put(builder, length);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Assemble the next logical line into {@link #line}, skipping blank lines and comments, joining continued lines and
+     * dropping the leading whitespace of each
+     *
+     * @return the length of the line, or -1 at the end of the input
+     */
+    private int readLine() {
+        int length = 0;
+        boolean skipWhitespace = true;
+        boolean continuation = false;
+        boolean precedingBackslash = false;
+        while (position < limit) {
+            final byte b = input.get(position++);
+            if (skipWhitespace) {
+                if (b == ' ' || b == '\t' || b == '\f' || !continuation && (b == '\r' || b == '\n')) {
+                    continue;
+                }
+                skipWhitespace = false;
+                if (!continuation && (b == '#' || b == '!')) {
+                    skipComment();
+                    skipWhitespace = true;
+                    continue;
+                }
+            }
+
+            if (b != '\r' && b != '\n') {
+                append(length++, b);
+                precedingBackslash = b == '\\' && !precedingBackslash;
+                continue;
+            }
+
+            if (b == '\r' && position < limit && input.get(position) == '\n') {
+                position++;
+            }
+            if (length == 0) {
+                // Nothing but continuations so far, so the line is still blank
+                skipWhitespace = true;
+                continue;
+            } else if (!precedingBackslash) {
+                return length;
+            }
+
+            // Drop the backslash, and join the next line
+            length--;
+            precedingBackslash = false;
+            skipWhitespace = true;
+            continuation = true;
+        }
+
+        // A backslash at the very end continues onto nothing
+        return length == 0 ? -1 : precedingBackslash ? length - 1 : length;
+    }
+
+    private void skipComment() {
+        while (position < limit) {
+            final byte b = input.get(position);
+            if (b == '\r' || b == '\n') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void append(final int index, final byte b) {
+        if (index == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[index] = b;
+    }
+
+    private void put(final PropertiesIndex.Builder builder, final int length) throws IOException {
+        int keyLength = 0;
+        int valueStart = length;
+        boolean hasSeparator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            final byte b = line[keyLength];
+            if ((b == '=' || b == ':') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                hasSeparator = true;
+                break;
+            } else if ((b == ' ' || b == '\t' || b == '\f') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = b == '\\' && !precedingBackslash;
+            keyLength++;
+        }
+
+        while (valueStart < length) {
+            final byte b = line[valueStart];
+            if (b != ' ' && b != '\t' && b != '\f') {
+                if (!hasSeparator && (b == '=' || b == ':')) {
+                    hasSeparator = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+
+        builder.put(convert(0, keyLength), convert(valueStart, length - valueStart));
+    }
+
+    private String convert(final int offset, final int length) throws IOException {
+        boolean plain = true;
+        for (int i = offset; i < offset + length && plain; i++) {
+            plain = line[i] >= 0 && line[i] != '\\';
+        }
+        if (plain) {
+            // Pure ASCII, which Latin-1 decodes without any checks
+            return new String(line, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        final CharBuffer chars = decoder.decode(ByteBuffer.wrap(line, offset, length));
+        unescaped.setLength(0);
+        while (chars.hasRemaining()) {
+            final char c = chars.get();
+            if (c != '\\' || !chars.hasRemaining()) {
+                unescaped.append(c);
+                continue;
+            }
+
+            final char escaped = chars.get();
+            switch (escaped) {
+                case 't':
+                    unescaped.append('\t');
+                    break;
+                case 'r':
+                    unescaped.append('\r');
+                    break;
+                case 'n':
+                    unescaped.append('\n');
+                    break;
+                case 'f':
+                    unescaped.append('\f');
+                    break;
+                case 'u':
+                    unescaped.append(unicode(chars));
+                    break;
+                default:
+                    unescaped.append(escaped);
+                    break;
+            }
+        }
+        return unescaped.toString();
+    }
+
+    private static char unicode(final CharBuffer chars) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            final int digit = chars.hasRemaining() ? Character.digit(chars.get(), 16) : -1;
+            if (digit < 0) {
+                throw new IOException("Malformed \\uxxxx encoding");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+}
@@ -0,0 +1,83 @@
+package io.liquorice.config.storage.file.properties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes properties that {@link PropertiesReader} and {@link java.util.Properties#load(java.io.Reader)} read back
+ * unchanged, escaped as by {@link java.util.Properties#store(Writer, String)}
+ *
+ * <p>
+ * Unlike {@link java.util.Properties#store(Writer, String)}, no timestamp comment is written, and the keys are written
+ * in order, so that writing the same properties always writes the same bytes.
+ */
+final class PropertiesWriter {
+
+    private PropertiesWriter() {
+        // Utility class
+    }
+
+    /**
+     * Write $properties to $writer, which is flushed but not closed
+     *
+     * @param writer
+     *            the {@link Writer}
+     * @param properties
+     *            the properties
+     * @throws IOException
+     *             if the properties could not be written
+     */
+    static void write(final Writer writer, final Map<String, String> properties) throws IOException {
+        final BufferedWriter bufferedWriter = new BufferedWriter(writer);
+        final StringBuilder line = new StringBuilder();
+        for (final Map.Entry<String, String> entry : new TreeMap<>(properties).entrySet()) {
+            line.setLength(0);
+            escape(line, entry.getKey(), true);
+            line.append('=');
+            escape(line, entry.getValue(), false);
+            bufferedWriter.append(line);
+            bufferedWriter.newLine();
+        }
+        bufferedWriter.flush();
+    }
+
+    private static void escape(final StringBuilder line, final String string, final boolean isKey) {
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            switch (c) {
+                case ' ':
+                    // Leading whitespace of a value, and any whitespace in a key, would otherwise be lost
+                    if (isKey || i == 0) {
+                        line.append('\\');
+                    }
+                    line.append(c);
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\f':
+                    line.append("\\f");
+                    break;
+                case '\\':
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    line.append('\\').append(c);
+                    break;
+                default:
+                    line.append(c);
+                    break;
+            }
+        }
+    }
+}
@@ -8,26 +8,61 @@ import java.io.Reader;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Properties;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
+import io.liquorice.config.api.event.ConfigReadEvent;
+import io.liquorice.config.api.event.ConfigReloadEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
 import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
 import io.liquorice.config.api.storage.ConfigSpace;
 import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.storage.file.FileWatcher;
+import io.liquorice.config.storage.file.MappedFileChannels;
 
 /**
  * A FasterXML/jackson-backed implementation of a {@link ConfigSpace} where the contained items are unmodifiable after
  * creation
+ *
+ * <p>
+ * The file is scanned byte by byte into a compact index, with the same syntax as {@link java.util.Properties}. Boolean
+ * and numeric properties written in their canonical form are parsed once, as the index is built, and later reads never
+ * parse them again. Any other property is parsed from its stored string on its first read, without going through the
+ * {@link ConfigFormatter}, and the outcome is kept until the property changes. A property that fails to parse fails
+ * every later read without being parsed again.
+ *
+ * <p>
+ * The index is never modified once published. Updates by extending classes replace it as a whole, so reads are
+ * lock-free and a {@link ConfigSnapshot} only needs to hold on to the current index.
+ *
+ * <p>
+ * When built with {@link Builder#withReloadOnChange(Path)}, the file is parsed again on a background thread whenever
+ * it changes, and the new contents are published in a single step. Readers never wait for a reload.
+ *
+ * <p>
+ * When built with {@link Builder#withMemoryMappedLoading()}, the file is mapped into memory and scanned in place,
+ * rather than copied into a buffer first.
  */
-public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
+public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace implements AutoCloseable {
 
     private static final Function<FileChannel, Reader> DEFAULT_FILE_CHANNEL_READER_FUNCTION = internalFileChannel -> Channels
             .newReader(requireNonNull(internalFileChannel), StandardCharsets.UTF_8.name());
 
+    private static final Duration DEFAULT_RELOAD_DEBOUNCE = Duration.ofMillis(100);
+
     private final FileChannel fileChannel;
     private final Function<FileChannel, Reader> fileChannelReaderFunction;
-    private final Properties properties;
+    private final boolean memoryMapped;
+    private final Path reloadPath;
+    private final FileWatcher.Registration reloadRegistration;
+    private volatile PropertiesIndex properties;
 
     /**
      * CTOR
@@ -37,18 +72,27 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
      *
      */
     protected ReadablePropertiesFileConfigSpace(final ReadablePropertiesFileConfigSpace configSpace) {
-        super(configSpace.getConfigFormatter());
+        super(configSpace);
         this.properties = configSpace.properties;
         this.fileChannel = configSpace.fileChannel;
         this.fileChannelReaderFunction = configSpace.fileChannelReaderFunction;
+        this.memoryMapped = configSpace.memoryMapped;
+
+        // Copies never reload on their own
+        this.reloadPath = null;
+        this.reloadRegistration = null;
     }
 
     private ReadablePropertiesFileConfigSpace(final Builder builder) throws IOException {
-        super(builder.configFormatter);
-        this.properties = new Properties();
+        super(builder.configFormatter, builder.decodedObjectCacheSize);
         this.fileChannel = builder.fileChannel;
         this.fileChannelReaderFunction = builder.fileChannelReaderFunction;
-        properties.load(this.fileChannelReaderFunction.apply(this.fileChannel));
+        this.memoryMapped = builder.memoryMapped;
+        this.properties = load(this.fileChannel);
+
+        this.reloadPath = builder.reloadPath;
+        this.reloadRegistration = reloadPath == null ? null
+                : FileWatcher.getInstance().register(reloadPath, builder.reloadDebounce, this::reload);
     }
 
     /**
@@ -63,7 +107,24 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public boolean getBooleanRequired(final String key) throws ConfigurationException {
-        return Boolean.parseBoolean(getStringRequired(key));
+        final PropertiesIndex index = properties;
+        return index.isTrue(findRequired(index, key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        requireNonNull(key, "Key cannot be null");
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final PropertiesIndex index = properties;
+        final int slot = index.find(key);
+        // Any value has a boolean form, so only missing keys fall back to the default
+        final boolean result = slot >= 0 ? index.isTrue(slot) : defaultValue;
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -71,11 +132,17 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public double getDoubleRequired(final String key) throws ConfigurationException {
-        try {
-            return Double.parseDouble(getStringRequired(key));
-        } catch (final NumberFormatException e) {
-            throw new ConfigurationException("Failed to read property '%s'", e);
+        final PropertiesIndex index = properties;
+        final int slot = findRequired(index, key);
+        if (index.isDouble(slot)) {
+            return index.doubleValue(slot);
+        }
+
+        final Object parsed = index.parseDouble(slot);
+        if (parsed instanceof Double) {
+            return (Double) parsed;
         }
+        throw new ConfigurationException(String.format("Failed to read property '%s'", key), (Throwable) parsed);
     }
 
     /**
@@ -83,11 +150,17 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public int getIntRequired(final String key) throws ConfigurationException {
-        try {
-            return Integer.parseInt(getStringRequired(key));
-        } catch (final NumberFormatException e) {
-            throw new ConfigurationException("Failed to read property '%s'", e);
+        final PropertiesIndex index = properties;
+        final int slot = findRequired(index, key);
+        if (index.isInt(slot)) {
+            return (int) index.longValue(slot);
         }
+
+        final Object parsed = index.parseInt(slot);
+        if (parsed instanceof Integer) {
+            return (Integer) parsed;
+        }
+        throw new ConfigurationException(String.format("Failed to read property '%s'", key), (Throwable) parsed);
     }
 
     /**
@@ -95,11 +168,86 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public long getLongRequired(final String key) throws ConfigurationException {
-        try {
-            return Long.parseLong(getStringRequired(key));
-        } catch (final NumberFormatException e) {
-            throw new ConfigurationException("Failed to read property '%s'", e);
+        final PropertiesIndex index = properties;
+        final int slot = findRequired(index, key);
+        if (index.isLong(slot)) {
+            return index.longValue(slot);
+        }
+
+        final Object parsed = index.parseLong(slot);
+        if (parsed instanceof Long) {
+            return (Long) parsed;
         }
+        throw new ConfigurationException(String.format("Failed to read property '%s'", key), (Throwable) parsed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final String key, final double defaultValue) {
+        requireNonNull(key, "Key cannot be null");
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final PropertiesIndex index = properties;
+        final int slot = index.find(key);
+        final double result;
+        if (slot < 0) {
+            result = defaultValue;
+        } else if (index.isDouble(slot)) {
+            result = index.doubleValue(slot);
+        } else {
+            final Object parsed = index.parseDouble(slot);
+            result = parsed instanceof Double ? (Double) parsed : defaultValue;
+        }
+        event.complete(this, key);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final String key, final int defaultValue) {
+        requireNonNull(key, "Key cannot be null");
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final PropertiesIndex index = properties;
+        final int slot = index.find(key);
+        final int result;
+        if (slot < 0) {
+            result = defaultValue;
+        } else if (index.isInt(slot)) {
+            result = (int) index.longValue(slot);
+        } else {
+            final Object parsed = index.parseInt(slot);
+            result = parsed instanceof Integer ? (Integer) parsed : defaultValue;
+        }
+        event.complete(this, key);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(final String key, final long defaultValue) {
+        requireNonNull(key, "Key cannot be null");
+        final ConfigReadEvent event = new ConfigReadEvent();
+        event.begin();
+        final PropertiesIndex index = properties;
+        final int slot = index.find(key);
+        final long result;
+        if (slot < 0) {
+            result = defaultValue;
+        } else if (index.isLong(slot)) {
+            result = index.longValue(slot);
+        } else {
+            final Object parsed = index.parseLong(slot);
+            result = parsed instanceof Long ? (Long) parsed : defaultValue;
+        }
+        event.complete(this, key);
+        return result;
     }
 
     /**
@@ -108,7 +256,7 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
     @Override
     public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
         try {
-            return getConfigFormatter().read(getNonNullable(key), clazz).get();
+            return decode(key, getNonNullable(key), clazz);
         } catch (final Exception e) {
             throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
         }
@@ -131,31 +279,162 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
     }
 
     /**
-     * Get a reference to the {@link Properties} storing all of the contained properties
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(properties.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Stop reloading the contents of this {@link ReadablePropertiesFileConfigSpace}, if it was built to reload
+     */
+    @Override
+    public void close() {
+        if (reloadRegistration != null) {
+            reloadRegistration.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object lookup(final String key) {
+        return properties.get(key);
+    }
+
+    /**
+     * Get the read-only map storing all of the contained properties
      *
      * <p>
-     * NOTE: This is the actual backing store, not a copy. This method should only be used by extending classes
+     * NOTE: This is the current backing store, not a copy. It will not change, but may be replaced at any time by
+     * {@link #replaceBackingProperties(Map)}
      *
      * @return the backing store
      */
-    protected Properties getBackingProperties() {
+    protected Map<String, String> getBackingProperties() {
         return properties;
     }
 
+    /**
+     * Publish $properties as the new backing store, replacing the current one in a single step
+     *
+     * <p>
+     * NOTE: This method should only be used by extending classes, which must serialize their updates, must not modify
+     * $properties afterwards and must call {@link #markModified(String)} once it has been published
+     *
+     * @param properties
+     *            the new backing store, which is indexed unless it was returned by {@link #getBackingProperties()}.
+     *            Values that are unchanged keep their parsed form, while any other value is parsed again.
+     */
+    protected void replaceBackingProperties(final Map<String, String> properties) {
+        this.properties = PropertiesIndex.of(requireNonNull(properties), this.properties);
+    }
+
+    private static int findRequired(final PropertiesIndex index, final String key) throws ConfigurationException {
+        final int slot = index.find(requireNonEmpty(key));
+        if (slot < 0) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key));
+        }
+        return slot;
+    }
+
     private Object getNonNullable(final String key) {
-        final Object value = properties.getProperty(requireNonEmpty(key));
+        final Object value = lookup(requireNonEmpty(key));
         requireNonNull(value);
         return value;
     }
 
+    private PropertiesIndex load(final FileChannel channel) throws IOException {
+        if (memoryMapped) {
+            return PropertiesReader.read(MappedFileChannels.map(channel));
+        } else if (fileChannelReaderFunction == DEFAULT_FILE_CHANNEL_READER_FUNCTION) {
+            // Scan the bytes, rather than decoding them all through a Reader first
+            return PropertiesReader.read(channel);
+        }
+        return PropertiesReader.read(fileChannelReaderFunction.apply(channel));
+    }
+
+    private void reload() {
+        final ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
+        final PropertiesIndex reloadedProperties;
+        try (final FileChannel reloadChannel = FileChannel.open(reloadPath, StandardOpenOption.READ)) {
+            if (event.isEnabled()) {
+                event.setBytesRead(reloadChannel.size());
+            }
+            reloadedProperties = load(reloadChannel);
+        } catch (final IOException | RuntimeException e) {
+            // Keep serving the previous contents, e.g. while the file is only partially written
+            throw new ConfigurationException(String.format("Failed to reload '%s'", reloadPath), e);
+        }
+
+        final Set<String> changedKeys;
+        synchronized (this) {
+            changedKeys = changedKeys(properties, reloadedProperties);
+            if (!changedKeys.isEmpty()) {
+                properties = reloadedProperties;
+                markModified(changedKeys);
+            }
+        }
+        event.complete(this, reloadPath, changedKeys.size());
+    }
+
+    private static Set<String> changedKeys(final Map<String, String> previousProperties,
+            final Map<String, String> currentProperties) {
+        final Set<String> changedKeys = new HashSet<>();
+        for (final Map.Entry<String, String> entry : previousProperties.entrySet()) {
+            if (!entry.getValue().equals(currentProperties.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (final String key : currentProperties.keySet()) {
+            if (!previousProperties.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} holding on to the backing index at the time it was taken
+     */
+    private static final class Snapshot extends ReadablePropertiesFileConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final ReadablePropertiesFileConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+
     /**
      * Builder
      */
     public static final class Builder {
 
         private ConfigFormatter configFormatter;
+        private int decodedObjectCacheSize;
         private FileChannel fileChannel;
         private Function<FileChannel, Reader> fileChannelReaderFunction;
+        private boolean memoryMapped;
+        private Path reloadPath;
+        private Duration reloadDebounce;
 
         /**
          * CTOR
@@ -176,6 +455,21 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the stored value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.decodedObjectCacheSize = decodedObjectCacheSize;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link ConfigFormatter} with a custom one
          *
@@ -188,6 +482,51 @@ public class ReadablePropertiesFileConfigSpace extends AbstractConfigSpace {
             return this;
         }
 
+        /**
+         * Reload the contents whenever the file at $path changes
+         *
+         * <p>
+         * Changes are picked up by a {@link FileWatcher} and debounced by 100ms. A file that fails to parse is
+         * ignored until it changes again. Call {@link ReadablePropertiesFileConfigSpace#close()} to stop reloading.
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path) {
+            return withReloadOnChange(path, DEFAULT_RELOAD_DEBOUNCE);
+        }
+
+        /**
+         * Reload the contents whenever the file at $path changes, once it has been unchanged for $debounce
+         *
+         * @param path
+         *            the path of the file read through the {@link FileChannel}
+         * @param debounce
+         *            how long the file must remain unchanged before it is reloaded
+         * @return this
+         */
+        public Builder withReloadOnChange(final Path path, final Duration debounce) {
+            this.reloadPath = path;
+            this.reloadDebounce = debounce;
+            return this;
+        }
+
+        /**
+         * Load the file by mapping it into memory and scanning it in place, rather than reading it into a buffer
+         *
+         * <p>
+         * This avoids copying large files into the heap. The {@link FileChannel} to {@link Reader} {@link Function}
+         * is not used. Disabled by default.
+         *
+         * @return this
+         * @see MappedFileChannels
+         */
+        public Builder withMemoryMappedLoading() {
+            this.memoryMapped = true;
+            return this;
+        }
+
         /**
          * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
          *
@@ -10,14 +10,30 @@ import java.io.Writer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import io.liquorice.config.api.event.ConfigPersistEvent;
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
 import io.liquorice.config.api.storage.WritableConfigSpace;
+import io.liquorice.config.storage.file.AtomicFileWriter;
+import io.liquorice.config.storage.file.CountingWriter;
+import io.liquorice.config.storage.file.Journal;
+import io.liquorice.config.storage.file.WriteBehind;
 
 /**
- * A {@link java.util.Properties} backed implementation of a {@link WritableConfigSpace} where the contained items can
- * be modified
+ * A properties file backed implementation of a {@link WritableConfigSpace} where the contained items can be modified
+ *
+ * <p>
+ * The file is written with the same escapes as {@link java.util.Properties}, but in key order and without a timestamp
+ * comment, so that the same contents are always written the same way.
  */
 public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileConfigSpace implements WritableConfigSpace {
 
@@ -26,11 +42,82 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
 
     private final FileChannel fileChannel;
     private final Function<FileChannel, Writer> fileChannelWriterFunction;
+    private final AtomicFileWriter atomicFileWriter;
+    private final WriteBehind writeBehind;
+    private final Journal journal;
+    private final long journalCompactionThreshold;
+    private final AtomicFileWriter journalBaseWriter;
+    private final WriteBehind journalCompactor;
 
     private WritablePropertiesFileConfigSpace(final Builder builder) {
         super(builder.delegateBuilder.build());
         this.fileChannel = builder.fileChannel;
         this.fileChannelWriterFunction = builder.fileChannelWriterFunction;
+        this.atomicFileWriter = builder.atomicFileWriter;
+        this.writeBehind = builder.writeBehindInterval == null ? null
+                : new WriteBehind(builder.writeBehindInterval, this::updateOnDiskStore);
+
+        this.journalCompactionThreshold = builder.journalCompactionThreshold;
+        if (builder.journalPath == null) {
+            this.journal = null;
+            this.journalBaseWriter = null;
+            this.journalCompactor = null;
+        } else {
+            this.journal = openJournal(builder.journalPath, builder.journalSyncPolicy);
+            this.journalBaseWriter = new AtomicFileWriter(builder.journalPath, builder.journalSyncPolicy);
+            this.journalCompactor = new WriteBehind(Duration.ZERO, this::compactJournal);
+        }
+    }
+
+    /**
+     * Write any changes not yet persisted to disk, if built to write behind
+     *
+     * @throws UncheckedIOException
+     *             if the file could not be written
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Write any changes not yet persisted to disk, and stop reloading, if built to reload on change
+     *
+     * @throws UncheckedIOException
+     *             if the file could not be written
+     */
+    @Override
+    public void close() {
+        try {
+            if (writeBehind != null) {
+                writeBehind.close();
+            }
+            if (journal != null) {
+                journalCompactor.close();
+                journal.close();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final Batch batch = new Batch();
+        try {
+            changes.accept(batch);
+        } finally {
+            batch.closed = true;
+        }
+        update(batch.changes);
     }
 
     /**
@@ -40,8 +127,7 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
     public void remove(final String key) {
         requireNonEmpty(key);
 
-        getBackingProperties().remove(key);
-        updateOnDiskStore();
+        update(Collections.singletonMap(key, null));
     }
 
     /**
@@ -49,7 +135,7 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
      */
     @Override
     public void setBoolean(final String key, final boolean value) {
-        setObject(key, Boolean.toString(value));
+        setProperty(key, Boolean.toString(value));
     }
 
     /**
@@ -57,7 +143,7 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
      */
     @Override
     public void setDouble(final String key, final double value) {
-        setObject(key, Double.toString(value));
+        setProperty(key, Double.toString(value));
     }
 
     /**
@@ -65,7 +151,7 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
      */
     @Override
     public void setInt(final String key, final int value) {
-        setObject(key, Integer.toString(value));
+        setProperty(key, Integer.toString(value));
     }
 
     /**
@@ -73,7 +159,7 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
      */
     @Override
     public void setLong(final String key, final long value) {
-        setObject(key, Long.toString(value));
+        setProperty(key, Long.toString(value));
     }
 
     /**
@@ -93,21 +179,126 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
         requireNonEmpty(key);
         requireNonNull(value, "Null value. Call ConfigSpace#remove to instead.");
 
-        // Update the cached copy of the property
-        getBackingProperties().setProperty(key, getConfigFormatter().write(value).toString());
+        update(Collections.singletonMap(key, toProperty(value)));
+    }
+
+    private void setProperty(final String key, final String value) {
+        requireNonEmpty(key);
+
+        // Primitives are stored in their canonical string form, without going through the formatter
+        update(Collections.singletonMap(key, value));
+    }
 
-        // Update the on-disk copy of the property
-        updateOnDiskStore();
+    private String toProperty(final Object value) {
+        return getConfigFormatter().write(value).toString();
+    }
+
+    private synchronized void update(final Map<String, String> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        apply(changes);
+
+        // Update the on-disk copy of the properties
+        if (journal != null) {
+            appendToJournal(changes);
+        } else if (writeBehind == null) {
+            updateOnDiskStore();
+        } else {
+            writeBehind.markDirty();
+        }
+    }
+
+    private void apply(final Map<String, String> changes) {
+        // Copy-on-write, so that readers and snapshots never observe a map while it is being modified
+        final Map<String, String> properties = new HashMap<>(getBackingProperties());
+        for (final Map.Entry<String, String> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                properties.remove(change.getKey());
+            } else {
+                properties.put(change.getKey(), change.getValue());
+            }
+        }
+
+        // Update the cached copy of the properties
+        replaceBackingProperties(properties);
+        markModified(changes.keySet());
+    }
+
+    private Journal openJournal(final Path path, final AtomicFileWriter.SyncPolicy syncPolicy) {
+        try {
+            final Journal openedJournal = new Journal(path.resolveSibling(path.getFileName() + ".journal"), syncPolicy);
+            try {
+                // Bring the contents read from the file up to date with the changes not yet folded into it
+                final Map<String, String> changes = new LinkedHashMap<>();
+                openedJournal.replay(changes::put);
+                if (!changes.isEmpty()) {
+                    apply(changes);
+                }
+                return openedJournal;
+            } catch (final IOException | RuntimeException e) {
+                openedJournal.close();
+                throw e;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendToJournal(final Map<String, String> changes) {
+        try {
+            journal.append(changes);
+
+            if (journal.size() >= journalCompactionThreshold) {
+                journalCompactor.markDirty();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compactJournal() {
+        try {
+            // Every change is published before it is journaled, so the file written next includes every record so far
+            final long offset = journal.size();
+            journalBaseWriter.write(this::writeTo);
+            journal.truncateBefore(offset);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private void updateOnDiskStore() {
+        final ConfigPersistEvent event = new ConfigPersistEvent();
+        event.begin();
         try {
-            try (final Writer writer = fileChannelWriterFunction.apply(fileChannel)) {
-                getBackingProperties().store(requireNonNull(writer), null);
+            if (atomicFileWriter != null) {
+                atomicFileWriter.write(writer -> writeTo(writer, event));
+            } else {
+                try (final Writer writer = fileChannelWriterFunction.apply(fileChannel)) {
+                    writeTo(requireNonNull(writer), event);
+                }
             }
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
+        event.complete(this, atomicFileWriter == null ? null : atomicFileWriter.getPath());
+    }
+
+    private void writeTo(final Writer writer, final ConfigPersistEvent event) throws IOException {
+        // Counting every character written is only worth it while the event is being recorded
+        if (!event.isEnabled()) {
+            writeTo(writer);
+            return;
+        }
+        final CountingWriter countingWriter = new CountingWriter(writer);
+        writeTo(countingWriter);
+        event.setBytesWritten(countingWriter.getByteCount());
+    }
+
+    private void writeTo(final Writer writer) throws IOException {
+        PropertiesWriter.write(writer, getBackingProperties());
     }
 
     /**
@@ -118,6 +309,58 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
         setObject(key, value);
     }
 
+    /**
+     * Stages changes for {@link #batch(Consumer)}, encoding them as strings up front
+     */
+    private final class Batch implements ConfigBatch {
+        private final Map<String, String> changes = new LinkedHashMap<>();
+        private boolean closed;
+
+        @Override
+        public void remove(final String key) {
+            stage(key, null);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            stage(key, Boolean.toString(value));
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            stage(key, Double.toString(value));
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            stage(key, Integer.toString(value));
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            stage(key, Long.toString(value));
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            requireNonNull(value, "Null value. Call ConfigBatch#remove instead.");
+            stage(key, toProperty(value));
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            setObject(key, value);
+        }
+
+        private void stage(final String key, final String value) {
+            requireNonEmpty(key);
+            if (closed) {
+                throw new IllegalStateException("Batch has already been applied");
+            }
+            changes.put(key, value);
+        }
+    }
+
     /**
      * Builder
      */
@@ -126,6 +369,11 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
         private ReadablePropertiesFileConfigSpace.Builder delegateBuilder;
         private FileChannel fileChannel;
         private Function<FileChannel, Writer> fileChannelWriterFunction;
+        private AtomicFileWriter atomicFileWriter;
+        private Duration writeBehindInterval;
+        private Path journalPath;
+        private long journalCompactionThreshold;
+        private AtomicFileWriter.SyncPolicy journalSyncPolicy;
 
         /**
          * CTOR
@@ -147,6 +395,21 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
             return this;
         }
 
+        /**
+         * Cache up to $decodedObjectCacheSize decoded objects, rather than decoding the stored value on every read
+         *
+         * <p>
+         * NOTE: Cached objects are shared between callers and should be treated as immutable. Disabled (0) by default.
+         *
+         * @param decodedObjectCacheSize
+         *            the maximum number of keys to cache decoded objects for
+         * @return this
+         */
+        public Builder withDecodedObjectCacheSize(final int decodedObjectCacheSize) {
+            this.delegateBuilder.withDecodedObjectCacheSize(decodedObjectCacheSize);
+            return this;
+        }
+
         /**
          * Overwrite the default {@link ConfigFormatter} with a custom one
          *
@@ -160,6 +423,17 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
             return this;
         }
 
+        /**
+         * Load the file by mapping it into memory
+         *
+         * @return this
+         * @see ReadablePropertiesFileConfigSpace.Builder#withMemoryMappedLoading()
+         */
+        public Builder withMemoryMappedLoading() {
+            this.delegateBuilder.withMemoryMappedLoading();
+            return this;
+        }
+
         /**
          * Overwrite the default {@link FileChannel} to {@link Reader} {@link Function} with a custom one
          *
@@ -190,6 +464,100 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
             return this;
         }
 
+        /**
+         * Persist changes by atomically replacing the file at $path, rather than by writing through the
+         * {@link FileChannel}
+         *
+         * <p>
+         * Each write goes to a temporary file next to $path, which is forced to the storage device and renamed over
+         * $path, so that neither readers nor a crash ever observe a partially written file. $path should be the file
+         * the {@link FileChannel} was opened on.
+         *
+         * @param path
+         *            the file to write
+         * @return this
+         */
+        public Builder withAtomicWrites(final Path path) {
+            return withAtomicWrites(path, AtomicFileWriter.SyncPolicy.DATA_AND_DIRECTORY);
+        }
+
+        /**
+         * Persist changes by atomically replacing the file at $path, forcing each write as far as $syncPolicy
+         *
+         * @param path
+         *            the file to write
+         * @param syncPolicy
+         *            the {@link AtomicFileWriter.SyncPolicy}
+         * @return this
+         * @see #withAtomicWrites(Path)
+         */
+        public Builder withAtomicWrites(final Path path, final AtomicFileWriter.SyncPolicy syncPolicy) {
+            this.atomicFileWriter = new AtomicFileWriter(path, syncPolicy);
+            return this;
+        }
+
+        /**
+         * Persist changes by appending them to a journal next to the file at $path, rather than by rewriting the file
+         *
+         * <p>
+         * Each write appends a compact record of every changed key to "$path.journal", so that it costs time
+         * proportional to the change rather than to the file. The journal is replayed over the file when this
+         * {@link WritablePropertiesFileConfigSpace} is built, and is folded back into the file on a background thread
+         * once it grows past $compactionThreshold bytes. $path should be the file the {@link FileChannel} was opened
+         * on.
+         *
+         * @param path
+         *            the file the journal belongs to
+         * @param compactionThreshold
+         *            the size of the journal, in bytes, above which it is folded into the file
+         * @return this
+         */
+        public Builder withJournal(final Path path, final long compactionThreshold) {
+            return withJournal(path, compactionThreshold, AtomicFileWriter.SyncPolicy.DATA);
+        }
+
+        /**
+         * Persist changes by appending them to a journal, forcing each append and compaction as far as $syncPolicy
+         *
+         * @param path
+         *            the file the journal belongs to
+         * @param compactionThreshold
+         *            the size of the journal, in bytes, above which it is folded into the file
+         * @param syncPolicy
+         *            the {@link AtomicFileWriter.SyncPolicy}
+         * @return this
+         * @see #withJournal(Path, long)
+         */
+        public Builder withJournal(final Path path, final long compactionThreshold,
+                final AtomicFileWriter.SyncPolicy syncPolicy) {
+            if (compactionThreshold <= 0) {
+                throw new IllegalArgumentException("Compaction threshold must be positive");
+            }
+            this.journalPath = requireNonNull(path, "Path cannot be null");
+            this.journalCompactionThreshold = compactionThreshold;
+            this.journalSyncPolicy = requireNonNull(syncPolicy, "Sync policy cannot be null");
+            return this;
+        }
+
+        /**
+         * Persist changes on a background thread, rather than on the writing thread
+         *
+         * <p>
+         * Writes update the in-memory contents immediately, and every change made within $interval of the first is
+         * persisted by a single write of the file. Failed writes are passed to the background thread's
+         * {@link Thread.UncaughtExceptionHandler} and retried, and are thrown by
+         * {@link WritablePropertiesFileConfigSpace#flush()} and {@link WritablePropertiesFileConfigSpace#close()}.
+         * Disabled by default.
+         *
+         * @param interval
+         *            how long to wait after a change before writing the file
+         * @return this
+         */
+        public Builder withWriteBehind(final Duration interval) {
+            this.writeBehindInterval = requireNonNull(interval, "Interval cannot be null");
+            return this;
+        }
+
         /**
          * Build
          *
@@ -198,6 +566,9 @@ public class WritablePropertiesFileConfigSpace extends ReadablePropertiesFileCon
         public WritablePropertiesFileConfigSpace build() {
             requireNonNull(fileChannel);
             requireNonNull(fileChannelWriterFunction);
+            if (journalPath != null && writeBehindInterval != null) {
+                throw new IllegalStateException("A journal cannot be combined with write-behind");
+            }
 
             return new WritablePropertiesFileConfigSpace(this);
         }
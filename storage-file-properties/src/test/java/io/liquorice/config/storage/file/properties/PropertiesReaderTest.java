@@ -0,0 +1,119 @@
+package io.liquorice.config.storage.file.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class PropertiesReaderTest {
+
+    @Test
+    void testMatchesJavaUtilProperties() throws Exception {
+        assertSameAsProperties("a=1\nb = 2\nc:3\nd 4\ne\t=\t5\n  f  :  6  \n");
+        assertSameAsProperties("# comment\n! comment = too\n\n   \n\tkey=value\n#last");
+        assertSameAsProperties("a=1\r\nb=2\rc=3\n");
+        assertSameAsProperties("key=first\\\n    second\\\r\n\tthird\nnext=value");
+        assertSameAsProperties("key=value\\\\\nother=even backslashes do not continue");
+        assertSameAsProperties("key=line\\\n# not a comment\n");
+        assertSameAsProperties("\\\n\nkey=after blank continuation");
+        assertSameAsProperties("trailing=backslash\\");
+        assertSameAsProperties("a\\ b\\=c\\:d=e\\tf\\ng\\rh\\fi\\\\j\\qk");
+        assertSameAsProperties("unicode=\\u00e9t\\u00E9 \\u20ac");
+        assertSameAsProperties("noValue\nemptyValue=\nonlySeparator   =   \n==\n::x");
+        assertSameAsProperties("key = = value\nkey2 :: value\nkey3 value with spaces  ");
+        assertSameAsProperties("dup=first\ndup=second");
+        assertSameAsProperties("\u00e9t\u00e9=\u20ac \ud83d\ude00");
+    }
+
+    @Test
+    void testTypedValues() throws Exception {
+        final PropertiesIndex index = PropertiesReader.read(utf8(
+                "bool=TRUE\nfalse=false\nint=-42\nlong=9000000000\ndouble=1.5e3\noverflow=99999999999999999999\n"
+                        + "nan=NaN\ndate=2024-01-02\nspaced= 7 \nsign=+5\nfraction=.5"));
+
+        assertTrue(index.isTrue(index.find("bool")));
+        assertFalse(index.isTrue(index.find("false")));
+
+        final int intSlot = index.find("int");
+        assertTrue(index.isInt(intSlot) && index.isLong(intSlot) && index.isDouble(intSlot));
+        assertEquals(-42L, index.longValue(intSlot));
+        assertEquals(-42.0, index.doubleValue(intSlot));
+
+        final int longSlot = index.find("long");
+        assertFalse(index.isInt(longSlot));
+        assertEquals(9000000000L, index.longValue(longSlot));
+
+        final int doubleSlot = index.find("double");
+        assertFalse(index.isLong(doubleSlot));
+        assertEquals(1500.0, index.doubleValue(doubleSlot));
+
+        final int overflowSlot = index.find("overflow");
+        assertFalse(index.isLong(overflowSlot));
+        assertTrue(index.isDouble(overflowSlot));
+
+        assertFalse(index.isDouble(index.find("nan")));
+        assertFalse(index.isDouble(index.find("date")));
+        assertEquals("7 ", index.get("spaced"));
+        assertFalse(index.isDouble(index.find("spaced")));
+        assertEquals(5L, index.longValue(index.find("sign")));
+        assertEquals(0.5, index.doubleValue(index.find("fraction")));
+    }
+
+    @Test
+    void testReadFromReader() throws Exception {
+        final PropertiesIndex index = PropertiesReader.read(new StringReader("key=\u00e9t\u00e9\\\n  suite"));
+
+        assertEquals(1, index.size());
+        assertEquals("\u00e9t\u00e9suite", index.get("key"));
+    }
+
+    @Test
+    void testMalformedInput() {
+        assertThrows(IOException.class, () -> PropertiesReader.read(utf8("key=\\u00g9")));
+        assertThrows(IOException.class, () -> PropertiesReader.read(utf8("key=\\u00")));
+        assertThrows(IOException.class,
+                () -> PropertiesReader.read(ByteBuffer.wrap(new byte[] { 'k', '=', (byte) 0xC3, '\\', 't' })));
+    }
+
+    @Test
+    void testLeavesPositionUnchanged() throws Exception {
+        final ByteBuffer bytes = utf8("ignored=1\nkey=value");
+        bytes.position(10);
+
+        final PropertiesIndex index = PropertiesReader.read(bytes);
+
+        assertEquals(Map.of("key", "value"), index);
+        assertEquals(10, bytes.position());
+    }
+
+    private static void assertSameAsProperties(final String input) throws Exception {
+        final Properties properties = new Properties();
+        properties.load(new StringReader(input));
+        final Map<String, String> expected = new HashMap<>();
+        for (final String name : properties.stringPropertyNames()) {
+            expected.put(name, properties.getProperty(name));
+        }
+
+        final PropertiesIndex index = PropertiesReader.read(utf8(input));
+
+        assertEquals(expected, index, input);
+        assertEquals(expected.size(), index.size(), input);
+        for (final Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), index.get(entry.getKey()), input);
+        }
+    }
+
+    private static ByteBuffer utf8(final String input) {
+        return ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package io.liquorice.config.storage.file.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class PropertiesWriterTest {
+
+    @Test
+    void testWritesInKeyOrder() throws Exception {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("b", "2");
+        properties.put("a", "1");
+        properties.put("c", "3");
+
+        final StringWriter writer = new StringWriter();
+        PropertiesWriter.write(writer, properties);
+
+        final String separator = System.lineSeparator();
+        assertEquals("a=1" + separator + "b=2" + separator + "c=3" + separator, writer.toString());
+    }
+
+    @Test
+    void testEscapes() throws Exception {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("key with spaces", " leading and inner spaces ");
+        properties.put("a=b:c#d!e", "f=g:h#i!j");
+        properties.put("ctrl\t\n\r\f", "\t\n\r\f\\");
+        properties.put("#comment", "!");
+        properties.put("unicode\u00e9", "\u20ac\ud83d\ude00");
+        properties.put("empty", "");
+
+        final StringWriter writer = new StringWriter();
+        PropertiesWriter.write(writer, properties);
+
+        final Properties readBack = new Properties();
+        readBack.load(new StringReader(writer.toString()));
+        final Map<String, String> expected = new HashMap<>();
+        for (final String name : readBack.stringPropertyNames()) {
+            expected.put(name, readBack.getProperty(name));
+        }
+        assertEquals(properties, expected);
+        assertEquals(properties,
+                PropertiesReader.read(ByteBuffer.wrap(writer.toString().getBytes(StandardCharsets.UTF_8))));
+        assertEquals("\\ leading and inner spaces ", line(writer.toString(), "key\\ with\\ spaces="));
+    }
+
+    private static String line(final String written, final String prefix) {
+        for (final String line : written.split(System.lineSeparator())) {
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+}
@@ -19,7 +19,9 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -27,8 +29,15 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -153,6 +162,19 @@ class ReadablePropertiesFileConfigSpaceTest {
         assertThrows(ConfigurationException.class, () -> configSpace.getLongRequired(BOOL_KEY));
     }
 
+    @Test
+    void testFailedParseIsRemembered() {
+        final ConfigurationException first = assertThrows(ConfigurationException.class,
+                () -> configSpace.getIntRequired(BOOL_KEY));
+        final ConfigurationException second = assertThrows(ConfigurationException.class,
+                () -> configSpace.getIntRequired(BOOL_KEY));
+
+        // The value is only parsed once, so both reads fail with the same cause
+        assertTrue(first.getCause() instanceof NumberFormatException);
+        assertSame(first.getCause(), second.getCause());
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(BOOL_KEY, DEFAULT_INT_VALUE));
+    }
+
     @Test
     void testRequiredStringPropertyOfWrongType() {
         assertThrows(ConfigurationException.class, () -> configSpace.getStringRequired(COMPLEX_KEY));
@@ -162,4 +184,53 @@ class ReadablePropertiesFileConfigSpaceTest {
     void testRequiredObjectPropertyOfWrongType() {
         assertThrows(ConfigurationException.class, () -> configSpace.getObjectRequired(BOOL_KEY, List.class));
     }
+
+    @Test
+    void testReloadOnChange() throws Exception {
+        final Path directory = Files.createTempDirectory("liquorice-config");
+        final Path file = directory.resolve("config.properties");
+        Files.write(file, List.of(INT_KEY + "=" + INT_VALUE, STRING_KEY + "=" + STRING_VALUE));
+
+        try (final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+                final ReadablePropertiesFileConfigSpace reloadingConfigSpace = //
+                        new ReadablePropertiesFileConfigSpace.Builder() //
+                        .withConfigFormatter(new PassThroughConfigFormatter()) //
+                        .withFileChannel(fileChannel) //
+                        .withReloadOnChange(file, Duration.ofMillis(50)) //
+                        .build()) {
+            final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+            reloadingConfigSpace.subscribeToPrefix("", (key, snapshot) -> changes.add(key));
+
+            Files.write(file, List.of(INT_KEY + "=" + DEFAULT_INT_VALUE, STRING_KEY + "=" + STRING_VALUE));
+
+            // Only the key whose value changed is reported
+            assertEquals(INT_KEY, changes.poll(30, TimeUnit.SECONDS));
+            assertEquals(DEFAULT_INT_VALUE, reloadingConfigSpace.getIntRequired(INT_KEY));
+            assertTrue(changes.isEmpty());
+        } finally {
+            Files.delete(file);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testMemoryMappedLoading() throws Exception {
+        final Path file = Files.createTempFile("liquorice-config", ".properties");
+        Files.write(file, List.of("# header", STRING_KEY + "=\u00e9t\u00e9", INT_KEY + " = " + INT_VALUE),
+                StandardCharsets.UTF_8);
+
+        try (final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ReadablePropertiesFileConfigSpace mappedConfigSpace = //
+                    new ReadablePropertiesFileConfigSpace.Builder() //
+                    .withConfigFormatter(new PassThroughConfigFormatter()) //
+                    .withFileChannel(fileChannel) //
+                    .withMemoryMappedLoading() //
+                    .build();
+
+            assertEquals("\u00e9t\u00e9", mappedConfigSpace.getStringRequired(STRING_KEY));
+            assertEquals(INT_VALUE, mappedConfigSpace.getIntRequired(INT_KEY));
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package io.liquorice.config.storage.file.properties;
 
 import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_VALUE;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
@@ -17,6 +18,8 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_LONG_
 import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -27,15 +30,25 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
 import java.util.function.Function;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.exception.ConfigurationException;
 import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
 
 /**
@@ -46,6 +59,11 @@ class WritablePropertiesFileConfigSpaceTest {
 
     private static WritablePropertiesFileConfigSpace createConfigSpace(final OutputStream outputStream,
             final FileChannel fileChannel) throws Exception {
+        return createBuilder(outputStream, fileChannel).build();
+    }
+
+    private static WritablePropertiesFileConfigSpace.Builder createBuilder(final OutputStream outputStream,
+            final FileChannel fileChannel) throws Exception {
         // Initialize seed properties
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         final Properties seedProperties = new Properties();
@@ -68,8 +86,7 @@ class WritablePropertiesFileConfigSpaceTest {
                 .withConfigFormatter(configFormatter) //
                 .withFileChannel(fileChannel) //
                 .withFileChannelReaderFunction(fileChannelReaderFunction) //
-                .withFileChannelWriterFunction(fileChannelWriterFunction) //
-                .build();
+                .withFileChannelWriterFunction(fileChannelWriterFunction);
     }
 
     @Mock
@@ -205,4 +222,172 @@ class WritablePropertiesFileConfigSpaceTest {
         assertEquals(LONG_VALUE, Long.parseLong(properties.getProperty(LONG_KEY)));
         assertEquals(STRING_VALUE, properties.getProperty(STRING_KEY));
     }
+
+    @Test
+    void testUpdateInvalidatesParsedValue() throws Exception {
+        // Setup mocks, with a new writer for every write
+        final Function<FileChannel, Writer> fileChannelWriterFunction = internalFileChannel -> new OutputStreamWriter(
+                new ByteArrayOutputStream(), StandardCharsets.UTF_8);
+        final WritablePropertiesFileConfigSpace configSpace = createBuilder(new ByteArrayOutputStream(), mockFileChannel)
+                .withFileChannelWriterFunction(fileChannelWriterFunction) //
+                .build();
+        assertEquals(INT_VALUE, configSpace.getIntRequired(INT_KEY));
+
+        // A value that fails to parse replaces one that was parsed
+        configSpace.setString(INT_KEY, "not a number");
+        assertThrows(ConfigurationException.class, () -> configSpace.getIntRequired(INT_KEY));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(INT_KEY, DEFAULT_INT_VALUE));
+
+        // A value without a canonical form replaces one that failed to parse
+        configSpace.setString(INT_KEY, "\u0661\u0662");
+        assertEquals(12, configSpace.getIntRequired(INT_KEY));
+        assertEquals(12, configSpace.getInt(INT_KEY, DEFAULT_INT_VALUE));
+
+        // Unchanged values are still read
+        assertEquals(LONG_VALUE, configSpace.getLongRequired(LONG_KEY));
+        assertEquals(DOUBLE_VALUE, configSpace.getDoubleRequired(DOUBLE_KEY));
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByUpdates() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final WritablePropertiesFileConfigSpace configSpace = createConfigSpace(baos, mockFileChannel);
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+
+        // Do the thing
+        configSpace.remove(BOOL_KEY);
+
+        // Verify the snapshot still holds the original properties
+        assertFalse(configSpace.hasValue(BOOL_KEY));
+        assertTrue(snapshot.hasValue(BOOL_KEY));
+        assertEquals(BOOL_VALUE, snapshot.getBooleanRequired(BOOL_KEY));
+    }
+
+    @Test
+    void testWriteBehindDefersWritesUntilFlushed() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final WritablePropertiesFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                .withWriteBehind(Duration.ofHours(1)) //
+                .build();
+
+        // Do the thing
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+
+        // Verify the cache properties were updated, but not yet the on disk properties
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(0, baos.size());
+
+        // Verify both updates are written at once. The writer is closed after the first write.
+        configSpace.close();
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(Integer.toString(UPDATED_INT_VALUE), properties.getProperty(INT_KEY));
+        assertEquals(UPDATED_STRING_VALUE, properties.getProperty(STRING_KEY));
+    }
+
+    @Test
+    void testAtomicWritesReplaceTheFile() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".properties");
+        Files.write(file, List.of("stale=a much longer value than any written by the update"));
+
+        try {
+            final WritablePropertiesFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withAtomicWrites(file) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+
+            // Verify the file was replaced rather than written through the channel
+            final Properties properties = new Properties();
+            try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            assertEquals(0, baos.size());
+            assertFalse(properties.containsKey("stale"));
+            assertEquals(Integer.toString(UPDATED_INT_VALUE), properties.getProperty(INT_KEY));
+            assertEquals(STRING_VALUE, properties.getProperty(STRING_KEY));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testJournalIsReplayedAndCompacted() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".properties");
+        final Path journal = file.resolveSibling(file.getFileName() + ".journal");
+
+        try {
+            final WritablePropertiesFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, Long.MAX_VALUE) //
+                    .build();
+
+            // Do the thing
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+            configSpace.close();
+
+            // Verify the change was journaled rather than written, and is replayed by the next config space
+            assertEquals(0, baos.size());
+            assertEquals(0, Files.size(file));
+            assertTrue(Files.size(journal) > 0);
+
+            final WritablePropertiesFileConfigSpace replayed = createBuilder(baos, mockFileChannel) //
+                    .withJournal(file, 1) //
+                    .build();
+            assertEquals(UPDATED_INT_VALUE, replayed.getIntRequired(INT_KEY));
+
+            // Verify the journal is folded into the file once it passes the threshold
+            replayed.remove(STRING_KEY);
+            replayed.close();
+
+            final Properties properties = new Properties();
+            try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            assertEquals(Integer.toString(UPDATED_INT_VALUE), properties.getProperty(INT_KEY));
+            assertFalse(properties.containsKey(STRING_KEY));
+            assertEquals(0, Files.size(journal));
+        } finally {
+            Files.deleteIfExists(journal);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testPersistEventRecordsTheBytesWritten() throws Exception {
+        // Setup mocks
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Path file = Files.createTempFile("liquorice-config", ".properties");
+        final Path recordingFile = Files.createTempFile("liquorice-config", ".jfr");
+
+        try (final Recording recording = new Recording()) {
+            recording.enable("io.liquorice.config.Persist");
+            final WritablePropertiesFileConfigSpace configSpace = createBuilder(baos, mockFileChannel) //
+                    .withAtomicWrites(file) //
+                    .build();
+
+            // Do the thing
+            recording.start();
+            configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+            recording.stop();
+            recording.dump(recordingFile);
+
+            // Verify a single event was recorded, which counted every byte of the file
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertEquals(1, events.size());
+            assertEquals(WritablePropertiesFileConfigSpace.class.getName(), events.get(0).getString("backend"));
+            assertEquals(file.toAbsolutePath().toString(), events.get(0).getString("path"));
+            assertEquals(Files.size(file), events.get(0).getLong("bytesWritten"));
+        } finally {
+            Files.delete(recordingFile);
+            Files.delete(file);
+        }
+    }
 }
@@ -0,0 +1,321 @@
+package io.liquorice.config.storage.inmemory;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
+import io.liquorice.config.api.storage.ConfigListener;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.WritableConfigSpace;
+
+/**
+ * A {@link ConcurrentHashMap} backed implementation of a {@link WritableConfigSpace} for many concurrent writers
+ *
+ * <p>
+ * Unlike a {@link WritableMapConfigSpace}, which copies its backing map on every write, the backing map is updated in
+ * place by single-key writes. Reads never block, and writes to different keys do not contend beyond the striping of
+ * the map, so a write is O(1) however many items are contained. Every read and write of a single key is linearizable.
+ *
+ * <p>
+ * The cost moves to {@link #snapshot()} and {@link #batch(Consumer)}, which both copy the map while holding back
+ * writers. A batch is applied to the copy, which then replaces the backing map, so every read sees either all or none
+ * of it. To hold back writers, single-key writes share the read side of one of several lock stripes, picked by key,
+ * and snapshots and batches hold the write side of every stripe, so writers to different keys rarely touch the same
+ * lock state. A sequence of individual reads may still straddle a batch. Read from a {@link ConfigSnapshot} to see
+ * several keys consistently.
+ *
+ * <p>
+ * Writers never take a snapshot for a {@link ConfigListener}. The listener thread takes one per round of
+ * notifications it delivers, and every listener draining after the same write shares it, but a listener that keeps up
+ * with a stream of writes still copies the map, holding back writers, about once per write.
+ */
+public class ConcurrentMapConfigSpace extends ReadableMapConfigSpace implements WritableConfigSpace {
+
+    // Only replaced by batches, while every stripe is held exclusively
+    private volatile ConcurrentHashMap<String, Object> map;
+    private final int decodedObjectCacheSize;
+
+    // Shared by single-key writes, which the map already makes atomic, and held exclusively by snapshots and batches
+    private final ReadWriteLock[] stripes;
+
+    // The latest snapshot, until the next write. Only set while every stripe is held exclusively.
+    private volatile ConfigSnapshot latestSnapshot;
+
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for reading and writing properties
+     * @param properties
+     *            the properties to seed this {@link ConcurrentMapConfigSpace} with
+     */
+    public ConcurrentMapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties) {
+        this(configFormatter, properties, 0);
+    }
+
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for reading and writing properties
+     * @param properties
+     *            the properties to seed this {@link ConcurrentMapConfigSpace} with
+     * @param decodedObjectCacheSize
+     *            the maximum number of keys to cache decoded objects for, or 0 to decode on every read
+     */
+    public ConcurrentMapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties,
+            final int decodedObjectCacheSize) {
+        super(requireNonNull(configFormatter), Map.of(), decodedObjectCacheSize);
+        this.map = new ConcurrentHashMap<>(requireNonNull(properties));
+        this.decodedObjectCacheSize = decodedObjectCacheSize;
+
+        this.stripes = new ReadWriteLock[stripeCount()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+
+        // From then on updated in place, until a batch replaces it
+        replaceBackingMap(map);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final Batch batch = new Batch();
+        try {
+            changes.accept(batch);
+        } finally {
+            batch.closed = true;
+        }
+        if (batch.changes.isEmpty()) {
+            return;
+        }
+
+        lockExclusively();
+        try {
+            invalidateSnapshot();
+            final ConcurrentHashMap<String, Object> updated = new ConcurrentHashMap<>(map);
+            for (final Map.Entry<String, Object> change : batch.changes.entrySet()) {
+                apply(updated, change.getKey(), change.getValue());
+            }
+            map = updated;
+            replaceBackingMap(updated);
+        } finally {
+            unlockExclusively();
+        }
+        markModified(batch.changes.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final String key) {
+        requireNonEmpty(key);
+
+        update(key, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBoolean(final String key, final boolean value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDouble(final String key, final double value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInt(final String key, final int value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLong(final String key, final long value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setObject(final String key, final Object value) {
+        requireNonEmpty(key);
+        requireNonNull(value, "Null value. Call ConfigSpace#remove to instead.");
+
+        update(key, getConfigFormatter().write(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setString(final String key, final String value) {
+        setObject(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: Unless nothing was written since the last snapshot, this copies the backing map, holding back writers
+     * while it does so
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        final ConfigSnapshot latest = latestSnapshot;
+        if (latest != null) {
+            return latest;
+        }
+
+        lockExclusively();
+        try {
+            if (latestSnapshot == null) {
+                latestSnapshot = new ReadableMapConfigSpace(getConfigFormatter(), map, decodedObjectCacheSize)
+                        .snapshot();
+            }
+            return latestSnapshot;
+        } finally {
+            unlockExclusively();
+        }
+    }
+
+    private void setPrimitive(final String key, final Object value) {
+        requireNonEmpty(key);
+
+        // Primitives are stored as-is so they can be read back without the formatter, and are written through it only
+        // when read as another type
+        update(key, value);
+    }
+
+    private void update(final String key, final Object value) {
+        final ReadWriteLock stripe = stripeFor(key);
+        stripe.readLock().lock();
+        try {
+            invalidateSnapshot();
+            apply(map, key, value);
+        } finally {
+            stripe.readLock().unlock();
+        }
+
+        // Outside of the lock, as modification hooks may read other keys. Two writers of the same key may mark it out
+        // of order, but listeners are only told which key changed, and read it from a snapshot taken once the
+        // notification was dequeued, so the last notification of a key always sees its final value.
+        markModified(key);
+    }
+
+    private void invalidateSnapshot() {
+        // Before the write is visible, and read first, so that writers only contend on the field after a snapshot
+        if (latestSnapshot != null) {
+            latestSnapshot = null;
+        }
+    }
+
+    private ReadWriteLock stripeFor(final String key) {
+        final int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private void lockExclusively() {
+        // Always in the same order, so that two exclusive holders cannot deadlock
+        for (final ReadWriteLock stripe : stripes) {
+            stripe.writeLock().lock();
+        }
+    }
+
+    private void unlockExclusively() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].writeLock().unlock();
+        }
+    }
+
+    private static int stripeCount() {
+        // A power of two, so that a stripe is picked by masking, and enough that concurrent writers rarely share one
+        return Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    }
+
+    private static void apply(final Map<String, Object> map, final String key, final Object value) {
+        if (value == null) {
+            map.remove(key);
+        } else {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Stages changes for {@link #batch(Consumer)}, encoding them up front
+     */
+    private final class Batch implements ConfigBatch {
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private boolean closed;
+
+        @Override
+        public void remove(final String key) {
+            stage(key, null);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            requireNonNull(value, "Null value. Call ConfigBatch#remove instead.");
+            stage(key, getConfigFormatter().write(value));
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            setObject(key, value);
+        }
+
+        private void stage(final String key, final Object value) {
+            requireNonEmpty(key);
+            if (closed) {
+                throw new IllegalStateException("Batch has already been applied");
+            }
+            changes.put(key, value);
+        }
+    }
+}
@@ -3,21 +3,33 @@ package io.liquorice.config.storage.inmemory;
 import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import io.liquorice.config.api.formatter.ConfigFormatter;
 import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
 import io.liquorice.config.api.storage.ConfigSpace;
 import io.liquorice.config.exception.ConfigurationException;
 
 /**
  * A {@link Map} backed implementation of a {@link ConfigSpace} where the contained items are unmodifiable after
  * creation
+ *
+ * <p>
+ * Boolean, double, int and long values are stored as their canonical wrapper and read back without going through the
+ * {@link ConfigFormatter}, so the primitive getters neither allocate nor box. To be read as another type, they are
+ * written through the {@link ConfigFormatter} first, as if they had been stored encoded.
+ *
+ * <p>
+ * The backing map is never modified once published. Updates by extending classes replace it as a whole, so reads are
+ * lock-free and a {@link ConfigSnapshot} only needs to hold on to the current map.
  */
 public class ReadableMapConfigSpace extends AbstractConfigSpace {
 
-    private final Map<String, Object> map;
+    private volatile Map<String, Object> map;
 
     /**
      * CTOR
@@ -28,16 +40,43 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
      *            the properties to seed this {@link ReadableMapConfigSpace} with
      */
     public ReadableMapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties) {
-        super(requireNonNull(configFormatter));
+        this(configFormatter, properties, 0);
+    }
+
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for retrieving properties
+     * @param properties
+     *            the properties to seed this {@link ReadableMapConfigSpace} with
+     * @param decodedObjectCacheSize
+     *            the maximum number of keys to cache decoded objects for, or 0 to decode on every read
+     */
+    public ReadableMapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties,
+            final int decodedObjectCacheSize) {
+        super(requireNonNull(configFormatter), decodedObjectCacheSize);
         map = new HashMap<>(requireNonNull(properties));
     }
 
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            A {@link ReadableMapConfigSpace} to shallow copy
+     */
+    protected ReadableMapConfigSpace(final ReadableMapConfigSpace configSpace) {
+        super(configSpace);
+        map = configSpace.map;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean getBooleanRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Boolean.class);
+        final Object value = lookup(key);
+        return value instanceof Boolean ? (Boolean) value : getObjectRequired(key, Boolean.class);
     }
 
     /**
@@ -45,7 +84,8 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public double getDoubleRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Double.class);
+        final Object value = lookup(key);
+        return value instanceof Double ? (Double) value : getObjectRequired(key, Double.class);
     }
 
     /**
@@ -53,7 +93,8 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public int getIntRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Integer.class);
+        final Object value = lookup(key);
+        return value instanceof Integer ? (Integer) value : getObjectRequired(key, Integer.class);
     }
 
     /**
@@ -61,7 +102,8 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public long getLongRequired(final String key) throws ConfigurationException {
-        return getObjectRequired(key, Long.class);
+        final Object value = lookup(key);
+        return value instanceof Long ? (Long) value : getObjectRequired(key, Long.class);
     }
 
     /**
@@ -69,8 +111,13 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
      */
     @Override
     public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final Object value = lookup(key);
+        if (isPrimitive(value) && clazz.isInstance(value)) {
+            return clazz.cast(value);
+        }
+
         try {
-            return getConfigFormatter().read(getNonNullable(key), clazz).get();
+            return decode(key, encode(requireNonNull(value)), clazz);
         } catch (final Exception e) {
             throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
         }
@@ -93,19 +140,128 @@ public class ReadableMapConfigSpace extends AbstractConfigSpace {
     }
 
     /**
-     * Get a reference to the map storing all of the contained properties
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object lookup(final String key) {
+        return map.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return value instanceof Boolean ? (Boolean) value : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return value instanceof Double ? (Double) value : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return value instanceof Integer ? (Integer) value : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return value instanceof Long ? (Long) value : super.asLong(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected <T> T asObject(final Object value, final Class<T> clazz, final T defaultValue) {
+        return isPrimitive(value) && clazz.isInstance(value) ? clazz.cast(value)
+                : super.asObject(encode(value), clazz, defaultValue);
+    }
+
+    /**
+     * Get a read-only view of the map storing all of the contained properties
      *
      * <p>
-     * NOTE: This is the actual backing store, not a copy. This method should only be used by extending classes
+     * NOTE: This is the current backing store, not a copy. It will not change, but may be replaced at any time by
+     * {@link #replaceBackingMap(Map)}
      *
      * @return the backing store
      */
     protected Map<String, Object> getBackingMap() {
-        return map;
+        return Collections.unmodifiableMap(map);
     }
 
+    /**
+     * Publish $map as the new backing store, replacing the current one in a single step
+     *
+     * <p>
+     * NOTE: This method should only be used by extending classes, which must serialize their updates, must not modify
+     * $map afterwards and must call {@link #markModified(String)} once it has been published. An extending class that
+     * does modify $map in place must make it safe for concurrent reads, and override {@link #snapshot()} to copy it.
+     *
+     * @param map
+     *            the new backing store
+     */
+    protected void replaceBackingMap(final Map<String, Object> map) {
+        this.map = requireNonNull(map);
+    }
 
-    private Object getNonNullable(final String key) {
-        return requireNonNull(map.get(requireNonEmpty(key)));
+    /**
+     * Write a primitive value through the {@link ConfigFormatter}, to be read as a type other than its own
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @return the value as the {@link ConfigFormatter} would have stored it
+     */
+    private Object encode(final Object value) {
+        return isPrimitive(value) ? getConfigFormatter().write(value) : value;
+    }
+
+    private static boolean isPrimitive(final Object value) {
+        return value instanceof Boolean || value instanceof Double || value instanceof Integer || value instanceof Long;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} holding on to the backing map at the time it was taken
+     */
+    private static final class Snapshot extends ReadableMapConfigSpace implements ConfigSnapshot {
+
+        private Snapshot(final ReadableMapConfigSpace configSpace) {
+            super(configSpace);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
     }
 }
@@ -3,23 +3,53 @@ package io.liquorice.config.storage.inmemory;
 import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
 import io.liquorice.config.api.storage.WritableConfigSpace;
 
 /**
  * A {@link Map} backed implementation of a {@link WritableConfigSpace} where the contained items can be modified
+ *
+ * <p>
+ * Every write copies the backing map, so writes are O(n) in the number of contained items while reads never block.
+ * Use {@link #batch(Consumer)} to apply many changes for the cost of a single copy, or a
+ * {@link ConcurrentMapConfigSpace} for frequent writes from many threads.
+ *
+ * <p>
+ * Primitives are stored as-is, and only written through the {@link ConfigFormatter} when read as another type, so they
+ * read back the same whichever setter stored them without being parsed on every read.
  */
 public class WritableMapConfigSpace extends ReadableMapConfigSpace implements WritableConfigSpace {
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final Batch batch = new Batch();
+        try {
+            changes.accept(batch);
+        } finally {
+            batch.closed = true;
+        }
+        update(batch.changes);
+    }
+
     /**
      * {@inheritDoc}
      */
     public void remove(final String key) {
         requireNonEmpty(key);
 
-        getBackingMap().remove(key);
+        update(Collections.singletonMap(key, null));
     }
 
     /**
@@ -34,12 +64,27 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
         super(requireNonNull(configFormatter), requireNonNull(properties));
     }
 
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for writing properties
+     * @param properties
+     *            the properties to seed this {@link WritableMapConfigSpace} with
+     * @param decodedObjectCacheSize
+     *            the maximum number of keys to cache decoded objects for, or 0 to decode on every read
+     */
+    public WritableMapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties,
+            final int decodedObjectCacheSize) {
+        super(requireNonNull(configFormatter), requireNonNull(properties), decodedObjectCacheSize);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void setBoolean(final String key, final boolean value) {
-        setObject(key, value);
+        setPrimitive(key, value);
     }
 
     /**
@@ -47,7 +92,7 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
      */
     @Override
     public void setDouble(final String key, final double value) {
-        setObject(key, value);
+        setPrimitive(key, value);
     }
 
     /**
@@ -55,7 +100,7 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
      */
     @Override
     public void setInt(final String key, final int value) {
-        setObject(key, value);
+        setPrimitive(key, value);
     }
 
     /**
@@ -63,7 +108,7 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
      */
     @Override
     public void setLong(final String key, final long value) {
-        setObject(key, value);
+        setPrimitive(key, value);
     }
 
     /**
@@ -74,7 +119,7 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
         requireNonEmpty(key);
         requireNonNull(value, "Null value. Call ConfigSpace#remove to instead.");
 
-        getBackingMap().put(key, getConfigFormatter().write(value));
+        update(Collections.singletonMap(key, getConfigFormatter().write(value)));
     }
 
     /**
@@ -84,4 +129,83 @@ public class WritableMapConfigSpace extends ReadableMapConfigSpace implements Wr
     public void setString(final String key, final String value) {
         setObject(key, value);
     }
+
+    private void setPrimitive(final String key, final Object value) {
+        requireNonEmpty(key);
+
+        // Primitives are stored as-is so they can be read back without the formatter, and are written through it only
+        // when read as another type
+        update(Collections.singletonMap(key, value));
+    }
+
+    private synchronized void update(final Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Copy-on-write, so that readers and snapshots never observe a map while it is being modified
+        final Map<String, Object> map = new HashMap<>(getBackingMap());
+        for (final Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                map.remove(change.getKey());
+            } else {
+                map.put(change.getKey(), change.getValue());
+            }
+        }
+
+        replaceBackingMap(map);
+        markModified(changes.keySet());
+    }
+
+    /**
+     * Stages changes for {@link #batch(Consumer)}, encoding them up front
+     */
+    private final class Batch implements ConfigBatch {
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private boolean closed;
+
+        @Override
+        public void remove(final String key) {
+            stage(key, null);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            requireNonNull(value, "Null value. Call ConfigBatch#remove instead.");
+            stage(key, getConfigFormatter().write(value));
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            setObject(key, value);
+        }
+
+        private void stage(final String key, final Object value) {
+            requireNonEmpty(key);
+            if (closed) {
+                throw new IllegalStateException("Batch has already been applied");
+            }
+            changes.put(key, value);
+        }
+    }
 }
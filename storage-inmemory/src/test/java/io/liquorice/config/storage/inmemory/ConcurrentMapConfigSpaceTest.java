@@ -0,0 +1,289 @@
+package io.liquorice.config.storage.inmemory;
+
+import static io.liquorice.config.storage.inmemory.Fixtures.SEED_PROPERTIES;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigKey;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.formatter.json.gson.GsonConfigFormatter;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+
+class ConcurrentMapConfigSpaceTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 20_000;
+    private static final int BATCHES = 2_000;
+    private static final int KEYS_PER_BATCH = 64;
+
+    private ConcurrentMapConfigSpace configSpace;
+
+    @BeforeEach
+    void setup() {
+        configSpace = new ConcurrentMapConfigSpace(new PassThroughConfigFormatter(), SEED_PROPERTIES);
+    }
+
+    @Test
+    void testSettersAndRemove() {
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+        configSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+        configSpace.remove(BOOL_KEY);
+
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(UPDATED_STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
+        assertEquals(UPDATED_COMPLEX_VALUE, configSpace.getObjectRequired(COMPLEX_KEY, List.class));
+        assertFalse(configSpace.hasValue(BOOL_KEY));
+        assertFalse(configSpace.keys().contains(BOOL_KEY));
+    }
+
+    @Test
+    void testPrimitivesRoundTripThroughJsonFormatters() {
+        assertPrimitivesRoundTrip(new JacksonConfigFormatter.Builder().build());
+        assertPrimitivesRoundTrip(new GsonConfigFormatter.Builder().build());
+    }
+
+    private static void assertPrimitivesRoundTrip(final ConfigFormatter configFormatter) {
+        final ConcurrentMapConfigSpace jsonConfigSpace = new ConcurrentMapConfigSpace(configFormatter, Map.of());
+
+        jsonConfigSpace.setInt(INT_KEY, 5);
+        // Stored as-is, so the primitive getters do not parse it
+        assertEquals(Integer.valueOf(5), jsonConfigSpace.getBackingMap().get(INT_KEY));
+        assertEquals(5L, jsonConfigSpace.getLongRequired(INT_KEY));
+        assertEquals(5.0, jsonConfigSpace.getDoubleRequired(INT_KEY));
+        assertEquals(5L, jsonConfigSpace.getLong(INT_KEY, -1L));
+        assertEquals("5", jsonConfigSpace.getString(INT_KEY, "def"));
+
+        jsonConfigSpace.batch(batch -> batch.setBoolean(BOOL_KEY, true));
+        assertTrue(jsonConfigSpace.getBooleanRequired(BOOL_KEY));
+        assertEquals("true", jsonConfigSpace.getString(BOOL_KEY, "def"));
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByWrites() {
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.batch(batch -> batch.remove(STRING_KEY));
+
+        assertEquals(INT_VALUE, snapshot.getIntRequired(INT_KEY));
+        assertEquals(STRING_VALUE, snapshot.getStringRequired(STRING_KEY));
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertFalse(configSpace.hasValue(STRING_KEY));
+    }
+
+    @Test
+    void testSnapshotIsSharedUntilTheNextWrite() {
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+        assertSame(snapshot, configSpace.snapshot());
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        final ConfigSnapshot written = configSpace.snapshot();
+        assertNotSame(snapshot, written);
+        assertEquals(UPDATED_INT_VALUE, written.getIntRequired(INT_KEY));
+
+        configSpace.batch(batch -> batch.remove(STRING_KEY));
+        assertFalse(configSpace.snapshot().hasValue(STRING_KEY));
+    }
+
+    @Test
+    void testConcurrentWritesAreLinearizablePerKey() throws Exception {
+        // Each writer owns a key and writes an increasing sequence to it, while every thread reads every key
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final String ownKey = "stress." + thread;
+            final ConfigKey<Integer> handle = ConfigKey.ofInt(ownKey, DEFAULT_INT_VALUE);
+            tasks.add(() -> {
+                final int[] lastSeen = new int[THREADS];
+                for (int value = 1; value <= WRITES_PER_THREAD; value++) {
+                    configSpace.setInt(ownKey, value);
+
+                    // A write is visible as soon as it returns, to the writer and through a bound key
+                    assertEquals(value, configSpace.getIntRequired(ownKey));
+                    assertEquals(value, (int) configSpace.get(handle));
+
+                    // Once a write has been observed, no earlier write of the same key can be
+                    final int other = value % THREADS;
+                    final int seen = configSpace.getInt("stress." + other, 0);
+                    assertTrue(seen >= lastSeen[other], "Observed " + seen + " after " + lastSeen[other]);
+                    lastSeen[other] = seen;
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            assertEquals(WRITES_PER_THREAD, configSpace.getIntRequired("stress." + thread));
+        }
+        assertEquals(SEED_PROPERTIES.size() + THREADS, configSpace.keys().size());
+    }
+
+    @Test
+    void testContendedKeyHoldsOneOfTheWrittenValues() throws Exception {
+        // Every writer writes values only it uses to the same key, so each read can be traced back to one write
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final long base = (long) thread * WRITES_PER_THREAD;
+            tasks.add(() -> {
+                for (int i = 1; i <= WRITES_PER_THREAD; i++) {
+                    configSpace.setLong("stress.contended", base + i);
+                    final long read = configSpace.getLongRequired("stress.contended");
+                    assertTrue(read > 0 && read <= (long) THREADS * WRITES_PER_THREAD, "Read an unwritten " + read);
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(0, configSpace.getLongRequired("stress.contended") % WRITES_PER_THREAD);
+    }
+
+    @Test
+    void testLastNotificationSeesTheFinalValue() throws Exception {
+        final BlockingQueue<Long> notified = new LinkedBlockingQueue<>();
+        configSpace.subscribe("stress.contended", (key, snapshot) -> notified.add(snapshot.getLongRequired(key)));
+
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final long base = (long) thread * WRITES_PER_THREAD;
+            tasks.add(() -> {
+                for (int i = 1; i <= WRITES_PER_THREAD; i++) {
+                    configSpace.setLong("stress.contended", base + i);
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        Long last = notified.poll(5, TimeUnit.SECONDS);
+        for (Long value; (value = notified.poll(200, TimeUnit.MILLISECONDS)) != null;) {
+            last = value;
+        }
+        assertEquals(configSpace.getLongRequired("stress.contended"), (long) last);
+    }
+
+    @Test
+    void testSnapshotsNeverObserveAPartialBatch() throws Exception {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            try {
+                for (int value = 1; value <= WRITES_PER_THREAD; value++) {
+                    final int batchValue = value;
+                    configSpace.batch(batch -> {
+                        batch.setInt("stress.first", batchValue);
+                        batch.setInt("stress.second", batchValue);
+                    });
+                }
+            } finally {
+                writing.set(false);
+            }
+            return null;
+        });
+        for (int thread = 1; thread < THREADS; thread++) {
+            tasks.add(() -> {
+                int lastSeen = 0;
+                while (writing.get()) {
+                    final ConfigSnapshot snapshot = configSpace.snapshot();
+                    final int first = snapshot.getInt("stress.first", 0);
+                    assertEquals(first, snapshot.getInt("stress.second", 0));
+                    assertTrue(first >= lastSeen, "Observed " + first + " after " + lastSeen);
+                    lastSeen = first;
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(WRITES_PER_THREAD, configSpace.getIntRequired("stress.first"));
+    }
+
+    @Test
+    void testReadsNeverObserveAPartialBatch() throws Exception {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            try {
+                for (int value = 1; value <= BATCHES; value++) {
+                    final int batchValue = value;
+                    configSpace.batch(batch -> {
+                        for (int i = 0; i < KEYS_PER_BATCH; i++) {
+                            batch.setInt("stress." + i, batchValue);
+                        }
+                    });
+                }
+            } finally {
+                writing.set(false);
+            }
+            return null;
+        });
+        for (int thread = 1; thread < THREADS; thread++) {
+            tasks.add(() -> {
+                while (writing.get()) {
+                    // Values only grow, so the last key can only lag behind the first if part of a batch was seen
+                    final int first = configSpace.getInt("stress.0", 0);
+                    final int last = configSpace.getInt("stress." + (KEYS_PER_BATCH - 1), 0);
+                    assertTrue(last >= first, "Observed " + last + " after " + first);
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(BATCHES, configSpace.getIntRequired("stress." + (KEYS_PER_BATCH - 1)));
+    }
+
+    private static void runConcurrently(final List<Callable<Void>> tasks) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            // Release every task at once, to maximise contention
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (final Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            for (final Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
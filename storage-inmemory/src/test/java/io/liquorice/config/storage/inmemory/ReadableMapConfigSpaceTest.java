@@ -21,6 +21,7 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_VALUE;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigKey;
 import io.liquorice.config.exception.ConfigurationException;
 import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
 
@@ -67,6 +69,28 @@ class ReadableMapConfigSpaceTest {
         assertEquals(DEFAULT_COMPLEX_VALUE, configSpace.getObject(DOES_NOT_EXIST_KEY, DEFAULT_COMPLEX_VALUE, List.class));
     }
 
+    @Test
+    void testKeyHandlesReturnCorrectValues() {
+        assertEquals(BOOL_VALUE, (boolean) configSpace.get(ConfigKey.ofBoolean(BOOL_KEY, DEFAULT_BOOL_VALUE)));
+        assertEquals(DOUBLE_VALUE, (double) configSpace.get(ConfigKey.ofDouble(DOUBLE_KEY, DEFAULT_DOUBLE_VALUE)));
+        assertEquals(INT_VALUE, (int) configSpace.get(ConfigKey.ofInt(INT_KEY, DEFAULT_INT_VALUE)));
+        assertEquals(LONG_VALUE, (long) configSpace.get(ConfigKey.ofLong(LONG_KEY, DEFAULT_LONG_VALUE)));
+        assertEquals(STRING_VALUE, configSpace.get(ConfigKey.ofString(STRING_KEY, DEFAULT_STRING_VALUE)));
+        assertEquals(COMPLEX_VALUE, configSpace.get(ConfigKey.ofObject(COMPLEX_KEY, List.class, DEFAULT_COMPLEX_VALUE)));
+    }
+
+    @Test
+    void testKeyHandlesReturnDefaultValues() {
+        assertEquals(DEFAULT_INT_VALUE, (int) configSpace.get(ConfigKey.ofInt(DOES_NOT_EXIST_KEY, DEFAULT_INT_VALUE)));
+        assertEquals(DEFAULT_INT_VALUE, (int) configSpace.get(ConfigKey.ofInt(BOOL_KEY, DEFAULT_INT_VALUE)));
+    }
+
+    @Test
+    void testKeyHandleIsBoundAfterFirstRead() {
+        final ConfigKey<?> key = ConfigKey.ofObject(COMPLEX_KEY, List.class, DEFAULT_COMPLEX_VALUE);
+        assertSame(configSpace.get(key), configSpace.get(key));
+    }
+
     @Test
     void testRequiredBooleanPropertyDoesNotExist() {
         assertThrows(ConfigurationException.class, () -> configSpace.getBooleanRequired(DOES_NOT_EXIST_KEY));
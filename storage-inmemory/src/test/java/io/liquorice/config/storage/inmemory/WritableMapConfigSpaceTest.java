@@ -3,6 +3,7 @@ package io.liquorice.config.storage.inmemory;
 import static io.liquorice.config.storage.inmemory.Fixtures.SEED_PROPERTIES;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_KEY;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_VALUE;
 import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
@@ -19,13 +20,35 @@ import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_LONG_
 import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
+import io.liquorice.config.api.storage.ConfigKey;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.api.storage.ConfigSubscription;
+import io.liquorice.config.api.storage.LayeredConfigSpace;
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.json.gson.GsonConfigFormatter;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
 import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
 
 /**
@@ -79,4 +102,310 @@ class WritableMapConfigSpaceTest {
         assertEquals(STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
     }
 
+    @Test
+    void testKeyHandleObservesUpdates() {
+        final ConfigKey<Integer> key = ConfigKey.ofInt(INT_KEY, DEFAULT_INT_VALUE);
+        assertEquals(INT_VALUE, (int) configSpace.get(key));
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        assertEquals(UPDATED_INT_VALUE, (int) configSpace.get(key));
+
+        configSpace.remove(INT_KEY);
+        assertEquals(DEFAULT_INT_VALUE, (int) configSpace.get(key));
+    }
+
+    @Test
+    void testKeyHandleStaysBoundAcrossWritesToOtherKeys() {
+        final WritableMapConfigSpace copyingConfigSpace = new WritableMapConfigSpace(new CopyingConfigFormatter(),
+                SEED_PROPERTIES);
+        final ConfigKey<?> key = ConfigKey.ofObject(COMPLEX_KEY, List.class, null);
+        final Object bound = copyingConfigSpace.get(key);
+
+        copyingConfigSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        copyingConfigSpace.remove(STRING_KEY);
+        assertSame(bound, copyingConfigSpace.get(key));
+
+        copyingConfigSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+        assertEquals(UPDATED_COMPLEX_VALUE, copyingConfigSpace.get(key));
+    }
+
+    @Test
+    void testPrimitivesAreStoredUnformatted() {
+        configSpace.setBoolean(BOOL_KEY, UPDATED_BOOL_VALUE);
+        configSpace.setDouble(DOUBLE_KEY, UPDATED_DOUBLE_VALUE);
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setLong(LONG_KEY, UPDATED_LONG_VALUE);
+
+        assertEquals(Boolean.valueOf(UPDATED_BOOL_VALUE), configSpace.getBackingMap().get(BOOL_KEY));
+        assertEquals(Double.valueOf(UPDATED_DOUBLE_VALUE), configSpace.getBackingMap().get(DOUBLE_KEY));
+        assertEquals(Integer.valueOf(UPDATED_INT_VALUE), configSpace.getBackingMap().get(INT_KEY));
+        assertEquals(Long.valueOf(UPDATED_LONG_VALUE), configSpace.getBackingMap().get(LONG_KEY));
+    }
+
+    @Test
+    void testPrimitivesRoundTripThroughJsonFormatters() {
+        assertPrimitivesRoundTrip(new JacksonConfigFormatter.Builder().build());
+        assertPrimitivesRoundTrip(new GsonConfigFormatter.Builder().build());
+    }
+
+    private static void assertPrimitivesRoundTrip(final ConfigFormatter configFormatter) {
+        final WritableMapConfigSpace jsonConfigSpace = new WritableMapConfigSpace(configFormatter, Map.of());
+
+        jsonConfigSpace.setInt(INT_KEY, 5);
+        // Stored as-is, so the primitive getters do not parse it
+        assertEquals(Integer.valueOf(5), jsonConfigSpace.getBackingMap().get(INT_KEY));
+        assertEquals(5, jsonConfigSpace.getIntRequired(INT_KEY));
+        assertEquals(5L, jsonConfigSpace.getLongRequired(INT_KEY));
+        assertEquals(5.0, jsonConfigSpace.getDoubleRequired(INT_KEY));
+        assertEquals(5L, jsonConfigSpace.getLong(INT_KEY, -1L));
+        assertEquals("5", jsonConfigSpace.getString(INT_KEY, "def"));
+
+        jsonConfigSpace.setBoolean(BOOL_KEY, true);
+        assertEquals("true", jsonConfigSpace.getString(BOOL_KEY, "def"));
+
+        jsonConfigSpace.batch(batch -> {
+            batch.setLong(LONG_KEY, 7L);
+            batch.setDouble(DOUBLE_KEY, 2.5);
+        });
+        assertEquals(7, jsonConfigSpace.getIntRequired(LONG_KEY));
+        assertEquals(7.0, jsonConfigSpace.getDouble(LONG_KEY, -1.0));
+        assertEquals(2.5, jsonConfigSpace.getDoubleRequired(DOUBLE_KEY));
+        assertEquals("2.5", jsonConfigSpace.getString(DOUBLE_KEY, "def"));
+    }
+
+    @Test
+    void testDecodedObjectsAreCachedUntilModified() {
+        final WritableMapConfigSpace cachingConfigSpace = new WritableMapConfigSpace(new CopyingConfigFormatter(),
+                SEED_PROPERTIES, 16);
+
+        final List<?> decoded = cachingConfigSpace.getObjectRequired(COMPLEX_KEY, List.class);
+        assertSame(decoded, cachingConfigSpace.getObjectRequired(COMPLEX_KEY, List.class));
+        assertSame(decoded, cachingConfigSpace.getObject(COMPLEX_KEY, null, List.class));
+
+        cachingConfigSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+        assertEquals(UPDATED_COMPLEX_VALUE, cachingConfigSpace.getObjectRequired(COMPLEX_KEY, List.class));
+    }
+
+    @Test
+    void testDecodedObjectsAreNotCachedByDefault() {
+        final WritableMapConfigSpace copyingConfigSpace = new WritableMapConfigSpace(new CopyingConfigFormatter(),
+                SEED_PROPERTIES);
+
+        assertNotSame(copyingConfigSpace.getObjectRequired(COMPLEX_KEY, List.class),
+                copyingConfigSpace.getObjectRequired(COMPLEX_KEY, List.class));
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByWrites() {
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.remove(STRING_KEY);
+
+        assertEquals(INT_VALUE, snapshot.getIntRequired(INT_KEY));
+        assertEquals(STRING_VALUE, snapshot.getStringRequired(STRING_KEY));
+        assertSame(snapshot, snapshot.snapshot());
+        assertEquals(UPDATED_INT_VALUE, configSpace.snapshot().getIntRequired(INT_KEY));
+    }
+
+    @Test
+    void testListenerIsOnlyNotifiedOfItsKey() throws Exception {
+        final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+        configSpace.subscribe(INT_KEY, (key, snapshot) -> changes.add(key + "=" + snapshot.getIntRequired(key)));
+
+        configSpace.setLong(LONG_KEY, UPDATED_LONG_VALUE);
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+
+        assertEquals(INT_KEY + "=" + UPDATED_INT_VALUE, changes.poll(5, TimeUnit.SECONDS));
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testPrefixListenerIsNotifiedInOrder() throws Exception {
+        final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+        final ConfigSubscription subscription = configSpace.subscribeToPrefix("key.",
+                (key, snapshot) -> changes.add(key + "=" + snapshot.hasValue(key)));
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.remove(INT_KEY);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+
+        // The set of INT_KEY may or may not be notified before its removal is
+        final List<String> received = new ArrayList<>();
+        do {
+            received.add(changes.poll(5, TimeUnit.SECONDS));
+        } while (!received.get(received.size() - 1).startsWith(STRING_KEY));
+        assertEquals(List.of(INT_KEY + "=false", STRING_KEY + "=true"),
+                received.subList(received.size() - 2, received.size()));
+
+        subscription.close();
+        configSpace.setInt(INT_KEY, INT_VALUE);
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testSlowListenerIsOnlyNotifiedOfTheLatestChange() throws Exception {
+        final BlockingQueue<Integer> changes = new LinkedBlockingQueue<>();
+        final CountDownLatch released = new CountDownLatch(1);
+        configSpace.subscribe(INT_KEY, (key, snapshot) -> {
+            changes.add(snapshot.getIntRequired(key));
+            awaitUninterruptibly(released);
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            configSpace.setInt(INT_KEY, i);
+        }
+        released.countDown();
+
+        // The first notification blocks the listener, and every later change is coalesced into a single one
+        final List<Integer> received = new ArrayList<>();
+        received.add(changes.poll(5, TimeUnit.SECONDS));
+        for (Integer value; (value = changes.poll(100, TimeUnit.MILLISECONDS)) != null;) {
+            received.add(value);
+        }
+        assertTrue(received.size() <= 2, received.toString());
+        assertEquals(999, (int) received.get(received.size() - 1));
+    }
+
+    @Test
+    void testBatchIsAppliedAtOnce() throws Exception {
+        final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+        configSpace.subscribeToPrefix("key.", (key, snapshot) -> changes.add(key + "=" + snapshot.hasValue(BOOL_KEY)));
+
+        configSpace.batch(batch -> {
+            batch.setInt(INT_KEY, UPDATED_INT_VALUE);
+            batch.remove(BOOL_KEY);
+            assertEquals(INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        });
+
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertFalse(configSpace.hasValue(BOOL_KEY));
+        assertEquals(INT_KEY + "=false", changes.poll(5, TimeUnit.SECONDS));
+        assertEquals(BOOL_KEY + "=false", changes.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedBatchIsDiscarded() {
+        final ConfigBatch[] escaped = new ConfigBatch[1];
+        assertThrows(NullPointerException.class, () -> configSpace.batch(batch -> {
+            escaped[0] = batch;
+            batch.setInt(INT_KEY, UPDATED_INT_VALUE);
+            batch.setObject(COMPLEX_KEY, null);
+        }));
+
+        assertEquals(INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertThrows(IllegalStateException.class, () -> escaped[0].remove(INT_KEY));
+    }
+
+    @Test
+    void testKeysByPrefixFollowWrites() {
+        assertEquals(List.of(INT_KEY), List.copyOf(configSpace.keys("key.i")));
+        assertEquals(Set.of(), configSpace.keys("other."));
+
+        configSpace.setInt("other.pool.size", UPDATED_INT_VALUE);
+        configSpace.setString("other.pool.name", UPDATED_STRING_VALUE);
+        configSpace.remove(INT_KEY);
+
+        assertEquals(List.of("other.pool.name", "other.pool.size"), List.copyOf(configSpace.keys("other.")));
+        assertEquals(Set.of(), configSpace.keys("key.i"));
+        assertEquals(SEED_PROPERTIES.size() + 1, configSpace.keys("").size());
+    }
+
+    @Test
+    void testViewReadsKeysUnderItsPrefix() {
+        final ConfigSpace view = configSpace.view("key.");
+
+        assertEquals(INT_VALUE, view.getIntRequired("int"));
+        assertEquals(STRING_VALUE, view.getString("string", null));
+        assertEquals(Set.of("bool", "complex", "double", "int", "long", "string"), view.keys());
+        assertEquals(INT_VALUE, (int) view.get(ConfigKey.ofInt("int", DEFAULT_INT_VALUE)));
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        assertEquals(UPDATED_INT_VALUE, view.getIntRequired("int"));
+        assertFalse(view.hasValue("missing"));
+        assertThrows(ConfigurationException.class, () -> view.getIntRequired("missing"));
+    }
+
+    @Test
+    void testLayeredConfigSpaceFollowsItsLayers() {
+        final WritableMapConfigSpace overrides = new WritableMapConfigSpace(new PassThroughConfigFormatter(),
+                Map.of(INT_KEY, UPDATED_INT_VALUE));
+
+        try (LayeredConfigSpace layered = new LayeredConfigSpace(configSpace, overrides)) {
+            assertEquals(UPDATED_INT_VALUE, layered.getIntRequired(INT_KEY));
+            assertEquals(STRING_VALUE, layered.getStringRequired(STRING_KEY));
+            assertEquals(SEED_PROPERTIES.keySet(), layered.keys());
+
+            overrides.setString(STRING_KEY, UPDATED_STRING_VALUE);
+            assertEquals(UPDATED_STRING_VALUE, layered.getStringRequired(STRING_KEY));
+
+            overrides.remove(INT_KEY);
+            assertEquals(INT_VALUE, layered.getIntRequired(INT_KEY));
+
+            configSpace.remove(INT_KEY);
+            assertFalse(layered.hasValue(INT_KEY));
+            assertEquals(DEFAULT_INT_VALUE, layered.getInt(INT_KEY, DEFAULT_INT_VALUE));
+            assertThrows(ConfigurationException.class, () -> layered.getIntRequired(INT_KEY));
+        }
+    }
+
+    @Test
+    void testLayeredSnapshotReadsTheLayersAsTheyWere() {
+        final WritableMapConfigSpace overrides = new WritableMapConfigSpace(new PassThroughConfigFormatter(),
+                Map.of(INT_KEY, UPDATED_INT_VALUE));
+
+        try (LayeredConfigSpace layered = new LayeredConfigSpace(configSpace, overrides)) {
+            final ConfigSnapshot snapshot = layered.snapshot();
+
+            overrides.remove(INT_KEY);
+            overrides.setString(STRING_KEY, UPDATED_STRING_VALUE);
+            configSpace.remove(BOOL_KEY);
+
+            assertEquals(UPDATED_INT_VALUE, snapshot.getIntRequired(INT_KEY));
+            assertEquals(STRING_VALUE, snapshot.getStringRequired(STRING_KEY));
+            assertEquals(DEFAULT_INT_VALUE, snapshot.getInt("missing", DEFAULT_INT_VALUE));
+            assertFalse(snapshot.hasValue("missing"));
+            assertEquals(SEED_PROPERTIES.keySet(), snapshot.keys());
+            assertEquals(Set.of(INT_KEY), snapshot.keys(INT_KEY));
+
+            assertEquals(INT_VALUE, layered.getIntRequired(INT_KEY));
+            assertFalse(layered.keys().contains(BOOL_KEY));
+        }
+    }
+
+    @Test
+    void testLayeredConfigSpaceIgnoresChangesToOverriddenKeys() throws Exception {
+        final WritableMapConfigSpace overrides = new WritableMapConfigSpace(new PassThroughConfigFormatter(),
+                Map.of(INT_KEY, UPDATED_INT_VALUE));
+
+        try (LayeredConfigSpace layered = new LayeredConfigSpace(configSpace, overrides)) {
+            final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+            layered.subscribeToPrefix("", (key, snapshot) -> changes.add(key + "=" + snapshot.getIntRequired(key)));
+
+            configSpace.setInt(INT_KEY, DEFAULT_INT_VALUE);
+            overrides.remove(INT_KEY);
+
+            assertEquals(INT_KEY + "=" + DEFAULT_INT_VALUE, changes.poll(5, TimeUnit.SECONDS));
+            assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Decodes lists into a fresh copy on every read, like a serializing formatter would
+     */
+    private static final class CopyingConfigFormatter extends PassThroughConfigFormatter {
+
+        @Override
+        public <T> Optional<T> read(final Object value, final Class<T> valueType) {
+            return super.read(value instanceof List ? new ArrayList<>((List<?>) value) : value, valueType);
+        }
+    }
 }
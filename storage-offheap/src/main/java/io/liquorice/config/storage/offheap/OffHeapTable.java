@@ -0,0 +1,525 @@
+package io.liquorice.config.storage.offheap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * An open-addressing hash table whose keys and values live in direct memory, outside of the Java heap
+ *
+ * <p>
+ * Entries are appended to an arena buffer and never modified afterwards. Each one holds the UTF-8 encoded key, a type
+ * tag and the value: a boolean, int, long or double in binary form, or a UTF-8 encoded string. A second buffer of
+ * slots maps keys to entries with linear probing, each slot packing the hash of the key with the offset of its entry.
+ * Overwritten and removed entries are left in the arena as garbage until it runs out of space, when the live entries
+ * are copied into a new arena. Both buffers are replaced rather than resized, so that readers can use them without
+ * holding a lock: a read is validated against a {@link StampedLock}, and only retried under its read lock if a write
+ * happened in the meantime.
+ *
+ * <p>
+ * NOTE: The arena is a single {@link ByteBuffer}, so a table holds at most 2GB of entries. Direct memory is released
+ * once the buffers are garbage collected, and is limited by {@code -XX:MaxDirectMemorySize}.
+ */
+final class OffHeapTable {
+
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+
+    // An entry is a key length, a type tag, the key and then the value
+    private static final int ENTRY_HEADER_BYTES = Integer.BYTES + 1;
+    // No entry starts at offset 0, so that a slot pointing at an entry is never EMPTY
+    private static final int FIRST_ENTRY = Long.BYTES;
+    private static final int MIN_ARENA_BYTES = 4096;
+    private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+    private static final int MIN_SLOTS = 16;
+    private static final int MAX_SLOTS = 1 << 27;
+
+    private final StampedLock lock;
+
+    // Guarded by lock, and replaced rather than resized
+    private ByteBuffer slots;
+    private ByteBuffer arena;
+    private int arenaEnd;
+    private int size;
+    private int tombstones;
+    private long garbageBytes;
+
+    /**
+     * CTOR
+     *
+     * @param properties
+     *            the entries to seed this table with. Values must be {@link Boolean}s, {@link Integer}s,
+     *            {@link Long}s, {@link Double}s or {@link String}s.
+     */
+    OffHeapTable(final Map<String, Object> properties) {
+        this(ByteBuffer.allocateDirect(MIN_SLOTS * Long.BYTES), ByteBuffer.allocateDirect(MIN_ARENA_BYTES),
+                FIRST_ENTRY);
+        apply(properties);
+    }
+
+    private OffHeapTable(final ByteBuffer slots, final ByteBuffer arena, final int arenaEnd) {
+        this.lock = new StampedLock();
+        this.slots = slots;
+        this.arena = arena;
+        this.arenaEnd = arenaEnd;
+    }
+
+    /**
+     * Get the value associated with $key
+     *
+     * @param key
+     *            the key
+     * @return a {@link Boolean}, {@link Integer}, {@link Long}, {@link Double} or {@link String}, or null if $key
+     *         could not be found
+     */
+    Object get(final String key) {
+        final int hash = hash(key);
+        final long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                final ByteBuffer currentSlots = slots;
+                final ByteBuffer currentArena = arena;
+                final int slot = findSlot(currentSlots, currentArena, key, hash);
+                // Slots are reused in place, so the entry must be found before validating, unlike the entry itself
+                final int offset = slot < 0 ? -1 : offsetAt(currentSlots, slot);
+                if (lock.validate(stamp)) {
+                    // Entries are never modified once written, so the value can be read after validating
+                    return offset < 0 ? null : readValue(currentArena, offset);
+                }
+            } catch (final RuntimeException e) {
+                // A write moved the entries while they were being read. Retried under the lock.
+            }
+        }
+
+        final long readStamp = lock.readLock();
+        try {
+            final int slot = findSlot(slots, arena, key, hash);
+            return slot < 0 ? null : readValue(arena, offsetAt(slots, slot));
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * Determine whether $key is associated with a value
+     *
+     * @param key
+     *            the key
+     * @return true if $key could be found
+     */
+    boolean containsKey(final String key) {
+        final int hash = hash(key);
+        final long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                final boolean found = findSlot(slots, arena, key, hash) >= 0;
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            } catch (final RuntimeException e) {
+                // A write moved the entries while they were being read. Retried under the lock.
+            }
+        }
+
+        final long readStamp = lock.readLock();
+        try {
+            return findSlot(slots, arena, key, hash) >= 0;
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * Apply all of $changes at once, so that no reader observes only some of them
+     *
+     * @param changes
+     *            the new value of each changed key, or null for a removed key. Values must be {@link Boolean}s,
+     *            {@link Integer}s, {@link Long}s, {@link Double}s or {@link String}s.
+     * @throws IllegalArgumentException
+     *             if a value has any other type, in which case nothing is applied
+     * @throws IllegalStateException
+     *             if the table cannot grow to hold the changes, in which case nothing is applied
+     */
+    void apply(final Map<String, ?> changes) {
+        // Sized up front, so that the changes are either applied in full or not at all
+        long bytes = 0;
+        int additions = 0;
+        for (final Map.Entry<String, ?> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                bytes += entryLength(change.getKey(), change.getValue());
+                additions++;
+            }
+        }
+
+        final long stamp = lock.writeLock();
+        try {
+            reserve(bytes, additions);
+            for (final Map.Entry<String, ?> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    remove(change.getKey());
+                } else {
+                    put(change.getKey(), change.getValue());
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return a copy of every key. This is the only operation that allocates heap in proportion to the table.
+     */
+    Set<String> keys() {
+        final long stamp = lock.readLock();
+        try {
+            final Set<String> keys = new HashSet<>(size * 4 / 3 + 1);
+            final int slotCount = slots.capacity() / Long.BYTES;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (isLive(slots.getLong(slot * Long.BYTES))) {
+                    final int offset = offsetAt(slots, slot);
+                    keys.add(readString(arena, offset + ENTRY_HEADER_BYTES, arena.getInt(offset)));
+                }
+            }
+            return keys;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the number of keys
+     */
+    int size() {
+        final long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated for this table
+     */
+    long getAllocatedBytes() {
+        final long stamp = lock.readLock();
+        try {
+            return (long) slots.capacity() + arena.capacity();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return an independent copy of this table, sized to fit its current contents
+     */
+    OffHeapTable copy() {
+        final long stamp = lock.readLock();
+        try {
+            final OffHeapTable copy = new OffHeapTable(copyOf(slots, slots.capacity()), copyOf(arena, arenaEnd),
+                    arenaEnd);
+            copy.size = size;
+            copy.tombstones = tombstones;
+            copy.garbageBytes = garbageBytes;
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void put(final String key, final Object value) {
+        final int hash = hash(key);
+        final int offset = append(key, value);
+        final long entry = (long) hash << 32 | offset;
+
+        final int slot = findSlot(slots, arena, key, hash);
+        if (slot >= 0) {
+            garbageBytes += entryLength(arena, offsetAt(slots, slot));
+            slots.putLong(slot * Long.BYTES, entry);
+            return;
+        }
+
+        final int mask = slots.capacity() / Long.BYTES - 1;
+        int free = hash & mask;
+        while (isLive(slots.getLong(free * Long.BYTES))) {
+            free = (free + 1) & mask;
+        }
+        if (slots.getLong(free * Long.BYTES) == TOMBSTONE) {
+            tombstones--;
+        }
+        slots.putLong(free * Long.BYTES, entry);
+        size++;
+    }
+
+    private void remove(final String key) {
+        final int slot = findSlot(slots, arena, key, hash(key));
+        if (slot < 0) {
+            return;
+        }
+
+        // Probing must continue past a removed key, so it leaves a tombstone rather than an empty slot
+        garbageBytes += entryLength(arena, offsetAt(slots, slot));
+        slots.putLong(slot * Long.BYTES, TOMBSTONE);
+        size--;
+        tombstones++;
+    }
+
+    private int append(final String key, final Object value) {
+        final int offset = arenaEnd;
+        final byte[] keyBytes = key.getBytes(UTF_8);
+        arena.putInt(offset, keyBytes.length);
+        putBytes(arena, offset + ENTRY_HEADER_BYTES, keyBytes);
+
+        final int valueOffset = offset + ENTRY_HEADER_BYTES + keyBytes.length;
+        if (value instanceof Boolean) {
+            arena.put(offset + Integer.BYTES, BOOLEAN);
+            arena.put(valueOffset, (byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Integer) {
+            arena.put(offset + Integer.BYTES, INT);
+            arena.putInt(valueOffset, (Integer) value);
+        } else if (value instanceof Long) {
+            arena.put(offset + Integer.BYTES, LONG);
+            arena.putLong(valueOffset, (Long) value);
+        } else if (value instanceof Double) {
+            arena.put(offset + Integer.BYTES, DOUBLE);
+            arena.putDouble(valueOffset, (Double) value);
+        } else {
+            final byte[] valueBytes = ((String) value).getBytes(UTF_8);
+            arena.put(offset + Integer.BYTES, STRING);
+            arena.putInt(valueOffset, valueBytes.length);
+            putBytes(arena, valueOffset + Integer.BYTES, valueBytes);
+        }
+
+        arenaEnd += entryLength(arena, offset);
+        return offset;
+    }
+
+    private void reserve(final long bytes, final int additions) {
+        final long liveKeys = (long) size + additions;
+        if (liveKeys + tombstones > maxLoad(slots.capacity() / Long.BYTES)) {
+            int slotCount = MIN_SLOTS;
+            while (liveKeys > maxLoad(slotCount)) {
+                if (slotCount == MAX_SLOTS) {
+                    throw new IllegalStateException("Off-heap table cannot hold more than " + maxLoad(MAX_SLOTS)
+                            + " keys");
+                }
+                slotCount <<= 1;
+            }
+            rehash(slotCount);
+        }
+
+        if (arenaEnd + bytes > arena.capacity()) {
+            final long liveBytes = arenaEnd - garbageBytes + bytes;
+            if (liveBytes > MAX_ARENA_BYTES) {
+                throw new IllegalStateException("Off-heap table cannot hold more than " + MAX_ARENA_BYTES + " bytes");
+            }
+            relocate((int) Math.min(MAX_ARENA_BYTES, Math.max(MIN_ARENA_BYTES, liveBytes * 2)));
+        }
+    }
+
+    private void rehash(final int slotCount) {
+        // Direct buffers are zeroed, i.e. every slot starts out EMPTY
+        final ByteBuffer rehashed = ByteBuffer.allocateDirect(slotCount * Long.BYTES);
+        final int mask = slotCount - 1;
+        final int oldSlotCount = slots.capacity() / Long.BYTES;
+        for (int slot = 0; slot < oldSlotCount; slot++) {
+            final long entry = slots.getLong(slot * Long.BYTES);
+            if (isLive(entry)) {
+                int free = (int) (entry >>> 32) & mask;
+                while (rehashed.getLong(free * Long.BYTES) != EMPTY) {
+                    free = (free + 1) & mask;
+                }
+                rehashed.putLong(free * Long.BYTES, entry);
+            }
+        }
+
+        slots = rehashed;
+        tombstones = 0;
+    }
+
+    private void relocate(final int capacity) {
+        // Copies the live entries only, into a new buffer so that an optimistic reader of the old one is unaffected
+        final ByteBuffer relocated = ByteBuffer.allocateDirect(capacity);
+        final ByteBuffer relocatedSlots = copyOf(slots, slots.capacity());
+        int end = FIRST_ENTRY;
+        final int slotCount = slots.capacity() / Long.BYTES;
+        for (int slot = 0; slot < slotCount; slot++) {
+            final long entry = slots.getLong(slot * Long.BYTES);
+            if (isLive(entry)) {
+                final int offset = (int) entry;
+                final int length = entryLength(arena, offset);
+                final ByteBuffer source = arena.duplicate();
+                source.limit(offset + length).position(offset);
+                final ByteBuffer target = relocated.duplicate();
+                target.position(end);
+                target.put(source);
+
+                relocatedSlots.putLong(slot * Long.BYTES, entry & 0xFFFFFFFF00000000L | end);
+                end += length;
+            }
+        }
+
+        slots = relocatedSlots;
+        arena = relocated;
+        arenaEnd = end;
+        garbageBytes = 0;
+    }
+
+    private static int findSlot(final ByteBuffer slots, final ByteBuffer arena, final String key, final int hash) {
+        final int mask = slots.capacity() / Long.BYTES - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            final long entry = slots.getLong(slot * Long.BYTES);
+            if (entry == EMPTY) {
+                return -1;
+            } else if (entry != TOMBSTONE && (int) (entry >>> 32) == hash && keyEquals(arena, (int) entry, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean keyEquals(final ByteBuffer arena, final int offset, final String key) {
+        int position = offset + ENTRY_HEADER_BYTES;
+        final int end = position + arena.getInt(offset);
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c >= 0x80) {
+                // Compares the remainder encoded, which allocates, but only for keys that are not plain ASCII
+                final byte[] remainder = key.substring(i).getBytes(UTF_8);
+                if (end - position != remainder.length) {
+                    return false;
+                }
+                for (final byte b : remainder) {
+                    if (arena.get(position++) != b) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (position == end || arena.get(position++) != c) {
+                return false;
+            }
+        }
+        return position == end;
+    }
+
+    private static Object readValue(final ByteBuffer arena, final int offset) {
+        final int valueOffset = offset + ENTRY_HEADER_BYTES + arena.getInt(offset);
+        final byte type = arena.get(offset + Integer.BYTES);
+        switch (type) {
+        case BOOLEAN:
+            return arena.get(valueOffset) != 0;
+        case INT:
+            return arena.getInt(valueOffset);
+        case LONG:
+            return arena.getLong(valueOffset);
+        case DOUBLE:
+            return arena.getDouble(valueOffset);
+        case STRING:
+            return readString(arena, valueOffset + Integer.BYTES, arena.getInt(valueOffset));
+        default:
+            throw new IllegalStateException("Unknown value type " + type);
+        }
+    }
+
+    private static String readString(final ByteBuffer arena, final int offset, final int length) {
+        if (length < 0 || length > arena.capacity() - offset) {
+            throw new IndexOutOfBoundsException("Invalid string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        final ByteBuffer source = arena.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void putBytes(final ByteBuffer arena, final int offset, final byte[] bytes) {
+        final ByteBuffer target = arena.duplicate();
+        target.position(offset);
+        target.put(bytes);
+    }
+
+    private static int entryLength(final ByteBuffer arena, final int offset) {
+        final int valueOffset = offset + ENTRY_HEADER_BYTES + arena.getInt(offset);
+        switch (arena.get(offset + Integer.BYTES)) {
+        case BOOLEAN:
+            return valueOffset + 1 - offset;
+        case INT:
+            return valueOffset + Integer.BYTES - offset;
+        case LONG:
+        case DOUBLE:
+            return valueOffset + Long.BYTES - offset;
+        default:
+            return valueOffset + Integer.BYTES + arena.getInt(valueOffset) - offset;
+        }
+    }
+
+    private static long entryLength(final String key, final Object value) {
+        final long keyLength = ENTRY_HEADER_BYTES + encodedLength(key);
+        if (value instanceof Boolean) {
+            return keyLength + 1;
+        } else if (value instanceof Integer) {
+            return keyLength + Integer.BYTES;
+        } else if (value instanceof Long || value instanceof Double) {
+            return keyLength + Long.BYTES;
+        } else if (value instanceof String) {
+            return keyLength + Integer.BYTES + encodedLength((String) value);
+        }
+        throw new IllegalArgumentException(String.format(
+                "Cannot store a %s off-heap. Only booleans, doubles, ints, longs and strings can be stored.",
+                value.getClass().getName()));
+    }
+
+    private static long encodedLength(final String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // A surrogate pair encodes to 4 bytes, split evenly between its halves
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static ByteBuffer copyOf(final ByteBuffer buffer, final int length) {
+        final ByteBuffer copy = ByteBuffer.allocateDirect(length);
+        final ByteBuffer source = buffer.duplicate();
+        source.limit(length).position(0);
+        copy.put(source);
+        return copy;
+    }
+
+    private static int offsetAt(final ByteBuffer slots, final int slot) {
+        return (int) slots.getLong(slot * Long.BYTES);
+    }
+
+    private static boolean isLive(final long entry) {
+        return entry != EMPTY && entry != TOMBSTONE;
+    }
+
+    private static long maxLoad(final int slotCount) {
+        return slotCount * 3L / 4;
+    }
+
+    private static int hash(final String key) {
+        // Strings cache their hash code, so this costs nothing after the first read of a key
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,254 @@
+package io.liquorice.config.storage.offheap;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.AbstractConfigSpace;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSpace;
+import io.liquorice.config.exception.ConfigurationException;
+
+/**
+ * An implementation of a {@link ConfigSpace} whose contents are stored off-heap, where the contained items are
+ * unmodifiable after creation
+ *
+ * <p>
+ * Keys and values are encoded into direct memory rather than held as objects, so the heap used stays flat however
+ * many keys are stored, and the garbage collector has nothing to trace. Each read decodes the value it returns, and
+ * only allocates to box a primitive or to build a string. Boolean, double, int and long values are stored in binary
+ * form and read back without going through the {@link ConfigFormatter}. An int is also read back as a long or a double
+ * that way, and a long as a double. To be read as any other type, a binary value is first written through the
+ * {@link ConfigFormatter}, so it reads back the same as if it had been stored as a string.
+ *
+ * <p>
+ * NOTE: Only booleans, doubles, ints, longs and strings can be stored, so the {@link ConfigFormatter} must write
+ * values as strings, as the JSON formatters do. As every read decodes a new value, decoded objects are not cached.
+ * Listing {@link #keys()} or reading keys under a prefix copies the keys onto the heap.
+ */
+public class ReadableOffHeapConfigSpace extends AbstractConfigSpace {
+
+    private final OffHeapTable table;
+
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for retrieving properties
+     * @param properties
+     *            the properties to seed this {@link ReadableOffHeapConfigSpace} with. Values must be
+     *            {@link Boolean}s, {@link Double}s, {@link Integer}s, {@link Long}s or {@link String}s.
+     * @throws IllegalArgumentException
+     *             if a value has any other type
+     */
+    public ReadableOffHeapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties) {
+        super(requireNonNull(configFormatter));
+        table = new OffHeapTable(requireNonNull(properties));
+    }
+
+    /**
+     * CTOR
+     *
+     * @param configSpace
+     *            A {@link ReadableOffHeapConfigSpace} whose configuration to copy
+     * @param table
+     *            the {@link OffHeapTable} to read from
+     */
+    ReadableOffHeapConfigSpace(final ReadableOffHeapConfigSpace configSpace, final OffHeapTable table) {
+        super(configSpace);
+        this.table = table;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBooleanRequired(final String key) throws ConfigurationException {
+        final Object value = lookup(key);
+        return value instanceof Boolean ? (Boolean) value : getObjectRequired(key, Boolean.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDoubleRequired(final String key) throws ConfigurationException {
+        final Object value = lookup(key);
+        return isNumber(value) ? ((Number) value).doubleValue() : getObjectRequired(key, Double.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIntRequired(final String key) throws ConfigurationException {
+        final Object value = lookup(key);
+        return value instanceof Integer ? (Integer) value : getObjectRequired(key, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongRequired(final String key) throws ConfigurationException {
+        final Object value = lookup(key);
+        return isWholeNumber(value) ? ((Number) value).longValue() : getObjectRequired(key, Long.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getObjectRequired(final String key, final Class<T> clazz) throws ConfigurationException {
+        final Object value = lookup(key);
+        if (isPrimitive(value) && clazz.isInstance(value)) {
+            return clazz.cast(value);
+        }
+
+        try {
+            return decode(key, encode(requireNonNull(value)), clazz);
+        } catch (final Exception e) {
+            throw new ConfigurationException(String.format("Failed to read property '%s'", key), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getStringRequired(final String key) throws ConfigurationException {
+        return getObjectRequired(key, String.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue(final String key) {
+        return table.containsKey(requireNonEmpty(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(table.keys());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return new Snapshot(this, table);
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated to store the contained properties
+     */
+    public long getOffHeapBytes() {
+        return table.getAllocatedBytes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object lookup(final String key) {
+        return table.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean asBoolean(final Object value, final boolean defaultValue) {
+        return value instanceof Boolean ? (Boolean) value : super.asBoolean(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double asDouble(final Object value, final double defaultValue) {
+        return isNumber(value) ? ((Number) value).doubleValue() : super.asDouble(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int asInt(final Object value, final int defaultValue) {
+        return value instanceof Integer ? (Integer) value : super.asInt(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long asLong(final Object value, final long defaultValue) {
+        return isWholeNumber(value) ? ((Number) value).longValue() : super.asLong(value, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected <T> T asObject(final Object value, final Class<T> clazz, final T defaultValue) {
+        return isPrimitive(value) && clazz.isInstance(value) ? clazz.cast(value)
+                : super.asObject(encode(value), clazz, defaultValue);
+    }
+
+    /**
+     * @return the {@link OffHeapTable} storing all of the contained properties
+     */
+    OffHeapTable getTable() {
+        return table;
+    }
+
+    /**
+     * Write a value stored in binary form through the {@link ConfigFormatter}, to be read as a type other than its own
+     *
+     * @param value
+     *            the stored value, as returned by {@link #lookup(String)}
+     * @return the value as the {@link ConfigFormatter} would have stored it
+     */
+    private Object encode(final Object value) {
+        return isPrimitive(value) ? getConfigFormatter().write(value) : value;
+    }
+
+    private static boolean isPrimitive(final Object value) {
+        return value instanceof Boolean || isNumber(value);
+    }
+
+    private static boolean isNumber(final Object value) {
+        return value instanceof Double || isWholeNumber(value);
+    }
+
+    private static boolean isWholeNumber(final Object value) {
+        return value instanceof Integer || value instanceof Long;
+    }
+
+    /**
+     * A {@link ConfigSnapshot} reading from a table that is never modified
+     */
+    static final class Snapshot extends ReadableOffHeapConfigSpace implements ConfigSnapshot {
+
+        Snapshot(final ReadableOffHeapConfigSpace configSpace, final OffHeapTable table) {
+            super(configSpace, table);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigSnapshot snapshot() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.liquorice.config.storage.offheap;
+
+import static io.liquorice.config.utils.StringUtils.requireNonEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigBatch;
+import io.liquorice.config.api.storage.ConfigListener;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.api.storage.ConfigSubscription;
+import io.liquorice.config.api.storage.WritableConfigSpace;
+
+/**
+ * An off-heap implementation of a {@link WritableConfigSpace} where the contained items can be modified
+ *
+ * <p>
+ * Unlike the in-memory config spaces, updates modify the backing store in place rather than copying it, as copying
+ * millions of keys for every write would cost far more than the write. Reads stay lock-free unless they race a write,
+ * and a {@link ConfigSnapshot} copies the backing store, which takes time and direct memory proportional to its size.
+ * The latest snapshot is shared until the next write.
+ *
+ * @see ReadableOffHeapConfigSpace
+ */
+public class WritableOffHeapConfigSpace extends ReadableOffHeapConfigSpace implements WritableConfigSpace {
+
+    // The latest snapshot, until the next write. Guarded by this for writing.
+    private volatile ConfigSnapshot latestSnapshot;
+
+    /**
+     * CTOR
+     *
+     * @param configFormatter
+     *            the {@link ConfigFormatter} to use for retrieving and storing properties. Must write values as
+     *            strings.
+     * @param properties
+     *            the properties to seed this {@link WritableOffHeapConfigSpace} with. Values must be
+     *            {@link Boolean}s, {@link Double}s, {@link Integer}s, {@link Long}s or {@link String}s.
+     * @throws IllegalArgumentException
+     *             if a value has any other type
+     */
+    public WritableOffHeapConfigSpace(final ConfigFormatter configFormatter, final Map<String, Object> properties) {
+        super(requireNonNull(configFormatter), requireNonNull(properties));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batch(final Consumer<? super ConfigBatch> changes) {
+        requireNonNull(changes, "Changes cannot be null");
+
+        final Batch batch = new Batch();
+        try {
+            changes.accept(batch);
+        } finally {
+            batch.closed = true;
+        }
+        update(batch.changes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final String key) {
+        requireNonEmpty(key);
+
+        update(Collections.singletonMap(key, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBoolean(final String key, final boolean value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDouble(final String key, final double value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInt(final String key, final int value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLong(final String key, final long value) {
+        setPrimitive(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException
+     *             if the {@link ConfigFormatter} does not write $value as a string
+     */
+    @Override
+    public void setObject(final String key, final Object value) {
+        requireNonEmpty(key);
+        requireNonNull(value, "Null value. Call ConfigSpace#remove to instead.");
+
+        update(Collections.singletonMap(key, getConfigFormatter().write(value)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setString(final String key, final String value) {
+        setObject(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: Unless nothing was written since the last snapshot, this copies the backing store, holding back writers
+     * while it does so
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        final ConfigSnapshot latest = latestSnapshot;
+        if (latest != null) {
+            return latest;
+        }
+
+        synchronized (this) {
+            if (latestSnapshot == null) {
+                latestSnapshot = new Snapshot(this, getTable().copy());
+            }
+            return latestSnapshot;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: $listener is passed a {@link #snapshot()}, which copies the backing store. It is taken on the listener
+     * thread, once per round of notifications and shared by every listener notified after the same write, but a
+     * listener that keeps up with a stream of writes still copies the backing store about once per write.
+     */
+    @Override
+    public ConfigSubscription subscribe(final String key, final ConfigListener listener) {
+        return super.subscribe(key, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * NOTE: $listener is passed a {@link #snapshot()}, which copies the backing store
+     *
+     * @see #subscribe(String, ConfigListener)
+     */
+    @Override
+    public ConfigSubscription subscribeToPrefix(final String prefix, final ConfigListener listener) {
+        return super.subscribeToPrefix(prefix, listener);
+    }
+
+    private void setPrimitive(final String key, final Object value) {
+        requireNonEmpty(key);
+
+        // Primitives are stored in binary form so they can be read back without the formatter, and are written through
+        // it only when read as another type
+        update(Collections.singletonMap(key, value));
+    }
+
+    private synchronized void update(final Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Applied as a whole, so that readers and snapshots never observe only some of the changes
+        latestSnapshot = null;
+        getTable().apply(changes);
+        markModified(changes.keySet());
+    }
+
+    /**
+     * Stages changes for {@link #batch(Consumer)}
+     */
+    private final class Batch implements ConfigBatch {
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private boolean closed;
+
+        @Override
+        public void remove(final String key) {
+            stage(key, null);
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setInt(final String key, final int value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            stage(key, value);
+        }
+
+        @Override
+        public void setObject(final String key, final Object value) {
+            requireNonNull(value, "Null value. Call ConfigBatch#remove instead.");
+            stage(key, getConfigFormatter().write(value));
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            setObject(key, value);
+        }
+
+        private void stage(final String key, final Object value) {
+            requireNonEmpty(key);
+            if (closed) {
+                throw new IllegalStateException("Batch has already been applied");
+            }
+            changes.put(key, value);
+        }
+    }
+}
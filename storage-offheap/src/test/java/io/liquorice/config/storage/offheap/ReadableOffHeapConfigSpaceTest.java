@@ -0,0 +1,117 @@
+package io.liquorice.config.storage.offheap;
+
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_DOUBLE_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_LONG_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DEFAULT_STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOES_NOT_EXIST_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.exception.ConfigurationException;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+
+class ReadableOffHeapConfigSpaceTest {
+
+    // Neither plain ASCII nor a single UTF-8 byte per character
+    private static final String UNICODE_KEY = "key.caf\u00e9.\u20ac\ud83d\ude00";
+
+    private ReadableOffHeapConfigSpace configSpace;
+
+    static Map<String, Object> seedProperties(final ConfigFormatter configFormatter) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(BOOL_KEY, BOOL_VALUE);
+        properties.put(DOUBLE_KEY, DOUBLE_VALUE);
+        properties.put(INT_KEY, INT_VALUE);
+        properties.put(LONG_KEY, LONG_VALUE);
+        properties.put(STRING_KEY, configFormatter.write(STRING_VALUE));
+        properties.put(COMPLEX_KEY, configFormatter.write(COMPLEX_VALUE));
+        return properties;
+    }
+
+    @BeforeEach
+    void setup() {
+        final ConfigFormatter configFormatter = new JacksonConfigFormatter.Builder().build();
+        configSpace = new ReadableOffHeapConfigSpace(configFormatter, seedProperties(configFormatter));
+    }
+
+    @Test
+    void testGettersReturnCorrectValues() {
+        assertEquals(BOOL_VALUE, configSpace.getBoolean(BOOL_KEY, DEFAULT_BOOL_VALUE));
+        assertEquals(DOUBLE_VALUE, configSpace.getDouble(DOUBLE_KEY, DEFAULT_DOUBLE_VALUE));
+        assertEquals(INT_VALUE, configSpace.getInt(INT_KEY, DEFAULT_INT_VALUE));
+        assertEquals(LONG_VALUE, configSpace.getLong(LONG_KEY, DEFAULT_LONG_VALUE));
+        assertEquals(STRING_VALUE, configSpace.getString(STRING_KEY, DEFAULT_STRING_VALUE));
+        assertEquals(COMPLEX_VALUE, configSpace.getObject(COMPLEX_KEY, DEFAULT_COMPLEX_VALUE, List.class));
+
+        assertEquals(INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
+        assertEquals(COMPLEX_VALUE, configSpace.getObjectRequired(COMPLEX_KEY, List.class));
+        assertEquals(Set.of(BOOL_KEY, DOUBLE_KEY, INT_KEY, LONG_KEY, STRING_KEY, COMPLEX_KEY), configSpace.keys());
+    }
+
+    @Test
+    void testGettersReturnDefaultValues() {
+        assertEquals(DEFAULT_BOOL_VALUE, configSpace.getBoolean(DOES_NOT_EXIST_KEY, DEFAULT_BOOL_VALUE));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(DOES_NOT_EXIST_KEY, DEFAULT_INT_VALUE));
+        assertEquals(DEFAULT_STRING_VALUE, configSpace.getString(DOES_NOT_EXIST_KEY, DEFAULT_STRING_VALUE));
+        assertEquals(DEFAULT_INT_VALUE, configSpace.getInt(BOOL_KEY, DEFAULT_INT_VALUE));
+        assertFalse(configSpace.hasValue(DOES_NOT_EXIST_KEY));
+    }
+
+    @Test
+    void testRequiredPropertyDoesNotExistOrIsOfWrongType() {
+        assertThrows(ConfigurationException.class, () -> configSpace.getIntRequired(DOES_NOT_EXIST_KEY));
+        assertThrows(ConfigurationException.class, () -> configSpace.getObjectRequired(DOES_NOT_EXIST_KEY, List.class));
+        assertThrows(ConfigurationException.class, () -> configSpace.getLongRequired(BOOL_KEY));
+        assertThrows(ConfigurationException.class, () -> configSpace.getObjectRequired(INT_KEY, List.class));
+    }
+
+    @Test
+    void testKeysAreMatchedByTheirEncodedForm() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(UNICODE_KEY, "unicode");
+        properties.put("key.caf", "prefix");
+        final ReadableOffHeapConfigSpace unicodeSpace = new ReadableOffHeapConfigSpace(
+                new PassThroughConfigFormatter(), properties);
+
+        assertEquals("unicode", unicodeSpace.getStringRequired(UNICODE_KEY));
+        assertEquals("prefix", unicodeSpace.getStringRequired("key.caf"));
+        assertFalse(unicodeSpace.hasValue("key.caf\u00e9"));
+        assertFalse(unicodeSpace.hasValue(UNICODE_KEY + "x"));
+        assertTrue(unicodeSpace.keys().contains(UNICODE_KEY));
+    }
+
+    @Test
+    void testOnlyPrimitivesAndStringsCanBeStored() {
+        final Map<String, Object> properties = Map.of(COMPLEX_KEY, COMPLEX_VALUE);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReadableOffHeapConfigSpace(new PassThroughConfigFormatter(), properties));
+    }
+}
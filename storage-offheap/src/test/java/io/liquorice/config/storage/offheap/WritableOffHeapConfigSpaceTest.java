@@ -0,0 +1,248 @@
+package io.liquorice.config.storage.offheap;
+
+import static io.liquorice.config.test.support.ConfigSpaceTestData.BOOL_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.COMPLEX_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.DOUBLE_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.LONG_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_KEY;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.STRING_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_BOOL_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_COMPLEX_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_DOUBLE_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_INT_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_LONG_VALUE;
+import static io.liquorice.config.test.support.ConfigSpaceTestData.UPDATED_STRING_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.liquorice.config.api.formatter.ConfigFormatter;
+import io.liquorice.config.api.storage.ConfigKey;
+import io.liquorice.config.api.storage.ConfigSnapshot;
+import io.liquorice.config.formatter.json.jackson.JacksonConfigFormatter;
+import io.liquorice.config.formatter.passthrough.PassThroughConfigFormatter;
+
+class WritableOffHeapConfigSpaceTest {
+
+    private static final int MANY_KEYS = 50_000;
+    private static final int READERS = 4;
+
+    private WritableOffHeapConfigSpace configSpace;
+
+    @BeforeEach
+    void setup() {
+        final ConfigFormatter configFormatter = new JacksonConfigFormatter.Builder().build();
+        configSpace = new WritableOffHeapConfigSpace(configFormatter,
+                ReadableOffHeapConfigSpaceTest.seedProperties(configFormatter));
+    }
+
+    @Test
+    void testSetters() {
+        configSpace.setBoolean(BOOL_KEY, UPDATED_BOOL_VALUE);
+        configSpace.setDouble(DOUBLE_KEY, UPDATED_DOUBLE_VALUE);
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.setLong(LONG_KEY, UPDATED_LONG_VALUE);
+        configSpace.setString(STRING_KEY, UPDATED_STRING_VALUE);
+        configSpace.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+
+        assertEquals(UPDATED_BOOL_VALUE, configSpace.getBooleanRequired(BOOL_KEY));
+        assertEquals(UPDATED_DOUBLE_VALUE, configSpace.getDoubleRequired(DOUBLE_KEY));
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertEquals(UPDATED_LONG_VALUE, configSpace.getLongRequired(LONG_KEY));
+        assertEquals(UPDATED_STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
+        assertEquals(UPDATED_COMPLEX_VALUE, configSpace.getObjectRequired(COMPLEX_KEY, List.class));
+    }
+
+    @Test
+    void testPrimitivesReadBackAsOtherTypes() {
+        configSpace.setInt(INT_KEY, 5);
+        assertEquals(5L, configSpace.getLongRequired(INT_KEY));
+        assertEquals(5.0, configSpace.getDoubleRequired(INT_KEY));
+        assertEquals(5L, configSpace.getLong(INT_KEY, -1L));
+        assertEquals(5.0, configSpace.getDouble(INT_KEY, -1.0));
+        assertEquals("5", configSpace.getString(INT_KEY, "def"));
+        assertEquals("5", configSpace.getStringRequired(INT_KEY));
+
+        configSpace.batch(batch -> {
+            batch.setLong(LONG_KEY, 7L);
+            batch.setBoolean(BOOL_KEY, true);
+        });
+        assertEquals(7, configSpace.getIntRequired(LONG_KEY));
+        assertEquals(7.0, configSpace.getDoubleRequired(LONG_KEY));
+        assertEquals("true", configSpace.getString(BOOL_KEY, "def"));
+    }
+
+    @Test
+    void testRemoveProperty() {
+        final ConfigKey<Integer> key = ConfigKey.ofInt(INT_KEY, UPDATED_INT_VALUE);
+        assertEquals(INT_VALUE, (int) configSpace.get(key));
+
+        configSpace.remove(INT_KEY);
+
+        assertFalse(configSpace.hasValue(INT_KEY));
+        assertFalse(configSpace.keys().contains(INT_KEY));
+        assertEquals(UPDATED_INT_VALUE, (int) configSpace.get(key));
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByWrites() {
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        configSpace.batch(batch -> batch.remove(STRING_KEY));
+
+        assertEquals(INT_VALUE, snapshot.getIntRequired(INT_KEY));
+        assertEquals(STRING_VALUE, snapshot.getStringRequired(STRING_KEY));
+        assertEquals(UPDATED_INT_VALUE, configSpace.getIntRequired(INT_KEY));
+        assertFalse(configSpace.hasValue(STRING_KEY));
+    }
+
+    @Test
+    void testSnapshotIsSharedUntilTheNextWrite() {
+        final ConfigSnapshot snapshot = configSpace.snapshot();
+        assertSame(snapshot, configSpace.snapshot());
+
+        configSpace.setInt(INT_KEY, UPDATED_INT_VALUE);
+        final ConfigSnapshot written = configSpace.snapshot();
+        assertNotSame(snapshot, written);
+        assertEquals(INT_VALUE, snapshot.getIntRequired(INT_KEY));
+        assertEquals(UPDATED_INT_VALUE, written.getIntRequired(INT_KEY));
+    }
+
+    @Test
+    void testBatchWithAnUnstorableValueIsDiscarded() {
+        final WritableOffHeapConfigSpace passThroughSpace = new WritableOffHeapConfigSpace(
+                new PassThroughConfigFormatter(), Map.of(INT_KEY, INT_VALUE));
+
+        assertThrows(IllegalArgumentException.class, () -> passThroughSpace.batch(batch -> {
+            batch.setInt(INT_KEY, UPDATED_INT_VALUE);
+            batch.setObject(COMPLEX_KEY, UPDATED_COMPLEX_VALUE);
+        }));
+        assertEquals(INT_VALUE, passThroughSpace.getIntRequired(INT_KEY));
+    }
+
+    @Test
+    void testStoreGrowsAndReclaimsOverwrittenEntries() {
+        // Enough keys to grow the table many times, with half of them overwritten and a quarter removed
+        for (int i = 0; i < MANY_KEYS; i++) {
+            configSpace.setLong("many." + i, i);
+        }
+        for (int i = 0; i < MANY_KEYS; i += 2) {
+            configSpace.setString("many." + i, "value " + i);
+        }
+        for (int i = 0; i < MANY_KEYS; i += 4) {
+            configSpace.remove("many." + i);
+        }
+        final long allocatedBytes = configSpace.getOffHeapBytes();
+
+        // Without reclaiming the entries they replace, these writes would need several times the space
+        for (int round = 0; round < 8; round++) {
+            for (int i = 1; i < MANY_KEYS; i += 2) {
+                configSpace.setLong("many." + i, -i);
+            }
+        }
+
+        for (int i = 0; i < MANY_KEYS; i++) {
+            final String key = "many." + i;
+            if (i % 4 == 0) {
+                assertFalse(configSpace.hasValue(key));
+            } else if (i % 2 == 0) {
+                assertEquals("value " + i, configSpace.getStringRequired(key));
+            } else {
+                assertEquals(-i, configSpace.getLongRequired(key));
+            }
+        }
+        assertEquals(6 + MANY_KEYS * 3 / 4, configSpace.keys().size());
+        assertTrue(configSpace.getOffHeapBytes() <= 2 * allocatedBytes, "Grew to " + configSpace.getOffHeapBytes());
+    }
+
+    @Test
+    void testReadsRacingWritesSeeConsistentValues() throws Exception {
+        // Every write grows or moves the table at some point, while the readers check keys that never change
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < MANY_KEYS; i++) {
+                configSpace.setString("many." + i, "value " + i);
+            }
+        });
+        final ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            writer.start();
+            for (int reader = 0; reader < READERS; reader++) {
+                futures.add(readers.submit(() -> {
+                    while (writer.isAlive()) {
+                        assertEquals(INT_VALUE, configSpace.getIntRequired(INT_KEY));
+                        assertEquals(STRING_VALUE, configSpace.getStringRequired(STRING_KEY));
+                    }
+                }));
+            }
+            writer.join();
+            for (final Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals("value " + (MANY_KEYS - 1), configSpace.getStringRequired("many." + (MANY_KEYS - 1)));
+    }
+
+    @Test
+    void testReadsRacingARemovedSlotBeingReusedNeverSeeAnotherKey() throws Exception {
+        // "Aa" and "BB" share a hash, so each reuses the slot the other one was removed from. The table is written
+        // directly, as the space would notify every write, to reuse the slot as often as possible.
+        final OffHeapTable table = new OffHeapTable(Map.of("Aa", "first"));
+        final Map<String, Object> removeFirst = new HashMap<>();
+        removeFirst.put("Aa", null);
+        final Map<String, Object> removeSecond = new HashMap<>();
+        removeSecond.put("BB", null);
+
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < MANY_KEYS; i++) {
+                table.apply(removeFirst);
+                table.apply(Map.of("BB", "second"));
+                table.apply(removeSecond);
+                table.apply(Map.of("Aa", "first"));
+            }
+        });
+        final ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            writer.start();
+            for (int reader = 0; reader < READERS; reader++) {
+                futures.add(readers.submit(() -> {
+                    while (writer.isAlive()) {
+                        final Object first = table.get("Aa");
+                        assertTrue(first == null || first.equals("first"), "Read " + first);
+                        final Object second = table.get("BB");
+                        assertTrue(second == null || second.equals("second"), "Read " + second);
+                    }
+                }));
+            }
+            writer.join();
+            for (final Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals("first", table.get("Aa"));
+        assertFalse(table.containsKey("BB"));
+    }
+}